@@ -28,6 +28,16 @@ dependencies {
 
     // MySQL Connector
     implementation("com.mysql:mysql-connector-j:8.2.0")
+
+    // H2 for the embedded storage backend
+    implementation("com.h2database:h2:2.2.224")
+
+    // Tests: the ranking store contract runs on H2, and on MySQL when one is configured
+    testImplementation("io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT")
+    testImplementation(platform("org.junit:junit-bom:5.10.2"))
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+    testImplementation("org.mockito:mockito-core:5.11.0")
 }
 
 java {
@@ -48,6 +58,26 @@ tasks {
         dependsOn(shadowJar)
     }
 
+    test {
+        useJUnitPlatform {
+            excludeTags("benchmark")
+        }
+    }
+
+    // Same workload on every available backend: ./gradlew benchmark
+    register<Test>("benchmark") {
+        description = "Runs the ranking store benchmark."
+        group = "verification"
+        testClassesDirs = sourceSets["test"].output.classesDirs
+        classpath = sourceSets["test"].runtimeClasspath
+        useJUnitPlatform {
+            includeTags("benchmark")
+        }
+        testLogging {
+            showStandardStreams = true
+        }
+    }
+
     processResources {
         filesMatching("plugin.yml") {
             expand("version" to version)
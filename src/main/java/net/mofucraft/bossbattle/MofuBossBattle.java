@@ -3,17 +3,44 @@ package net.mofucraft.bossbattle;
 import net.mofucraft.bossbattle.battle.BattleManager;
 import net.mofucraft.bossbattle.command.BossCommand;
 import net.mofucraft.bossbattle.command.BossTabCompleter;
+import net.mofucraft.bossbattle.config.BossConfig;
 import net.mofucraft.bossbattle.config.ConfigManager;
+import net.mofucraft.bossbattle.database.AttemptCompactor;
 import net.mofucraft.bossbattle.database.DatabaseManager;
+import net.mofucraft.bossbattle.database.HistoryArchiver;
+import net.mofucraft.bossbattle.database.HistoryRollup;
 import net.mofucraft.bossbattle.database.RankingRepository;
+import net.mofucraft.bossbattle.database.RankingStore;
+import net.mofucraft.bossbattle.database.outbox.DrainReport;
+import net.mofucraft.bossbattle.database.outbox.OutboxJournal;
+import net.mofucraft.bossbattle.database.outbox.OutboxReplayer;
+import net.mofucraft.bossbattle.database.transfer.DataTransferService;
 import net.mofucraft.bossbattle.hook.MythicMobsHook;
 import net.mofucraft.bossbattle.hook.PlaceholderAPIHook;
 import net.mofucraft.bossbattle.listener.CommandRestrictionListener;
 import net.mofucraft.bossbattle.listener.MythicMobListener;
 import net.mofucraft.bossbattle.listener.PlayerEventListener;
+import net.mofucraft.bossbattle.ranking.ClearTimeDistribution;
+import net.mofucraft.bossbattle.ranking.ClearedPlayerIndex;
+import net.mofucraft.bossbattle.ranking.HistoryPageCache;
+import net.mofucraft.bossbattle.ranking.LeaderboardIndex;
+import net.mofucraft.bossbattle.ranking.PlayerNameResolver;
+import net.mofucraft.bossbattle.ranking.PlayerStandingCache;
+import net.mofucraft.bossbattle.ranking.PlayerStatsCache;
+import net.mofucraft.bossbattle.ranking.RankingPageCache;
+import net.mofucraft.bossbattle.task.CompactionTask;
+import net.mofucraft.bossbattle.task.HistoryRetentionTask;
+import net.mofucraft.bossbattle.task.OutboxReplayTask;
+import net.mofucraft.bossbattle.task.RollupTask;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 
 public final class MofuBossBattle extends JavaPlugin {
@@ -22,10 +49,25 @@ public final class MofuBossBattle extends JavaPlugin {
 
     private ConfigManager configManager;
     private DatabaseManager databaseManager;
-    private RankingRepository rankingRepository;
+    private RankingStore rankingStore;
+    private RankingPageCache rankingPageCache;
+    private HistoryPageCache historyPageCache;
+    private PlayerStandingCache playerStandingCache;
+    private PlayerStatsCache playerStatsCache;
+    private PlayerNameResolver playerNameResolver;
+    private ClearTimeDistribution clearTimeDistribution;
+    private ClearedPlayerIndex clearedPlayerIndex;
+    private LeaderboardIndex leaderboardIndex;
+    private DataTransferService dataTransferService;
+    private AttemptCompactor attemptCompactor;
+    private HistoryRollup historyRollup;
+    private HistoryArchiver historyArchiver;
+    private OutboxJournal outboxJournal;
+    private OutboxReplayer outboxReplayer;
     private BattleManager battleManager;
     private MythicMobsHook mythicMobsHook;
     private PlaceholderAPIHook placeholderAPIHook;
+    private volatile StartupState startupState = StartupState.WARMING_UP;
 
     @Override
     public void onEnable() {
@@ -35,15 +77,46 @@ public final class MofuBossBattle extends JavaPlugin {
         configManager = new ConfigManager(this);
         configManager.loadAll();
 
-        // Initialize database
+        // Initialize database (connected in the background, see startDatabase)
         databaseManager = new DatabaseManager(this, configManager);
-        if (!databaseManager.connect()) {
-            getLogger().severe("Failed to connect to database! Disabling plugin...");
-            getServer().getPluginManager().disablePlugin(this);
-            return;
+        rankingStore = new RankingRepository(databaseManager);
+        rankingStore.setPeriodCalendar(configManager.getPeriodTimezone(), configManager.getPeriodWeekStart());
+        historyPageCache = new HistoryPageCache(rankingStore);
+        playerStandingCache = new PlayerStandingCache(rankingStore, () -> configManager.getAllBossConfigs().stream()
+                .map(BossConfig::getId)
+                .toList());
+        playerStatsCache = new PlayerStatsCache(rankingStore);
+        playerNameResolver = new PlayerNameResolver(rankingStore);
+        clearTimeDistribution = new ClearTimeDistribution(rankingStore);
+        clearedPlayerIndex = new ClearedPlayerIndex(rankingStore);
+        leaderboardIndex = new LeaderboardIndex(rankingStore);
+        rankingPageCache = new RankingPageCache(rankingStore, leaderboardIndex);
+        rankingStore.addListener(rankingPageCache);
+        rankingStore.addListener(historyPageCache);
+        rankingStore.addListener(playerStandingCache);
+        rankingStore.addListener(playerStatsCache);
+        rankingStore.addListener(playerNameResolver);
+        rankingStore.addListener(clearTimeDistribution);
+        rankingStore.addListener(clearedPlayerIndex);
+        rankingStore.addListener(leaderboardIndex);
+
+        // Results the database cannot take are kept in a local journal until it can
+        if (configManager.isOutboxEnabled()) {
+            OutboxJournal journal = new OutboxJournal(new File(getDataFolder(), "outbox"), getLogger());
+            try {
+                journal.open();
+                outboxJournal = journal;
+                outboxReplayer = new OutboxReplayer(journal, rankingStore, getLogger());
+                rankingStore.setOutbox(journal, configManager.getOutboxWriteTimeoutMs());
+            } catch (IOException e) {
+                getLogger().log(Level.SEVERE, "Failed to open the outbox journal, failed writes will be lost", e);
+            }
         }
 
-        rankingRepository = new RankingRepository(databaseManager);
+        dataTransferService = new DataTransferService(databaseManager, rankingStore, configManager, getLogger());
+        attemptCompactor = new AttemptCompactor(databaseManager, getLogger());
+        historyRollup = new HistoryRollup(databaseManager, getLogger());
+        historyArchiver = new HistoryArchiver(databaseManager, getLogger());
 
         // Initialize battle manager
         battleManager = new BattleManager(this);
@@ -78,29 +151,135 @@ public final class MofuBossBattle extends JavaPlugin {
             bossCommand.setTabCompleter(new BossTabCompleter(this));
         }
 
+        // Background maintenance (20 ticks per second)
+        long compactionInterval = Math.max(1, configManager.getCompactionIntervalMinutes()) * 60 * 20;
+        new CompactionTask(this).runTaskTimerAsynchronously(this, Math.min(compactionInterval, 10 * 60 * 20), compactionInterval);
+        long rollupInterval = Math.max(1, configManager.getRollupIntervalMinutes()) * 60 * 20;
+        new RollupTask(this).runTaskTimerAsynchronously(this, Math.min(rollupInterval, 60 * 20), rollupInterval);
+        long retentionInterval = Math.max(1, configManager.getHistoryRetentionIntervalMinutes()) * 60 * 20;
+        new HistoryRetentionTask(this).runTaskTimerAsynchronously(this, retentionInterval, retentionInterval);
+        if (outboxReplayer != null) {
+            long replayInterval = Math.max(1, configManager.getOutboxReplayIntervalSeconds()) * 20;
+            new OutboxReplayTask(this).runTaskTimerAsynchronously(this, replayInterval, replayInterval);
+        }
+
+        startDatabase();
+
         getLogger().info("MofuBossBattle has been enabled!");
     }
 
+    /**
+     * Connect, migrate and warm the caches off the main thread. Until this finishes, battle
+     * starts and database-backed placeholders answer with a warming up message.
+     */
+    private void startDatabase() {
+        startupState = StartupState.WARMING_UP;
+        long startedAt = System.currentTimeMillis();
+
+        databaseManager.connectAsync()
+                .thenCompose(connected -> connected
+                        ? databaseManager.whenMigrated().thenCompose(version -> warmUp()).thenApply(v -> true)
+                        : CompletableFuture.completedFuture(false))
+                .exceptionally(e -> {
+                    getLogger().log(Level.SEVERE, "Database startup failed", e);
+                    return false;
+                })
+                .thenAccept(ready -> {
+                    // Shut down before the database came up
+                    if (!isEnabled()) {
+                        return;
+                    }
+                    getServer().getScheduler().runTask(this, () -> onDatabaseStarted(ready, startedAt));
+                });
+    }
+
+    // Histograms, clear bitmaps and the leaderboards are rebuilt from the personal bests, season names are
+    // loaded for tab completion and the first ranking page of every boss is fetched
+    private CompletableFuture<Void> warmUp() {
+        List<CompletableFuture<?>> loads = new ArrayList<>();
+        loads.add(clearTimeDistribution.rebuild());
+        loads.add(clearedPlayerIndex.rebuild());
+        loads.add(leaderboardIndex.rebuild());
+        loads.add(rankingStore.getSeasons());
+        for (BossConfig bossConfig : configManager.getAllBossConfigs()) {
+            loads.add(rankingPageCache.getPage(bossConfig.getId(), 1));
+        }
+        return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new));
+    }
+
+    private void onDatabaseStarted(boolean ready, long startedAt) {
+        if (!ready) {
+            startupState = StartupState.UNAVAILABLE;
+            long retrySeconds = Math.max(1, configManager.getStartupRetryIntervalSeconds());
+            getLogger().severe("Database is not ready! Battles stay unavailable, retrying in " + retrySeconds + "s");
+            getServer().getScheduler().runTaskLater(this, this::startDatabase, retrySeconds * 20);
+            return;
+        }
+
+        startupState = StartupState.READY;
+
+        // Players already online (e.g. after /reload, or who joined while warming up) missed the login prefetch
+        for (Player player : getServer().getOnlinePlayers()) {
+            playerStandingCache.loadAsync(player.getUniqueId());
+            playerStatsCache.loadAsync(player.getUniqueId());
+        }
+        getLogger().info("Database ready (" + (System.currentTimeMillis() - startedAt) + "ms)");
+    }
+
     @Override
     public void onDisable() {
+        // Stop background maintenance
+        if (attemptCompactor != null) {
+            attemptCompactor.cancel();
+        }
+        if (historyArchiver != null) {
+            historyArchiver.cancel();
+        }
+
         // End all active battles
         if (battleManager != null) {
             battleManager.endAllBattles();
         }
 
+        // Let result writes still in flight finish, anything left over goes to the outbox
+        if (rankingStore != null) {
+            DrainReport report = rankingStore.drain(configManager.getShutdownDrainTimeoutMs());
+            if (report.getTotal() > 0) {
+                getLogger().log(report.getLost() > 0 ? Level.WARNING : Level.INFO, "Shutdown: " + report.format());
+            }
+        }
+
         // Close database connection
         if (databaseManager != null) {
             databaseManager.disconnect();
         }
 
+        // Flush the outbox last, writes failing during shutdown still end up in it
+        if (outboxJournal != null) {
+            outboxJournal.close();
+        }
+
         getLogger().info("MofuBossBattle has been disabled!");
     }
 
     public void reload() {
         configManager.loadAll();
+        databaseManager.applySettings();
+        rankingStore.setPeriodCalendar(configManager.getPeriodTimezone(), configManager.getPeriodWeekStart());
         getLogger().info("Configuration reloaded!");
     }
 
+    public StartupState getStartupState() {
+        return startupState;
+    }
+
+    /**
+     * Whether the database is connected, migrated and warmed up
+     */
+    public boolean isReady() {
+        return startupState == StartupState.READY;
+    }
+
     public static MofuBossBattle getInstance() {
         return instance;
     }
@@ -113,8 +292,67 @@ public final class MofuBossBattle extends JavaPlugin {
         return databaseManager;
     }
 
-    public RankingRepository getRankingRepository() {
-        return rankingRepository;
+    public RankingStore getRankingStore() {
+        return rankingStore;
+    }
+
+    public RankingPageCache getRankingPageCache() {
+        return rankingPageCache;
+    }
+
+    public HistoryPageCache getHistoryPageCache() {
+        return historyPageCache;
+    }
+
+    public PlayerStandingCache getPlayerStandingCache() {
+        return playerStandingCache;
+    }
+
+    public PlayerStatsCache getPlayerStatsCache() {
+        return playerStatsCache;
+    }
+
+    public PlayerNameResolver getPlayerNameResolver() {
+        return playerNameResolver;
+    }
+
+    public ClearTimeDistribution getClearTimeDistribution() {
+        return clearTimeDistribution;
+    }
+
+    public ClearedPlayerIndex getClearedPlayerIndex() {
+        return clearedPlayerIndex;
+    }
+
+    public LeaderboardIndex getLeaderboardIndex() {
+        return leaderboardIndex;
+    }
+
+    public DataTransferService getDataTransferService() {
+        return dataTransferService;
+    }
+
+    public AttemptCompactor getAttemptCompactor() {
+        return attemptCompactor;
+    }
+
+    public HistoryRollup getHistoryRollup() {
+        return historyRollup;
+    }
+
+    public HistoryArchiver getHistoryArchiver() {
+        return historyArchiver;
+    }
+
+    /**
+     * Null when the outbox is disabled or could not be opened
+     */
+    public OutboxJournal getOutboxJournal() {
+        return outboxJournal;
+    }
+
+    public OutboxReplayer getOutboxReplayer() {
+        return outboxReplayer;
     }
 
     public BattleManager getBattleManager() {
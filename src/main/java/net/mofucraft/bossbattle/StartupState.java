@@ -0,0 +1,11 @@
+package net.mofucraft.bossbattle;
+
+/**
+ * Where the plugin is in bringing up the database. Battle starts and database-backed
+ * placeholders are only served once it is {@link #READY}.
+ */
+public enum StartupState {
+    WARMING_UP,    // Connecting, migrating and loading caches
+    READY,         // Database and caches are up
+    UNAVAILABLE    // Connection failed, waiting to retry
+}
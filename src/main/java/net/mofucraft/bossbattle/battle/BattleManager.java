@@ -239,16 +239,9 @@ public class BattleManager {
         // Calculate clear time
         long clearTime = session.getElapsedTime();
 
-        // Save ranking record
-        plugin.getRankingRepository().saveRecord(
-                playerId,
-                player.getName(),
-                session.getBossId(),
-                clearTime
-        );
-
-        // Save battle history
-        plugin.getRankingRepository().saveBattleHistory(
+        // Save ranking record and battle history together
+        plugin.getRankingStore().recordBattleResult(
+                UUID.randomUUID(),
                 playerId,
                 player.getName(),
                 session.getBossId(),
@@ -319,16 +312,9 @@ public class BattleManager {
 
         long survivalTime = session.getElapsedTime();
 
-        // Save ranking record for survival
-        plugin.getRankingRepository().saveRecord(
-                playerId,
-                player.getName(),
-                session.getBossId(),
-                survivalTime
-        );
-
-        // Save battle history
-        plugin.getRankingRepository().saveBattleHistory(
+        // Save ranking record and battle history together
+        plugin.getRankingStore().recordBattleResult(
+                UUID.randomUUID(),
                 playerId,
                 player.getName(),
                 session.getBossId(),
@@ -555,7 +541,8 @@ public class BattleManager {
         }
 
         // Save battle history
-        plugin.getRankingRepository().saveBattleHistory(
+        plugin.getRankingStore().saveBattleHistory(
+                UUID.randomUUID(),
                 playerId,
                 session.getPlayerName(),
                 session.getBossId(),
@@ -3,8 +3,32 @@ package net.mofucraft.bossbattle.command;
 import net.mofucraft.bossbattle.MofuBossBattle;
 import net.mofucraft.bossbattle.battle.BattleSession;
 import net.mofucraft.bossbattle.config.BossConfig;
+import net.mofucraft.bossbattle.config.ConfigManager;
 import net.mofucraft.bossbattle.config.MessageConfig;
+import net.mofucraft.bossbattle.database.AttemptCompactor;
+import net.mofucraft.bossbattle.database.BossRollup;
+import net.mofucraft.bossbattle.database.BulkOperation;
+import net.mofucraft.bossbattle.database.CircuitBreaker;
+import net.mofucraft.bossbattle.database.HistoryArchiver;
+import net.mofucraft.bossbattle.database.HistoryEntry;
+import net.mofucraft.bossbattle.database.HistoryRollup;
+import net.mofucraft.bossbattle.database.KnownPlayer;
+import net.mofucraft.bossbattle.database.PlayerBossStats;
+import net.mofucraft.bossbattle.database.PlayerStanding;
+import net.mofucraft.bossbattle.database.QueryMetrics;
+import net.mofucraft.bossbattle.util.LogHistogram;
 import net.mofucraft.bossbattle.database.RankingEntry;
+import net.mofucraft.bossbattle.database.RankingPeriod;
+import net.mofucraft.bossbattle.database.RankingSeason;
+import net.mofucraft.bossbattle.database.RankingStore;
+import net.mofucraft.bossbattle.database.transfer.DataTransferService;
+import net.mofucraft.bossbattle.database.transfer.TransferFormat;
+import net.mofucraft.bossbattle.database.transfer.TransferProgress;
+import net.mofucraft.bossbattle.database.transfer.TransferTable;
+import net.mofucraft.bossbattle.ranking.ClearedPlayerIndex;
+import net.mofucraft.bossbattle.ranking.HistoryPageCache;
+import net.mofucraft.bossbattle.ranking.LeaderboardIndex;
+import net.mofucraft.bossbattle.task.HistoryRetentionTask;
 import net.mofucraft.bossbattle.util.MessageUtil;
 import net.mofucraft.bossbattle.util.TimeUtil;
 import org.bukkit.Bukkit;
@@ -13,17 +37,41 @@ import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import java.io.File;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 public class BossCommand implements CommandExecutor {
 
+    private static final long RESET_PROGRESS_INTERVAL_MS = 5000;
+
+    private static final Set<String> DATABASE_SUBCOMMANDS = Set.of(
+            "start", "ranking", "myrank", "stats", "history", "resetranking", "export", "import", "compact", "distribution", "season",
+            "analytics", "clears", "retention"
+    );
+
     private final MofuBossBattle plugin;
 
+    // Bulk reset in progress, if any; only one runs at a time so it can be cancelled by name
+    private volatile BulkOperation activeReset;
+
     public BossCommand(MofuBossBattle plugin) {
         this.plugin = plugin;
     }
@@ -39,6 +87,16 @@ public class BossCommand implements CommandExecutor {
 
         String subCommand = args[0].toLowerCase();
 
+        // Battles and rankings need the database, which connects in the background on startup
+        if (DATABASE_SUBCOMMANDS.contains(subCommand) && !plugin.isReady()) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandWarmingUp()));
+            } else {
+                sender.sendMessage("The database is still starting up (" + plugin.getStartupState() + "), try again shortly.");
+            }
+            return true;
+        }
+
         switch (subCommand) {
             case "start":
                 return handleStart(sender, args, messages);
@@ -52,8 +110,32 @@ public class BossCommand implements CommandExecutor {
                 return handleRanking(sender, args, messages);
             case "myrank":
                 return handleMyRank(sender, args, messages);
+            case "stats":
+                return handleStats(sender, args, messages);
+            case "history":
+                return handleHistory(sender, args, messages);
             case "resetranking":
                 return handleResetRanking(sender, args, messages);
+            case "export":
+                return handleExport(sender, args, messages);
+            case "import":
+                return handleImport(sender, args, messages);
+            case "compact":
+                return handleCompact(sender, args, messages);
+            case "distribution":
+                return handleDistribution(sender, args, messages);
+            case "season":
+                return handleSeason(sender, args, messages);
+            case "analytics":
+                return handleAnalytics(sender, args, messages);
+            case "clears":
+                return handleClears(sender, args, messages);
+            case "retention":
+                return handleRetention(sender, args, messages);
+            case "dbstats":
+                return handleDbStats(sender, args, messages);
+            case "dbhealth":
+                return handleDbHealth(sender, args, messages);
             case "reload":
                 return handleReload(sender, messages);
             case "help":
@@ -234,7 +316,7 @@ public class BossCommand implements CommandExecutor {
         }
 
         if (args.length < 2) {
-            sender.sendMessage("Usage: /boss ranking <boss_id> [page]");
+            sender.sendMessage("Usage: /boss ranking <boss_id> [page] [daily|weekly|monthly|season:<name>]");
             return true;
         }
 
@@ -250,16 +332,59 @@ public class BossCommand implements CommandExecutor {
 
         BossConfig bossConfig = plugin.getConfigManager().getBossConfig(bossId);
         int page = 1;
-        if (args.length >= 3) {
+        String season = null;
+        RankingPeriod period = null;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].toLowerCase().startsWith("season:")) {
+                season = args[i].substring("season:".length()).toLowerCase();
+                continue;
+            }
+            if (RankingPeriod.fromKey(args[i]) != null) {
+                period = RankingPeriod.fromKey(args[i]);
+                continue;
+            }
             try {
-                page = Integer.parseInt(args[2]);
+                page = Math.max(1, Integer.parseInt(args[i]));
             } catch (NumberFormatException ignored) {
             }
         }
 
+        if (period != null) {
+            showRankingPage(sender, bossConfig, plugin.getRankingPageCache().getPeriodPage(bossId, period, page),
+                    page, null, period, messages);
+            return true;
+        }
+
+        if (season == null) {
+            showRankingPage(sender, bossConfig, plugin.getRankingPageCache().getPage(bossId, page), page, null, null, messages);
+            return true;
+        }
+
+        final String finalSeason = season;
         final int finalPage = page;
+        plugin.getRankingStore().hasSeason(season).thenAccept(exists -> {
+            if (exists) {
+                showRankingPage(sender, bossConfig, plugin.getRankingPageCache().getPage(bossId, finalSeason, finalPage),
+                        finalPage, finalSeason, null, messages);
+                return;
+            }
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                Map<String, String> placeholders = new HashMap<>();
+                placeholders.put("season", finalSeason);
+                if (sender instanceof Player) {
+                    MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getRankingUnknownSeason()), placeholders);
+                } else {
+                    sender.sendMessage("Unknown season: " + finalSeason);
+                }
+            });
+        });
 
-        plugin.getRankingRepository().getTopRankings(bossId, 10).thenAccept(rankings -> {
+        return true;
+    }
+
+    private void showRankingPage(CommandSender sender, BossConfig bossConfig, CompletableFuture<List<RankingEntry>> pageFuture,
+                                 int page, String season, RankingPeriod period, MessageConfig messages) {
+        pageFuture.thenAccept(rankings -> {
             Bukkit.getScheduler().runTask(plugin, () -> {
                 if (rankings.isEmpty()) {
                     if (sender instanceof Player) {
@@ -273,7 +398,7 @@ public class BossCommand implements CommandExecutor {
                 Map<String, String> headerPlaceholders = new HashMap<>();
                 headerPlaceholders.put("boss_name", bossConfig.getDisplayName());
                 headerPlaceholders.put("boss_name_plain", MessageUtil.stripColors(bossConfig.getDisplayName()));
-                headerPlaceholders.put("page", String.valueOf(finalPage));
+                headerPlaceholders.put("page", String.valueOf(page));
 
                 if (sender instanceof Player) {
                     MessageUtil.sendMessage((Player) sender, messages.getRankingHeader(), headerPlaceholders);
@@ -281,6 +406,27 @@ public class BossCommand implements CommandExecutor {
                     sender.sendMessage("=== " + bossConfig.getDisplayName() + " Ranking ===");
                 }
 
+                if (season != null) {
+                    Map<String, String> seasonPlaceholders = new HashMap<>();
+                    seasonPlaceholders.put("season", season);
+                    if (sender instanceof Player) {
+                        MessageUtil.sendMessage((Player) sender, messages.getRankingSeasonHeader(), seasonPlaceholders);
+                    } else {
+                        sender.sendMessage("Season: " + season);
+                    }
+                }
+
+                if (period != null) {
+                    Map<String, String> periodPlaceholders = new HashMap<>();
+                    periodPlaceholders.put("period", messages.getRankingPeriodName(period.getKey()));
+                    periodPlaceholders.put("start", plugin.getRankingStore().getCurrentPeriodStart(period).toString());
+                    if (sender instanceof Player) {
+                        MessageUtil.sendMessage((Player) sender, messages.getRankingPeriodHeader(), periodPlaceholders);
+                    } else {
+                        sender.sendMessage("Period: " + period.getKey() + " (since " + periodPlaceholders.get("start") + ")");
+                    }
+                }
+
                 for (RankingEntry entry : rankings) {
                     Map<String, String> entryPlaceholders = new HashMap<>();
                     entryPlaceholders.put("rank", String.valueOf(entry.getRank()));
@@ -295,8 +441,6 @@ public class BossCommand implements CommandExecutor {
                 }
             });
         });
-
-        return true;
     }
 
     private boolean handleMyRank(CommandSender sender, String[] args, MessageConfig messages) {
@@ -311,8 +455,7 @@ public class BossCommand implements CommandExecutor {
         }
 
         if (args.length < 2) {
-            sender.sendMessage("Usage: /boss myrank <boss_id>");
-            return true;
+            return handleMyRankAll(player, messages);
         }
 
         String bossId = args[1];
@@ -323,24 +466,305 @@ public class BossCommand implements CommandExecutor {
             return true;
         }
 
-        plugin.getRankingRepository().getPlayerRank(player.getUniqueId(), bossId).thenAccept(rank -> {
-            plugin.getRankingRepository().getPlayerBestTime(player.getUniqueId(), bossId).thenAccept(bestTime -> {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    if (rank <= 0 || bestTime < 0) {
-                        MessageUtil.sendMessage(player, messages.withPrefix(messages.getRankingNotRanked()));
-                    } else {
-                        Map<String, String> placeholders = new HashMap<>();
-                        placeholders.put("rank", String.valueOf(rank));
-                        placeholders.put("time", TimeUtil.formatTime(bestTime));
-                        MessageUtil.sendMessage(player, messages.withPrefix(messages.getRankingYourRank()), placeholders);
+        plugin.getRankingStore().getPlayerStanding(player.getUniqueId(), bossId).thenAccept(standing -> {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (standing == null) {
+                    player.sendMessage("§c順位を読み込めませんでした。");
+                    return;
+                }
+                if (!standing.isRanked()) {
+                    MessageUtil.sendMessage(player, messages.withPrefix(messages.getRankingNotRanked()));
+                    return;
+                }
+
+                Map<String, String> placeholders = new HashMap<>();
+                placeholders.put("rank", String.valueOf(standing.getRank()));
+                placeholders.put("time", TimeUtil.formatTime(standing.getBestTimeMillis()));
+                placeholders.put("total", String.valueOf(standing.getTotalRanked()));
+                MessageUtil.sendMessage(player, messages.withPrefix(messages.getRankingYourRank()), placeholders);
+
+                long gap = standing.getGapToNextRankMillis();
+                if (gap >= 0) {
+                    Map<String, String> gapPlaceholders = new HashMap<>();
+                    gapPlaceholders.put("gap", TimeUtil.formatTime(gap));
+                    gapPlaceholders.put("next_rank", String.valueOf(standing.getRank() - 1));
+                    MessageUtil.sendMessage(player, messages.getRankingNextRankGap(), gapPlaceholders);
+                }
+
+                showNeighborhood(player, bossId, messages);
+            });
+        });
+
+        return true;
+    }
+
+    private static final int NEIGHBORHOOD_RADIUS = 2;
+
+    // The players just above and below, from the in-memory leaderboard once it has loaded
+    private void showNeighborhood(Player player, String bossId, MessageConfig messages) {
+        LeaderboardIndex leaderboard = plugin.getLeaderboardIndex();
+        if (!leaderboard.isLoaded()) {
+            return;
+        }
+
+        List<RankingEntry> neighborhood = leaderboard.getNeighborhood(player.getUniqueId(), bossId, NEIGHBORHOOD_RADIUS);
+        if (neighborhood.size() < 2) {
+            return;
+        }
+
+        MessageUtil.sendMessage(player, messages.getRankingNeighborhoodHeader());
+        for (RankingEntry entry : neighborhood) {
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("rank", String.valueOf(entry.getRank()));
+            placeholders.put("player", entry.getPlayerName());
+            placeholders.put("time", TimeUtil.formatTime(entry.getClearTimeMillis()));
+            MessageUtil.sendMessage(player, entry.getPlayerId().equals(player.getUniqueId())
+                    ? messages.getRankingNeighborhoodSelf()
+                    : messages.getRankingEntry(), placeholders);
+        }
+    }
+
+    // /boss myrank without a boss: standings for every boss in one query
+    private boolean handleMyRankAll(Player player, MessageConfig messages) {
+        List<BossConfig> bosses = List.copyOf(plugin.getConfigManager().getAllBossConfigs());
+        List<String> bossIds = bosses.stream().map(BossConfig::getId).collect(Collectors.toList());
+
+        plugin.getRankingStore().getPlayerStandings(player.getUniqueId(), bossIds).thenAccept(standings -> {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (standings == null) {
+                    player.sendMessage("§c順位を読み込めませんでした。");
+                    return;
+                }
+                MessageUtil.sendMessage(player, messages.getRankingProfileHeader());
+
+                for (BossConfig bossConfig : bosses) {
+                    PlayerStanding standing = standings.get(bossConfig.getId());
+
+                    Map<String, String> placeholders = new HashMap<>();
+                    placeholders.put("boss_name", bossConfig.getDisplayName());
+                    placeholders.put("boss_name_plain", MessageUtil.stripColors(bossConfig.getDisplayName()));
+
+                    if (standing == null || !standing.isRanked()) {
+                        MessageUtil.sendMessage(player, messages.getRankingProfileNotRanked(), placeholders);
+                        continue;
                     }
-                });
+
+                    placeholders.put("rank", String.valueOf(standing.getRank()));
+                    placeholders.put("time", TimeUtil.formatTime(standing.getBestTimeMillis()));
+                    placeholders.put("total", String.valueOf(standing.getTotalRanked()));
+                    MessageUtil.sendMessage(player, messages.getRankingProfileEntry(), placeholders);
+                }
             });
         });
 
         return true;
     }
 
+    // /boss stats [player]: online players are served from the login cache, others with one query
+    private boolean handleStats(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.stats")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        if (args.length >= 2) {
+            if (!sender.hasPermission("mofubossbattle.stats.others")
+                    && !(sender instanceof Player self && self.getName().equalsIgnoreCase(args[1]))) {
+                if (sender instanceof Player) {
+                    MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+                } else {
+                    sender.sendMessage("You don't have permission to use this command.");
+                }
+                return true;
+            }
+
+            resolvePlayer(sender, args[1], target ->
+                    loadStats(sender, target.getPlayerId(), target.getName(), messages));
+        } else if (sender instanceof Player player) {
+            loadStats(sender, player.getUniqueId(), player.getName(), messages);
+        } else {
+            sender.sendMessage(messages.getCommandPlayerOnly());
+        }
+
+        return true;
+    }
+
+    private void loadStats(CommandSender sender, UUID targetUuid, String targetName, MessageConfig messages) {
+        Map<String, PlayerBossStats> cached = plugin.getPlayerStatsCache().getAll(targetUuid);
+        if (cached != null) {
+            showStats(sender, targetName, cached, messages);
+            return;
+        }
+
+        plugin.getRankingStore().getPlayerStats(targetUuid).thenAccept(stats -> {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (stats == null) {
+                    sender.sendMessage("§c戦績を読み込めませんでした。");
+                    return;
+                }
+                showStats(sender, targetName, stats, messages);
+            });
+        });
+    }
+
+    private void showStats(CommandSender sender, String playerName, Map<String, PlayerBossStats> stats, MessageConfig messages) {
+        Map<String, String> headerPlaceholders = new HashMap<>();
+        headerPlaceholders.put("player", playerName);
+        sendParsedLine(sender, messages.getStatsHeader(), headerPlaceholders);
+
+        boolean any = false;
+        for (BossConfig bossConfig : plugin.getConfigManager().getAllBossConfigs()) {
+            PlayerBossStats bossStats = stats.get(bossConfig.getId());
+            if (bossStats == null || !bossStats.hasAttempts()) {
+                continue;
+            }
+            any = true;
+
+            long averageClear = bossStats.getAverageClearTimeMillis();
+            long averageDuration = bossStats.getAverageDurationMillis();
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("boss_name", bossConfig.getDisplayName());
+            placeholders.put("boss_name_plain", MessageUtil.stripColors(bossConfig.getDisplayName()));
+            placeholders.put("attempts", String.valueOf(bossStats.getAttempts()));
+            placeholders.put("victories", String.valueOf(bossStats.getVictories()));
+            placeholders.put("defeats", String.valueOf(bossStats.getDefeats()));
+            placeholders.put("timeouts", String.valueOf(bossStats.getTimeouts()));
+            placeholders.put("logouts", String.valueOf(bossStats.getLogouts()));
+            placeholders.put("win_rate", String.format("%.1f", bossStats.getWinRate()));
+            placeholders.put("average_time", averageClear >= 0 ? TimeUtil.formatTime(averageClear) : "-");
+            placeholders.put("average_duration", averageDuration >= 0 ? TimeUtil.formatTime(averageDuration) : "-");
+            sendParsedLine(sender, messages.getStatsEntry(), placeholders);
+        }
+
+        if (!any) {
+            sendParsedLine(sender, messages.getStatsNoRecords(), new HashMap<>());
+        }
+    }
+
+    // Stats and history may be looked up from the console as well
+    private void sendParsedLine(CommandSender sender, String message, Map<String, String> placeholders) {
+        sender.sendMessage(MessageUtil.parse(message, placeholders));
+    }
+
+    private static final DateTimeFormatter HISTORY_DATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd HH:mm");
+
+    private boolean handleHistory(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.history")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        // Arguments in any order: a number is the page, a boss id the filter, anything else the player
+        String targetArg = null;
+        String bossId = null;
+        int page = 1;
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.matches("\\d+")) {
+                try {
+                    page = Math.max(1, Integer.parseInt(arg));
+                } catch (NumberFormatException e) {
+                    sender.sendMessage("§cInvalid page: " + arg);
+                    return true;
+                }
+            } else if (bossId == null && plugin.getConfigManager().hasBoss(arg)) {
+                bossId = arg;
+            } else if (targetArg == null) {
+                targetArg = arg;
+            } else {
+                sender.sendMessage("Usage: /boss history [player] [boss_id] [page]");
+                return true;
+            }
+        }
+
+        if (targetArg != null) {
+            if (!sender.hasPermission("mofubossbattle.history.others")
+                    && !(sender instanceof Player self && self.getName().equalsIgnoreCase(targetArg))) {
+                if (sender instanceof Player) {
+                    MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+                } else {
+                    sender.sendMessage("You don't have permission to use this command.");
+                }
+                return true;
+            }
+
+            String playerArg = targetArg;
+            String filter = bossId;
+            int requestedPage = page;
+            resolvePlayer(sender, targetArg, target -> loadHistoryPage(sender, playerArg,
+                    target.getPlayerId(), target.getName(), filter, requestedPage, messages));
+        } else if (sender instanceof Player player) {
+            loadHistoryPage(sender, null, player.getUniqueId(), player.getName(), bossId, page, messages);
+        } else {
+            sender.sendMessage(messages.getCommandPlayerOnly());
+        }
+
+        return true;
+    }
+
+    private void loadHistoryPage(CommandSender sender, String targetArg, UUID targetUuid, String targetName,
+                                 String bossId, int page, MessageConfig messages) {
+        plugin.getHistoryPageCache().getPage(targetUuid, bossId, page).thenAccept(entries -> {
+            Bukkit.getScheduler().runTask(plugin, () ->
+                    showHistoryPage(sender, targetArg, targetName, bossId, page, entries, messages));
+        });
+    }
+
+    private void showHistoryPage(CommandSender sender, String targetArg, String playerName, String bossId, int page,
+                                 List<HistoryEntry> entries, MessageConfig messages) {
+        if (entries.isEmpty()) {
+            sendParsedLine(sender, messages.getHistoryNoRecords(), new HashMap<>());
+            return;
+        }
+
+        BossConfig filterConfig = bossId != null ? plugin.getConfigManager().getBossConfig(bossId) : null;
+        Map<String, String> headerPlaceholders = new HashMap<>();
+        headerPlaceholders.put("player", playerName);
+        headerPlaceholders.put("boss_filter", filterConfig != null
+                ? MessageUtil.stripColors(filterConfig.getDisplayName())
+                : messages.getHistoryAllBosses());
+        headerPlaceholders.put("page", String.valueOf(page));
+        sendParsedLine(sender, messages.getHistoryHeader(), headerPlaceholders);
+
+        for (HistoryEntry entry : entries) {
+            // Bosses removed from the config still show up under their id
+            BossConfig bossConfig = plugin.getConfigManager().getBossConfig(entry.getBossId());
+            String bossName = bossConfig != null ? bossConfig.getDisplayName() : entry.getBossId();
+
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("position", String.valueOf(entry.getPosition()));
+            placeholders.put("date", entry.getRecordedAt().format(HISTORY_DATE_FORMAT));
+            placeholders.put("boss_name", bossName);
+            placeholders.put("boss_name_plain", MessageUtil.stripColors(bossName));
+            placeholders.put("result", messages.getHistoryResultName(entry.getResult()));
+            placeholders.put("duration", TimeUtil.formatTime(entry.getDurationMillis()));
+            sendParsedLine(sender, messages.getHistoryEntry(), placeholders);
+        }
+
+        if (entries.size() == HistoryPageCache.PAGE_SIZE) {
+            StringBuilder command = new StringBuilder("/boss history");
+            if (targetArg != null) {
+                command.append(' ').append(targetArg);
+            }
+            if (bossId != null) {
+                command.append(' ').append(bossId);
+            }
+            command.append(' ').append(page + 1);
+
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("command", command.toString());
+            sendParsedLine(sender, messages.getHistoryNextPage(), placeholders);
+        }
+    }
+
     private boolean handleResetRanking(CommandSender sender, String[] args, MessageConfig messages) {
         if (!sender.hasPermission("mofubossbattle.admin")) {
             if (sender instanceof Player) {
@@ -351,10 +775,27 @@ public class BossCommand implements CommandExecutor {
             return true;
         }
 
+        if (args.length >= 2 && args[1].equalsIgnoreCase("cancel")) {
+            BulkOperation reset = activeReset;
+            if (reset == null) {
+                sender.sendMessage("§7実行中のリセットはありません。");
+            } else {
+                reset.cancel();
+                sender.sendMessage("§e" + reset.getDescription() + " を中止します。(ランキングは変更されません)");
+            }
+            return true;
+        }
+
         if (args.length < 3) {
             sender.sendMessage("Usage: /boss resetranking <boss|player> <boss_id|player_name> [boss_id]");
             sender.sendMessage("  /boss resetranking boss <boss_id> - Reset all rankings for a boss");
             sender.sendMessage("  /boss resetranking player <player_name> [boss_id] - Reset player rankings");
+            sender.sendMessage("  /boss resetranking cancel - Cancel a running reset");
+            return true;
+        }
+
+        if (activeReset != null) {
+            sender.sendMessage("§c" + activeReset.getDescription() + " が実行中です。(/boss resetranking cancel で中止)");
             return true;
         }
 
@@ -367,60 +808,728 @@ public class BossCommand implements CommandExecutor {
                 return true;
             }
 
-            plugin.getRankingRepository().resetBossRankings(target).thenAccept(count -> {
+            BulkOperation reset = startReset(sender, "reset " + target);
+            // Cleared however the reset ends, or a failed one would block every later reset
+            plugin.getRankingStore().resetBossRankings(target, reset).whenComplete((count, error) -> {
+                activeReset = null;
                 Bukkit.getScheduler().runTask(plugin, () -> {
-                    sender.sendMessage("§a" + target + " のランキングをリセットしました。(" + count + "件削除)");
+                    if (error != null) {
+                        sender.sendMessage("§c" + target + " のリセットに失敗しました。(" + reset.getProcessed() + "件削除済み、詳細はログを確認してください)");
+                    } else if (reset.isCancelled()) {
+                        sender.sendMessage("§e" + target + " のリセットを中止しました。(" + count + "件削除済み)");
+                    } else {
+                        sender.sendMessage("§a" + target + " のランキングをリセットしました。(" + count + "件削除)");
+                    }
                 });
             });
         } else if (type.equals("player")) {
-            Player targetPlayer = Bukkit.getPlayer(target);
-            UUID targetUuid;
-            String targetName;
+            String bossId = args.length >= 4 ? args[3] : null;
+            if (bossId != null && !plugin.getConfigManager().hasBoss(bossId)) {
+                sender.sendMessage("§cBoss not found: " + bossId);
+                return true;
+            }
 
-            if (targetPlayer != null) {
-                targetUuid = targetPlayer.getUniqueId();
-                targetName = targetPlayer.getName();
-            } else {
-                // Try to get offline player
-                @SuppressWarnings("deprecation")
-                org.bukkit.OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(target);
-                if (offlinePlayer.hasPlayedBefore() || offlinePlayer.isOnline()) {
-                    targetUuid = offlinePlayer.getUniqueId();
-                    targetName = offlinePlayer.getName() != null ? offlinePlayer.getName() : target;
+            resolvePlayer(sender, target, player -> resetPlayer(sender, player.getPlayerId(), player.getName(), bossId));
+        } else {
+            sender.sendMessage("§cInvalid type. Use 'boss' or 'player'.");
+        }
+
+        return true;
+    }
+
+    // Without a boss id every ranking of the player is reset
+    private void resetPlayer(CommandSender sender, UUID targetUuid, String targetName, String bossId) {
+        if (bossId != null) {
+            plugin.getRankingStore().resetPlayerRankings(targetUuid, bossId).thenAccept(count -> {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    sender.sendMessage("§a" + targetName + " の " + bossId + " ランキングをリセットしました。(" + count + "件削除)");
+                });
+            });
+            return;
+        }
+
+        // A bulk reset may have been started while the name was being looked up
+        if (activeReset != null) {
+            sender.sendMessage("§c" + activeReset.getDescription() + " が実行中です。(/boss resetranking cancel で中止)");
+            return;
+        }
+
+        BulkOperation reset = startReset(sender, "reset " + targetName);
+        plugin.getRankingStore().resetAllPlayerRankings(targetUuid, reset).whenComplete((count, error) -> {
+            activeReset = null;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (error != null) {
+                    sender.sendMessage("§c" + targetName + " のリセットに失敗しました。(" + reset.getProcessed() + "件削除済み、詳細はログを確認してください)");
+                } else if (reset.isCancelled()) {
+                    sender.sendMessage("§e" + targetName + " のリセットを中止しました。(" + count + "件削除済み)");
                 } else {
-                    sender.sendMessage("§cPlayer not found: " + target);
-                    return true;
+                    sender.sendMessage("§a" + targetName + " の全ランキングをリセットしました。(" + count + "件削除)");
+                }
+            });
+        });
+    }
+
+    // Looks the name up without blocking and continues on the main thread once it is known
+    private void resolvePlayer(CommandSender sender, String name, Consumer<KnownPlayer> action) {
+        plugin.getPlayerNameResolver().resolve(name).thenAccept(player -> {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (player == null) {
+                    sender.sendMessage("§cPlayer not found: " + name);
+                    return;
                 }
+                action.accept(player);
+            });
+        });
+    }
+
+    private BulkOperation startReset(CommandSender sender, String description) {
+        BulkOperation reset = new BulkOperation(description,
+                plugin.getConfigManager().getResetChunkSize(),
+                plugin.getConfigManager().getResetChunkPauseMs(),
+                RESET_PROGRESS_INTERVAL_MS,
+                operation -> Bukkit.getScheduler().runTask(plugin, () ->
+                        sender.sendMessage("§7" + operation.getDescription() + ": " + operation.getProcessed() + "件削除...")));
+        activeReset = reset;
+        sender.sendMessage("§e" + description + " を開始しました。");
+        return reset;
+    }
+
+    private boolean handleExport(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        TransferTable table = args.length >= 2 ? TransferTable.fromName(args[1]) : null;
+        TransferFormat format = args.length >= 3 ? TransferFormat.fromName(args[2]) : TransferFormat.CSV;
+        if (table == null || format == null) {
+            sender.sendMessage("Usage: /boss export <rankings|history> [csv|ndjson]");
+            return true;
+        }
+
+        DataTransferService transfer = plugin.getDataTransferService();
+        if (transfer.isRunning()) {
+            sender.sendMessage("§c他のエクスポート/インポートが実行中です。");
+            return true;
+        }
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File file = new File(getExportFolder(), table.getName() + "-" + timestamp + "." + format.getExtension());
+
+        sender.sendMessage("§e" + table.getTableName() + " のエクスポートを開始しました: " + file.getName());
+        transfer.export(table, format, file, progress -> reportTransferProgress(sender, progress))
+                .whenComplete((result, error) -> reportTransferResult(sender, result, error));
+        return true;
+    }
+
+    private boolean handleImport(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        TransferTable table = args.length >= 3 ? TransferTable.fromName(args[1]) : null;
+        if (table == null) {
+            sender.sendMessage("Usage: /boss import <rankings|history> <file> [restart]");
+            sender.sendMessage("  Files are read from the plugin's exports folder. Interrupted imports resume automatically.");
+            return true;
+        }
+
+        File folder = getExportFolder();
+        File file = new File(folder, args[2]);
+        if (!file.getAbsoluteFile().toPath().normalize().startsWith(folder.getAbsoluteFile().toPath().normalize())
+                || !file.isFile()) {
+            sender.sendMessage("§cFile not found: " + args[2]);
+            return true;
+        }
+
+        TransferFormat format = TransferFormat.fromFileName(file.getName());
+        if (format == null) {
+            sender.sendMessage("§cUnsupported file type (use .csv or .ndjson): " + file.getName());
+            return true;
+        }
+
+        DataTransferService transfer = plugin.getDataTransferService();
+        if (transfer.isRunning()) {
+            sender.sendMessage("§c他のエクスポート/インポートが実行中です。");
+            return true;
+        }
+
+        boolean restart = args.length >= 4 && args[3].equalsIgnoreCase("restart");
+        sender.sendMessage("§e" + file.getName() + " を " + table.getTableName() + " にインポートします...");
+        transfer.importFile(table, format, file, restart, progress -> reportTransferProgress(sender, progress))
+                .whenComplete((result, error) -> reportTransferResult(sender, result, error));
+        return true;
+    }
+
+    private File getExportFolder() {
+        return new File(plugin.getDataFolder(), "exports");
+    }
+
+    private void reportTransferProgress(CommandSender sender, TransferProgress progress) {
+        Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage("§7" + progress.format()));
+    }
+
+    private void reportTransferResult(CommandSender sender, TransferProgress result, Throwable error) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            if (error == null) {
+                sender.sendMessage("§a完了: " + result.format());
+                return;
+            }
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            sender.sendMessage("§c失敗しました: " + cause.getMessage());
+        });
+    }
+
+    private boolean handleCompact(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        AttemptCompactor compactor = plugin.getAttemptCompactor();
+        ConfigManager config = plugin.getConfigManager();
+        String action = args.length >= 2 ? args[1].toLowerCase() : "";
+
+        if (action.equals("run")) {
+            if (compactor.isRunning()) {
+                sender.sendMessage("§cコンパクションは実行中です。(" + compactor.getProgressPercent() + "%)");
+                return true;
+            }
+            sender.sendMessage("§eコンパクションを開始しました。(最新" + config.getCompactionKeepRecentAttempts() + "件 + ベスト記録を保持)");
+            CompletableFuture.runAsync(() -> {
+                long deleted = compactor.compact(
+                        config.getCompactionKeepRecentAttempts(),
+                        config.getCompactionChunkSize(),
+                        config.getCompactionChunkPauseMs());
+                Bukkit.getScheduler().runTask(plugin, () ->
+                        sender.sendMessage("§aコンパクションが完了しました。(" + Math.max(0, deleted) + "件削除)"));
+            }, plugin.getDatabaseManager().getBulkExecutor());
+            return true;
+        }
+
+        if (action.equals("stop")) {
+            if (!compactor.isRunning()) {
+                sender.sendMessage("§7コンパクションは実行されていません。");
+                return true;
+            }
+            compactor.cancel();
+            sender.sendMessage("§eコンパクションを停止します。");
+            return true;
+        }
+
+        sender.sendMessage("§6=== 記録のコンパクション ===");
+        sender.sendMessage("§7自動実行: §f" + (config.isCompactionEnabled() ? config.getCompactionIntervalMinutes() + "分ごと" : "無効")
+                + " §7保持: §f最新" + config.getCompactionKeepRecentAttempts() + "件 + ベスト記録");
+        if (compactor.isRunning()) {
+            sender.sendMessage("§e実行中: " + compactor.getProgressPercent() + "%");
+        }
+        if (compactor.getRuns() > 0) {
+            sender.sendMessage("§7前回: §f" + compactor.getLastRunDeleted() + "件削除 §7(" + compactor.getLastRunDurationMs() + "ms"
+                    + (compactor.isLastRunCancelled() ? ", 中断" : "") + ")");
+        }
+        sender.sendMessage("§7起動後の合計: §f" + compactor.getTotalDeleted() + "件削除 §7(" + compactor.getRuns() + "回)");
+        return true;
+    }
+
+    private boolean handleRetention(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        HistoryArchiver archiver = plugin.getHistoryArchiver();
+        ConfigManager config = plugin.getConfigManager();
+        String action = args.length >= 2 ? args[1].toLowerCase() : "";
+
+        if (action.equals("run")) {
+            if (archiver.isRunning()) {
+                sender.sendMessage("§c履歴のアーカイブは実行中です。");
+                return true;
+            }
+            sender.sendMessage("§e履歴のアーカイブを開始しました。(" + config.getHistoryRetentionDays() + "日より前)");
+            // Ignores the low-load window; stop it with /boss retention stop
+            CompletableFuture.runAsync(() -> {
+                Instant cutoff = HistoryRetentionTask.getCutoff(plugin);
+                long moved = cutoff != null
+                        ? archiver.archive(cutoff, config.isHistoryArchiveEnabled(),
+                                config.getHistoryRetentionChunkSize(), config.getHistoryRetentionChunkPauseMs(), Long.MAX_VALUE)
+                        : 0;
+                Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(cutoff != null
+                        ? "§a履歴のアーカイブが完了しました。(" + Math.max(0, moved) + "件)"
+                        : "§7集計が済んでいないため、アーカイブできる履歴はありません。"));
+            }, plugin.getDatabaseManager().getBulkExecutor());
+            return true;
+        }
+
+        if (action.equals("stop")) {
+            if (!archiver.isRunning()) {
+                sender.sendMessage("§7履歴のアーカイブは実行されていません。");
+                return true;
             }
+            archiver.cancel();
+            sender.sendMessage("§e履歴のアーカイブを停止します。");
+            return true;
+        }
+
+        ZoneId zone = config.getPeriodTimezone();
+        sender.sendMessage("§6=== 戦闘履歴の保持 ===");
+        sender.sendMessage("§7自動実行: §f" + (config.isHistoryRetentionEnabled()
+                ? config.getHistoryRetentionWindowStartHour() + "時-" + config.getHistoryRetentionWindowEndHour() + "時"
+                : "無効")
+                + " §7保持: §f" + config.getHistoryRetentionDays() + "日"
+                + " §7移動先: §f" + (config.isHistoryArchiveEnabled() ? "battle_history_archive" : "削除"));
+        if (archiver.isRunning()) {
+            Instant reached = archiver.getCurrentRecordedAt();
+            sender.sendMessage("§e実行中: " + (reached != null
+                    ? SEASON_DATE_FORMAT.format(LocalDateTime.ofInstant(reached, zone)) + " まで"
+                    : "開始中"));
+        }
+        if (archiver.getRuns() > 0) {
+            Instant cutoff = archiver.getLastRunCutoff();
+            sender.sendMessage("§7前回: §f" + archiver.getLastRunMoved() + "件 §7("
+                    + SEASON_DATE_FORMAT.format(LocalDateTime.ofInstant(cutoff, zone)) + "より前, "
+                    + archiver.getLastRunDurationMs() + "ms" + (archiver.isLastRunCancelled() ? ", 中断" : "") + ")");
+        }
+        sender.sendMessage("§7起動後の合計: §f" + archiver.getTotalMoved() + "件 §7(" + archiver.getRuns() + "回)");
+        return true;
+    }
+
+    private static final int DISTRIBUTION_MAX_ROWS = 16;
+    private static final int DISTRIBUTION_BAR_WIDTH = 30;
+
+    private boolean handleDistribution(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage("Usage: /boss distribution <boss_id>");
+            return true;
+        }
+
+        String bossId = args[1];
+        if (!plugin.getConfigManager().hasBoss(bossId)) {
+            sender.sendMessage("§cBoss not found: " + bossId);
+            return true;
+        }
+
+        LogHistogram histogram = plugin.getClearTimeDistribution().getHistogram(bossId);
+        if (histogram == null || histogram.getCount() == 0) {
+            sender.sendMessage(plugin.getClearTimeDistribution().isLoaded()
+                    ? "§7まだ記録がありません。"
+                    : "§7分布を読み込み中です。しばらくしてから再度実行してください。");
+            return true;
+        }
+
+        sender.sendMessage("§6=== " + bossId + " クリアタイム分布 (" + histogram.getCount() + "人) ===");
+        StringBuilder percentiles = new StringBuilder("§7");
+        for (int p : new int[]{10, 25, 50, 75, 90, 99}) {
+            percentiles.append("p").append(p).append("=§f").append(TimeUtil.formatTime(histogram.getPercentile(p))).append(" §7");
+        }
+        sender.sendMessage(percentiles.toString().trim());
+
+        // Non-empty bucket range, merged pairwise until it fits in chat
+        long[] counts = histogram.snapshot();
+        int first = 0;
+        int last = counts.length - 1;
+        while (counts[first] == 0) {
+            first++;
+        }
+        while (counts[last] == 0) {
+            last--;
+        }
+        int step = 1;
+        while ((last - first) / step + 1 > DISTRIBUTION_MAX_ROWS) {
+            step *= 2;
+        }
+
+        long max = 0;
+        for (int start = first; start <= last; start += step) {
+            long rowCount = 0;
+            for (int i = start; i < Math.min(start + step, last + 1); i++) {
+                rowCount += counts[i];
+            }
+            max = Math.max(max, rowCount);
+        }
+
+        for (int start = first; start <= last; start += step) {
+            int end = Math.min(start + step, last + 1) - 1;
+            long rowCount = 0;
+            for (int i = start; i <= end; i++) {
+                rowCount += counts[i];
+            }
+            int width = (int) Math.round((double) rowCount * DISTRIBUTION_BAR_WIDTH / max);
+            sender.sendMessage("§e" + TimeUtil.formatTime(LogHistogram.bucketLowerBound(start))
+                    + "§7-§e" + TimeUtil.formatTime(LogHistogram.bucketUpperBound(end))
+                    + " §a" + "|".repeat(width) + " §f" + rowCount);
+        }
+
+        return true;
+    }
+
+    private boolean handleClears(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
 
-            if (args.length >= 4) {
-                // Reset specific boss ranking for player
-                String bossId = args[3];
+        ClearedPlayerIndex clearIndex = plugin.getClearedPlayerIndex();
+        if (!clearIndex.isLoaded()) {
+            sender.sendMessage("§7クリア情報を読み込み中です。しばらくしてから再度実行してください。");
+            return true;
+        }
+
+        List<String> allBosses = plugin.getConfigManager().getAllBossConfigs().stream()
+                .map(BossConfig::getId)
+                .toList();
+
+        // With boss ids: players who cleared every one of them
+        if (args.length >= 2) {
+            List<String> bossIds = List.of(args).subList(1, args.length);
+            for (String bossId : bossIds) {
                 if (!plugin.getConfigManager().hasBoss(bossId)) {
                     sender.sendMessage("§cBoss not found: " + bossId);
                     return true;
                 }
+            }
+            sender.sendMessage("§6" + String.join(" + ", bossIds) + " §7をすべてクリア: §f"
+                    + clearIndex.getClearedAllCount(bossIds) + "人");
+            return true;
+        }
 
-                plugin.getRankingRepository().resetPlayerRankings(targetUuid, bossId).thenAccept(count -> {
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        sender.sendMessage("§a" + targetName + " の " + bossId + " ランキングをリセットしました。(" + count + "件削除)");
-                    });
+        sender.sendMessage("§6=== クリア人数 ===");
+        for (String bossId : allBosses) {
+            sender.sendMessage("§e" + bossId + " §f" + clearIndex.getClearCount(bossId) + "人");
+        }
+        sender.sendMessage("§7全ボスクリア: §f" + clearIndex.getClearedAllCount(allBosses) + "人 §7/ 1体以上クリア: §f"
+                + clearIndex.getPlayerCount() + "人");
+        return true;
+    }
+
+    private static final int ANALYTICS_DEFAULT_DAYS = 7;
+    private static final int ANALYTICS_MAX_DAYS = 90;
+
+    private boolean handleAnalytics(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        if (args.length < 2) {
+            sender.sendMessage("Usage: /boss analytics <boss_id> [days]");
+            return true;
+        }
+
+        String bossId = args[1];
+        BossConfig bossConfig = plugin.getConfigManager().getBossConfig(bossId);
+        if (bossConfig == null) {
+            sender.sendMessage("§cBoss not found: " + bossId);
+            return true;
+        }
+
+        int days = ANALYTICS_DEFAULT_DAYS;
+        if (args.length >= 3) {
+            try {
+                days = Integer.parseInt(args[2]);
+            } catch (NumberFormatException e) {
+                days = -1;
+            }
+            if (days < 1 || days > ANALYTICS_MAX_DAYS) {
+                sender.sendMessage("§cDays must be between 1 and " + ANALYTICS_MAX_DAYS);
+                return true;
+            }
+        }
+
+        // The window is compared with the same number of days before it
+        int windowDays = days;
+        Instant end = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+        Instant start = end.minus(windowDays, ChronoUnit.DAYS);
+        Instant previousStart = start.minus(windowDays, ChronoUnit.DAYS);
+
+        HistoryRollup rollup = plugin.getHistoryRollup();
+        rollup.getRollups(bossId, previousStart, end)
+                .thenCombine(rollup.loadWatermark(), (rollups, watermark) -> {
+                    Bukkit.getScheduler().runTask(plugin, () ->
+                            showAnalytics(sender, bossConfig, windowDays, start, rollups, watermark));
+                    return null;
                 });
+        return true;
+    }
+
+    private void showAnalytics(CommandSender sender, BossConfig bossConfig, int days, Instant start,
+                               List<BossRollup> rollups, Instant watermark) {
+        String bossId = bossConfig.getId();
+        List<BossRollup> current = rollups.stream().filter(r -> !r.getStart().isBefore(start)).toList();
+        List<BossRollup> previous = rollups.stream().filter(r -> r.getStart().isBefore(start)).toList();
+        BossRollup total = BossRollup.sum(bossId, start, current);
+        BossRollup before = BossRollup.sum(bossId, start.minus(days, ChronoUnit.DAYS), previous);
+
+        sender.sendMessage("§6=== " + bossId + " 分析 (直近" + days + "日) ===");
+        if (total.getAttempts() == 0) {
+            sender.sendMessage("§7この期間の戦闘はありません。");
+        } else {
+            sender.sendMessage("§7挑戦: §f" + total.getAttempts() + " §7(前期間 " + before.getAttempts()
+                    + ", " + formatChange(total.getAttempts(), before.getAttempts()) + "§7)");
+            sender.sendMessage("§7勝率: §f" + formatRate(total.getWinRate())
+                    + " §7(前期間 " + formatRate(before.getWinRate()) + ")");
+            sender.sendMessage("§7敗北: §f" + formatRate(total.getRate(total.getDefeats()))
+                    + " §7タイムアウト: §f" + formatRate(total.getRate(total.getTimeouts()))
+                    + " §7ログアウト: §f" + formatRate(total.getRate(total.getLogouts())));
+
+            LogHistogram clearTimes = total.getVictoryDurations();
+            if (clearTimes.getCount() > 0) {
+                String limit = bossConfig.getTimeLimit() > 0
+                        ? " §7(制限時間 " + TimeUtil.formatTimeShort(bossConfig.getTimeLimit() * 1000L) + ")"
+                        : "";
+                sender.sendMessage("§7クリアタイム: p50=§f" + TimeUtil.formatTime(clearTimes.getPercentile(50))
+                        + " §7p90=§f" + TimeUtil.formatTime(clearTimes.getPercentile(90)) + limit);
+            }
+            LogHistogram failures = total.getFailureDurations();
+            if (failures.getCount() > 0) {
+                sender.sendMessage("§7敗北・タイムアウトまで: p50=§f" + TimeUtil.formatTime(failures.getPercentile(50)));
+            }
+
+            // One line per day in the leaderboard timezone
+            ZoneId zone = plugin.getConfigManager().getPeriodTimezone();
+            Map<LocalDate, List<BossRollup>> byDay = current.stream().collect(Collectors.groupingBy(
+                    r -> LocalDate.ofInstant(r.getStart(), zone), TreeMap::new, Collectors.toList()));
+            for (Map.Entry<LocalDate, List<BossRollup>> entry : byDay.entrySet()) {
+                BossRollup day = BossRollup.sum(bossId, entry.getValue().get(0).getStart(), entry.getValue());
+                LogHistogram dayClears = day.getVictoryDurations();
+                sender.sendMessage("§e" + entry.getKey() + " §7挑戦 §f" + day.getAttempts()
+                        + " §7勝率 §f" + formatRate(day.getWinRate())
+                        + (dayClears.getCount() > 0 ? " §7p50 §f" + TimeUtil.formatTime(dayClears.getPercentile(50)) : ""));
+            }
+        }
+
+        sender.sendMessage("§7集計済み: §f" + (watermark != null
+                ? SEASON_DATE_FORMAT.format(LocalDateTime.ofInstant(watermark, plugin.getConfigManager().getPeriodTimezone()))
+                : "未集計"));
+    }
+
+    private static String formatRate(double rate) {
+        return String.format("%.1f%%", rate);
+    }
+
+    private static String formatChange(long current, long previous) {
+        if (previous == 0) {
+            return current > 0 ? "§a新規" : "§7±0";
+        }
+        double change = (current - previous) * 100.0 / previous;
+        return (change >= 0 ? "§a+" : "§c") + String.format("%.0f%%", change);
+    }
+
+    private static final DateTimeFormatter SEASON_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private boolean handleSeason(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
             } else {
-                // Reset all rankings for player
-                plugin.getRankingRepository().resetAllPlayerRankings(targetUuid).thenAccept(count -> {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        String action = args.length >= 2 ? args[1].toLowerCase() : "list";
+        RankingStore repository = plugin.getRankingStore();
+
+        if (action.equals("archive")) {
+            if (args.length < 3) {
+                sender.sendMessage("Usage: /boss season archive <name>");
+                return true;
+            }
+            String name = args[2].toLowerCase();
+            if (!RankingSeason.isValidName(name)) {
+                sender.sendMessage("§cシーズン名は英小文字・数字・_ の32文字以内で指定してください。");
+                return true;
+            }
+            if (!repository.supportsSeasonArchive()) {
+                sender.sendMessage("§c組み込みデータベース(h2)ではシーズンをアーカイブできません。MySQLを使用してください。");
+                return true;
+            }
+            if (activeReset != null || plugin.getDataTransferService().isRunning() || plugin.getAttemptCompactor().isRunning()) {
+                sender.sendMessage("§cリセット・インポート・コンパクションの実行中はシーズンを締められません。");
+                return true;
+            }
+
+            sender.sendMessage("§eシーズン「" + name + "」をアーカイブしています...");
+            long startedAt = System.currentTimeMillis();
+            repository.archiveSeason(name, plugin.getConfigManager().getSeasonLockWaitTimeoutSeconds()).thenAccept(season ->
                     Bukkit.getScheduler().runTask(plugin, () -> {
-                        sender.sendMessage("§a" + targetName + " の全ランキングをリセットしました。(" + count + "件削除)");
-                    });
+                        if (season == null) {
+                            sender.sendMessage("§cシーズン「" + name + "」をアーカイブできませんでした。(名前の重複、またはログを確認してください)");
+                            return;
+                        }
+                        sender.sendMessage("§aシーズン「" + name + "」をアーカイブし、新しいシーズンを開始しました。("
+                                + (System.currentTimeMillis() - startedAt) + "ms)");
+                    }));
+            return true;
+        }
+
+        repository.getSeasons().thenAccept(seasons -> Bukkit.getScheduler().runTask(plugin, () -> {
+            sender.sendMessage("§6=== シーズン一覧 ===");
+            if (seasons.isEmpty()) {
+                sender.sendMessage("§7アーカイブされたシーズンはありません。");
+                return;
+            }
+            for (RankingSeason season : seasons) {
+                String archivedAt = season.getArchivedAt() != null ? season.getArchivedAt().format(SEASON_DATE_FORMAT) : "-";
+                sender.sendMessage("§e" + season.getName() + " §7- " + archivedAt);
+            }
+        }));
+        return true;
+    }
+
+    private boolean handleDbStats(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        QueryMetrics metrics = plugin.getDatabaseManager().getMetrics();
+        String action = args.length >= 2 ? args[1].toLowerCase() : "";
+
+        switch (action) {
+            case "slow": {
+                List<QueryMetrics.SlowQuery> slowQueries = metrics.getSlowQueries();
+                sender.sendMessage("§6=== スロークエリ (" + slowQueries.size() + "件) ===");
+                for (QueryMetrics.SlowQuery query : slowQueries) {
+                    sender.sendMessage("§7" + query.getTimestamp().withNano(0) + " §e" + query.getOperation()
+                            + " §c" + query.getElapsedMs() + "ms §7rows=" + query.getRows()
+                            + (query.isSuccess() ? "" : " §cFAILED") + " §8" + query.getParams());
+                }
+                return true;
+            }
+            case "reset":
+                metrics.reset();
+                sender.sendMessage("§aクエリ統計をリセットしました。");
+                return true;
+            case "export": {
+                File file = new File(plugin.getDataFolder(), "metrics.prom");
+                Map<String, Number> gauges = collectGauges();
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        metrics.exportTo(file, gauges);
+                        Bukkit.getScheduler().runTask(plugin, () ->
+                                sender.sendMessage("§aメトリクスを出力しました: " + file.getName()));
+                    } catch (IOException e) {
+                        plugin.getLogger().log(Level.WARNING, "Failed to export query metrics", e);
+                        Bukkit.getScheduler().runTask(plugin, () ->
+                                sender.sendMessage("§cメトリクスの出力に失敗しました。"));
+                    }
                 });
+                return true;
             }
-        } else {
-            sender.sendMessage("§cInvalid type. Use 'boss' or 'player'.");
+            default:
+                break;
+        }
+
+        sender.sendMessage("§6=== データベース統計 ===");
+        for (Map.Entry<String, Number> gauge : collectGauges().entrySet()) {
+            sender.sendMessage("§7" + gauge.getKey() + ": §f" + gauge.getValue());
+        }
+
+        Map<String, QueryMetrics.OperationStats> operations = metrics.getOperations();
+        if (operations.isEmpty()) {
+            sender.sendMessage("§7まだクエリが記録されていません。");
+            return true;
+        }
+
+        // Latencies are recorded in microseconds; show milliseconds
+        for (Map.Entry<String, QueryMetrics.OperationStats> entry : operations.entrySet()) {
+            QueryMetrics.OperationStats stats = entry.getValue();
+            sender.sendMessage(String.format("§e%s §7calls=§f%d §7err=§c%d §7p50=§f%.1fms §7p95=§f%.1fms §7p99=§f%.1fms §7wait99=§f%.1fms §7rows=§f%d",
+                    entry.getKey(),
+                    stats.getCalls(),
+                    stats.getErrors(),
+                    stats.getLatencyMicros().getPercentile(50) / 1000.0,
+                    stats.getLatencyMicros().getPercentile(95) / 1000.0,
+                    stats.getLatencyMicros().getPercentile(99) / 1000.0,
+                    stats.getAcquireMicros().getPercentile(99) / 1000.0,
+                    stats.getRows()));
         }
 
         return true;
     }
 
+    private boolean handleDbHealth(CommandSender sender, String[] args, MessageConfig messages) {
+        if (!sender.hasPermission("mofubossbattle.admin")) {
+            if (sender instanceof Player) {
+                MessageUtil.sendMessage((Player) sender, messages.withPrefix(messages.getCommandNoPermission()));
+            } else {
+                sender.sendMessage("You don't have permission to use this command.");
+            }
+            return true;
+        }
+
+        CircuitBreaker breaker = plugin.getDatabaseManager().getCircuitBreaker();
+        if (args.length >= 2 && args[1].equalsIgnoreCase("reset")) {
+            breaker.reset();
+            sender.sendMessage("§aサーキットブレーカーを閉じました。次のクエリからデータベースに接続します。");
+            return true;
+        }
+
+        CircuitBreaker.State state = breaker.getState();
+        String stateText = switch (state) {
+            case CLOSED -> "§a正常 (closed)";
+            case HALF_OPEN -> "§e確認中 (half-open)";
+            case OPEN -> "§c停止中 (open) §7- 残り " + (breaker.getRemainingOpenMillis() + 999) / 1000 + "秒で再試行";
+        };
+
+        String startupText = switch (plugin.getStartupState()) {
+            case READY -> "§a稼働中";
+            case WARMING_UP -> "§e起動中";
+            case UNAVAILABLE -> "§c接続失敗 (再試行待ち)";
+        };
+
+        sender.sendMessage("§6=== データベース状態 ===");
+        sender.sendMessage("§7起動状態: " + startupText);
+        sender.sendMessage("§7サーキットブレーカー: " + stateText);
+        sender.sendMessage("§7連続失敗: §f" + breaker.getConsecutiveFailures()
+                + " §7遮断回数: §f" + breaker.getOpenedTotal()
+                + " §7即時失敗: §f" + breaker.getRejectedTotal()
+                + " §7リトライ: §f" + plugin.getDatabaseManager().getRetryPolicy().getRetriesTotal());
+        if (breaker.getLastError() != null) {
+            sender.sendMessage("§7最後のエラー: §c" + breaker.getLastError());
+        }
+        return true;
+    }
+
     private boolean handleReload(CommandSender sender, MessageConfig messages) {
         if (!sender.hasPermission("mofubossbattle.reload")) {
             if (sender instanceof Player) {
@@ -440,15 +1549,36 @@ public class BossCommand implements CommandExecutor {
         return true;
     }
 
+    // Pool and outbox gauges for /boss dbstats and the metrics export
+    private Map<String, Number> collectGauges() {
+        Map<String, Number> gauges = new LinkedHashMap<>(plugin.getDatabaseManager().getPoolGauges());
+        if (plugin.getOutboxReplayer() != null) {
+            gauges.putAll(plugin.getOutboxReplayer().getGauges());
+        }
+        return gauges;
+    }
+
     private void sendHelp(CommandSender sender) {
         sender.sendMessage("§6=== MofuBossBattle Commands ===");
         sender.sendMessage("§e/boss start <boss_id> [player] §7- Start a boss battle");
         sender.sendMessage("§e/boss stop [player] §7- Stop a boss battle");
         sender.sendMessage("§e/boss leave §7- Leave during item collection");
         sender.sendMessage("§e/boss list §7- List available bosses");
-        sender.sendMessage("§e/boss ranking <boss_id> §7- View rankings");
-        sender.sendMessage("§e/boss myrank <boss_id> §7- View your rank");
+        sender.sendMessage("§e/boss ranking <boss_id> [page] [daily|weekly|monthly|season:<name>] §7- View rankings");
+        sender.sendMessage("§e/boss myrank [boss_id] §7- View your rank");
+        sender.sendMessage("§e/boss stats [player] §7- View battle stats (attempts, wins, win rate)");
+        sender.sendMessage("§e/boss history [player] [boss_id] [page] §7- View past battles");
         sender.sendMessage("§e/boss resetranking <boss|player> <id> §7- Reset rankings (Admin)");
+        sender.sendMessage("§e/boss export <rankings|history> [csv|ndjson] §7- Export a table (Admin)");
+        sender.sendMessage("§e/boss import <rankings|history> <file> [restart] §7- Import a file (Admin)");
+        sender.sendMessage("§e/boss compact [run|stop] §7- Attempt compaction status (Admin)");
+        sender.sendMessage("§e/boss distribution <boss_id> §7- Clear time distribution (Admin)");
+        sender.sendMessage("§e/boss season [list|archive <name>] §7- Archive or list ranking seasons (Admin)");
+        sender.sendMessage("§e/boss analytics <boss_id> [days] §7- Attempt and clear time trends (Admin)");
+        sender.sendMessage("§e/boss clears [boss_id...] §7- Players who cleared bosses (Admin)");
+        sender.sendMessage("§e/boss retention [run|stop] §7- Battle history archival status (Admin)");
+        sender.sendMessage("§e/boss dbstats [slow|export|reset] §7- Database query stats (Admin)");
+        sender.sendMessage("§e/boss dbhealth [reset] §7- Database circuit breaker state (Admin)");
         sender.sendMessage("§e/boss reload §7- Reload configuration");
         sender.sendMessage("§e/boss help §7- Show this help");
     }
@@ -2,22 +2,25 @@ package net.mofucraft.bossbattle.command;
 
 import net.mofucraft.bossbattle.MofuBossBattle;
 import net.mofucraft.bossbattle.config.BossConfig;
+import net.mofucraft.bossbattle.database.RankingPeriod;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class BossTabCompleter implements TabCompleter {
 
     private final MofuBossBattle plugin;
     private static final List<String> SUBCOMMANDS = Arrays.asList(
-            "start", "stop", "leave", "list", "ranking", "myrank", "resetranking", "reload", "help"
+            "start", "stop", "leave", "list", "ranking", "myrank", "stats", "history", "resetranking", "export", "import", "compact", "distribution", "season", "analytics", "clears", "retention", "dbstats", "dbhealth", "reload", "help"
     );
 
     public BossTabCompleter(MofuBossBattle plugin) {
@@ -56,14 +59,99 @@ public class BossTabCompleter implements TabCompleter {
                                 .collect(Collectors.toList());
                     }
                     break;
+                case "stats":
+                    if (sender.hasPermission("mofubossbattle.stats.others")) {
+                        completions = Bukkit.getOnlinePlayers().stream()
+                                .map(Player::getName)
+                                .filter(name -> name.toLowerCase().startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "history":
+                    if (sender.hasPermission("mofubossbattle.history")) {
+                        Stream<String> players = sender.hasPermission("mofubossbattle.history.others")
+                                ? Bukkit.getOnlinePlayers().stream().map(Player::getName)
+                                : Stream.empty();
+                        completions = Stream.concat(players,
+                                        plugin.getConfigManager().getAllBossConfigs().stream().map(BossConfig::getId))
+                                .filter(option -> option.toLowerCase().startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
                 case "resetranking":
                     if (sender.hasPermission("mofubossbattle.admin")) {
-                        completions = Arrays.asList("boss", "player").stream()
+                        completions = Arrays.asList("boss", "player", "cancel").stream()
+                                .filter(s -> s.startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "export":
+                case "import":
+                    if (sender.hasPermission("mofubossbattle.admin")) {
+                        completions = Arrays.asList("rankings", "history").stream()
+                                .filter(s -> s.startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "distribution":
+                case "analytics":
+                case "clears":
+                    if (sender.hasPermission("mofubossbattle.admin")) {
+                        completions = plugin.getConfigManager().getAllBossConfigs().stream()
+                                .map(BossConfig::getId)
+                                .filter(id -> id.toLowerCase().startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "compact":
+                case "retention":
+                    if (sender.hasPermission("mofubossbattle.admin")) {
+                        completions = Arrays.asList("run", "stop").stream()
+                                .filter(s -> s.startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "season":
+                    if (sender.hasPermission("mofubossbattle.admin")) {
+                        completions = Arrays.asList("list", "archive").stream()
+                                .filter(s -> s.startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "dbstats":
+                    if (sender.hasPermission("mofubossbattle.admin")) {
+                        completions = Arrays.asList("slow", "export", "reset").stream()
+                                .filter(s -> s.startsWith(input))
+                                .collect(Collectors.toList());
+                    }
+                    break;
+                case "dbhealth":
+                    if (sender.hasPermission("mofubossbattle.admin")) {
+                        completions = Arrays.asList("reset").stream()
                                 .filter(s -> s.startsWith(input))
                                 .collect(Collectors.toList());
                     }
                     break;
             }
+        } else if (args.length >= 3 && args[0].equalsIgnoreCase("ranking")) {
+            String input = args[args.length - 1].toLowerCase();
+            completions = Stream.concat(
+                            Arrays.stream(RankingPeriod.values()).map(RankingPeriod::getKey),
+                            plugin.getRankingStore().getKnownSeasonNames().stream().sorted().map(name -> "season:" + name))
+                    .filter(option -> option.startsWith(input))
+                    .collect(Collectors.toList());
+        } else if (args.length >= 3 && args[0].equalsIgnoreCase("clears") && sender.hasPermission("mofubossbattle.admin")) {
+            String input = args[args.length - 1].toLowerCase();
+            completions = plugin.getConfigManager().getAllBossConfigs().stream()
+                    .map(BossConfig::getId)
+                    .filter(id -> id.toLowerCase().startsWith(input))
+                    .collect(Collectors.toList());
+        } else if (args.length == 3 && args[0].equalsIgnoreCase("history") && sender.hasPermission("mofubossbattle.history")) {
+            String input = args[2].toLowerCase();
+            completions = plugin.getConfigManager().getAllBossConfigs().stream()
+                    .map(BossConfig::getId)
+                    .filter(id -> id.toLowerCase().startsWith(input))
+                    .collect(Collectors.toList());
         } else if (args.length == 3) {
             String subCommand = args[0].toLowerCase();
             String input = args[2].toLowerCase();
@@ -73,6 +161,22 @@ public class BossTabCompleter implements TabCompleter {
                         .map(Player::getName)
                         .filter(name -> name.toLowerCase().startsWith(input))
                         .collect(Collectors.toList());
+            } else if (subCommand.equals("analytics") && sender.hasPermission("mofubossbattle.admin")) {
+                completions = Arrays.asList("1", "7", "30").stream()
+                        .filter(s -> s.startsWith(input))
+                        .collect(Collectors.toList());
+            } else if (subCommand.equals("export") && sender.hasPermission("mofubossbattle.admin")) {
+                completions = Arrays.asList("csv", "ndjson").stream()
+                        .filter(s -> s.startsWith(input))
+                        .collect(Collectors.toList());
+            } else if (subCommand.equals("import") && sender.hasPermission("mofubossbattle.admin")) {
+                String[] files = new File(plugin.getDataFolder(), "exports").list((dir, name) -> name.endsWith(".csv") || name.endsWith(".ndjson"));
+                if (files != null) {
+                    completions = Arrays.stream(files)
+                            .filter(name -> name.toLowerCase().startsWith(input))
+                            .sorted()
+                            .collect(Collectors.toList());
+                }
             } else if (subCommand.equals("resetranking") && sender.hasPermission("mofubossbattle.admin")) {
                 String type = args[1].toLowerCase();
                 if (type.equals("boss")) {
@@ -97,6 +201,8 @@ public class BossTabCompleter implements TabCompleter {
                         .map(BossConfig::getId)
                         .filter(id -> id.toLowerCase().startsWith(input))
                         .collect(Collectors.toList());
+            } else if (subCommand.equals("import") && sender.hasPermission("mofubossbattle.admin") && "restart".startsWith(input)) {
+                completions = List.of("restart");
             }
         }
 
@@ -110,7 +216,9 @@ public class BossTabCompleter implements TabCompleter {
             case "list" -> sender.hasPermission("mofubossbattle.list");
             case "ranking" -> sender.hasPermission("mofubossbattle.ranking");
             case "myrank" -> sender.hasPermission("mofubossbattle.myrank");
-            case "resetranking" -> sender.hasPermission("mofubossbattle.admin");
+            case "stats" -> sender.hasPermission("mofubossbattle.stats");
+            case "history" -> sender.hasPermission("mofubossbattle.history");
+            case "resetranking", "export", "import", "compact", "distribution", "season", "analytics", "clears", "retention", "dbstats", "dbhealth" -> sender.hasPermission("mofubossbattle.admin");
             case "reload" -> sender.hasPermission("mofubossbattle.reload");
             default -> true;
         };
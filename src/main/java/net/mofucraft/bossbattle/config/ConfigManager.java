@@ -1,6 +1,7 @@
 package net.mofucraft.bossbattle.config;
 
 import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.StorageBackend;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 
@@ -9,6 +10,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
@@ -21,6 +25,7 @@ public class ConfigManager {
     private final MessageConfig messageConfig;
 
     // Database settings
+    private StorageBackend storageBackend;
     private String dbHost;
     private int dbPort;
     private String dbDatabase;
@@ -28,11 +33,89 @@ public class ConfigManager {
     private String dbPassword;
     private int dbPoolSize;
 
+    // Read replica settings
+    private boolean replicaEnabled;
+    private String replicaHost;
+    private int replicaPort;
+    private String replicaDatabase;
+    private String replicaUsername;
+    private String replicaPassword;
+    private int replicaPoolSize;
+    private long replicaReadYourWritesMs;
+
+    // Schema migration settings
+    private boolean migrationDryRun;
+    private int migrationChunkSize;
+    private long migrationChunkPauseMs;
+
+    // Query metrics settings
+    private boolean metricsEnabled;
+    private long slowQueryThresholdMs;
+    private int slowQueryLogSize;
+    private boolean logSlowQueries;
+
+    // Export/import settings
+    private int transferFetchSize;
+    private int transferBatchSize;
+    private long transferProgressIntervalMs;
+
+    // Bulk reset settings
+    private int resetChunkSize;
+    private long resetChunkPauseMs;
+
+    // Attempt compaction settings
+    private boolean compactionEnabled;
+    private int compactionKeepRecentAttempts;
+    private long compactionIntervalMinutes;
+    private int compactionChunkSize;
+    private long compactionChunkPauseMs;
+
+    // History rollup settings
+    private boolean rollupsEnabled;
+    private long rollupIntervalMinutes;
+    private long rollupLagMinutes;
+    private int rollupReprocessHours;
+
+    // History retention settings
+    private boolean historyRetentionEnabled;
+    private int historyRetentionDays;
+    private boolean historyArchiveEnabled;
+    private long historyRetentionIntervalMinutes;
+    private int historyRetentionWindowStartHour;
+    private int historyRetentionWindowEndHour;
+    private int historyRetentionChunkSize;
+    private long historyRetentionChunkPauseMs;
+
+    // Season settings
+    private int seasonLockWaitTimeoutSeconds;
+
+    // Outbox settings
+    private boolean outboxEnabled;
+    private long outboxWriteTimeoutMs;
+    private long outboxReplayIntervalSeconds;
+    private long shutdownDrainTimeoutMs;
+
+    // Retry and circuit breaker settings
+    private int retryMaxAttempts;
+    private long retryBaseDelayMs;
+    private long retryMaxDelayMs;
+    private int circuitBreakerFailureThreshold;
+    private long circuitBreakerOpenSeconds;
+
+    // Startup settings
+    private long startupRetryIntervalSeconds;
+
+    // Daily/weekly/monthly leaderboard settings
+    private ZoneId periodTimezone;
+    private DayOfWeek periodWeekStart;
+    private int periodRetentionDays;
+
     // Global settings
     private String prefix;
     private int defaultTimeLimit;
     private int defaultItemCollectionTime;
     private boolean enabled;
+    private boolean rankUpNotifications;
     private boolean debug;
 
     // Battle command restriction settings
@@ -72,6 +155,12 @@ public class ConfigManager {
         FileConfiguration config = plugin.getConfig();
 
         // Database settings
+        String type = config.getString("database.type", "mysql");
+        storageBackend = StorageBackend.fromKey(type);
+        if (storageBackend == null) {
+            plugin.getLogger().warning("Invalid database.type: " + type + ", using mysql");
+            storageBackend = StorageBackend.MYSQL;
+        }
         dbHost = config.getString("database.host", "localhost");
         dbPort = config.getInt("database.port", 3306);
         dbDatabase = config.getString("database.database", "mofubossbattle");
@@ -79,11 +168,101 @@ public class ConfigManager {
         dbPassword = config.getString("database.password", "password");
         dbPoolSize = config.getInt("database.pool-size", 10);
 
+        // Read replica settings (credentials default to the primary's)
+        replicaEnabled = config.getBoolean("database.replica.enabled", false);
+        replicaHost = config.getString("database.replica.host", dbHost);
+        replicaPort = config.getInt("database.replica.port", dbPort);
+        replicaDatabase = config.getString("database.replica.database", dbDatabase);
+        replicaUsername = config.getString("database.replica.username", dbUsername);
+        replicaPassword = config.getString("database.replica.password", dbPassword);
+        replicaPoolSize = config.getInt("database.replica.pool-size", dbPoolSize);
+        replicaReadYourWritesMs = config.getLong("database.replica.read-your-writes-ms", 5000);
+
+        // Schema migration settings
+        migrationDryRun = config.getBoolean("database.migrations.dry-run", false);
+        migrationChunkSize = config.getInt("database.migrations.chunk-size", 5000);
+        migrationChunkPauseMs = config.getLong("database.migrations.chunk-pause-ms", 50);
+
+        // Query metrics settings
+        metricsEnabled = config.getBoolean("database.metrics.enabled", true);
+        slowQueryThresholdMs = config.getLong("database.metrics.slow-query-threshold-ms", 200);
+        slowQueryLogSize = config.getInt("database.metrics.slow-query-log-size", 50);
+        logSlowQueries = config.getBoolean("database.metrics.log-slow-queries", true);
+
+        // Export/import settings
+        transferFetchSize = config.getInt("database.transfer.fetch-size", 1000);
+        transferBatchSize = config.getInt("database.transfer.batch-size", 500);
+        transferProgressIntervalMs = config.getLong("database.transfer.progress-interval-seconds", 5) * 1000;
+
+        // Bulk reset settings
+        resetChunkSize = config.getInt("database.reset.chunk-size", 1000);
+        resetChunkPauseMs = config.getLong("database.reset.chunk-pause-ms", 20);
+
+        // Attempt compaction settings
+        compactionEnabled = config.getBoolean("database.compaction.enabled", true);
+        compactionKeepRecentAttempts = config.getInt("database.compaction.keep-recent-attempts", 20);
+        compactionIntervalMinutes = config.getLong("database.compaction.interval-minutes", 360);
+        compactionChunkSize = config.getInt("database.compaction.chunk-size", 1000);
+        compactionChunkPauseMs = config.getLong("database.compaction.chunk-pause-ms", 100);
+
+        // History rollup settings
+        rollupsEnabled = config.getBoolean("database.rollups.enabled", true);
+        rollupIntervalMinutes = config.getLong("database.rollups.interval-minutes", 15);
+        rollupLagMinutes = config.getLong("database.rollups.lag-minutes", 5);
+        rollupReprocessHours = config.getInt("database.rollups.reprocess-hours", 24);
+
+        // History retention settings
+        historyRetentionEnabled = config.getBoolean("database.history-retention.enabled", false);
+        historyRetentionDays = config.getInt("database.history-retention.days", 180);
+        historyArchiveEnabled = config.getBoolean("database.history-retention.archive", true);
+        historyRetentionIntervalMinutes = config.getLong("database.history-retention.interval-minutes", 30);
+        historyRetentionWindowStartHour = config.getInt("database.history-retention.window-start-hour", 4);
+        historyRetentionWindowEndHour = config.getInt("database.history-retention.window-end-hour", 7);
+        historyRetentionChunkSize = config.getInt("database.history-retention.chunk-size", 500);
+        historyRetentionChunkPauseMs = config.getLong("database.history-retention.chunk-pause-ms", 200);
+
+        // Season settings
+        seasonLockWaitTimeoutSeconds = config.getInt("database.seasons.lock-wait-timeout-seconds", 10);
+
+        // Outbox settings
+        outboxEnabled = config.getBoolean("database.outbox.enabled", true);
+        outboxWriteTimeoutMs = config.getLong("database.outbox.write-timeout-ms", 10000);
+        outboxReplayIntervalSeconds = config.getLong("database.outbox.replay-interval-seconds", 15);
+        shutdownDrainTimeoutMs = config.getLong("database.outbox.shutdown-drain-timeout-ms", 5000);
+
+        // Retry and circuit breaker settings
+        retryMaxAttempts = config.getInt("database.resilience.retry.max-attempts", 3);
+        retryBaseDelayMs = config.getLong("database.resilience.retry.base-delay-ms", 100);
+        retryMaxDelayMs = config.getLong("database.resilience.retry.max-delay-ms", 2000);
+        circuitBreakerFailureThreshold = config.getInt("database.resilience.circuit-breaker.failure-threshold", 5);
+        circuitBreakerOpenSeconds = config.getLong("database.resilience.circuit-breaker.open-seconds", 30);
+
+        // Startup settings
+        startupRetryIntervalSeconds = config.getLong("database.startup.retry-interval-seconds", 30);
+
+        // Daily/weekly/monthly leaderboard settings
+        String timezone = config.getString("ranking-periods.timezone", "");
+        try {
+            periodTimezone = timezone.isEmpty() ? ZoneId.systemDefault() : ZoneId.of(timezone);
+        } catch (DateTimeException e) {
+            plugin.getLogger().warning("Invalid ranking-periods.timezone: " + timezone + ", using " + ZoneId.systemDefault());
+            periodTimezone = ZoneId.systemDefault();
+        }
+        String weekStart = config.getString("ranking-periods.week-start", "MONDAY");
+        try {
+            periodWeekStart = DayOfWeek.valueOf(weekStart.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Invalid ranking-periods.week-start: " + weekStart + ", using MONDAY");
+            periodWeekStart = DayOfWeek.MONDAY;
+        }
+        periodRetentionDays = config.getInt("ranking-periods.retention-days", 62);
+
         // Global settings
         prefix = config.getString("settings.prefix", "&8[&6MofuBossBattle&8] ");
         defaultTimeLimit = config.getInt("settings.default-time-limit", 300);
         defaultItemCollectionTime = config.getInt("settings.default-item-collection-time", 30);
         enabled = config.getBoolean("settings.enabled", true);
+        rankUpNotifications = config.getBoolean("settings.rank-up-notifications", true);
         debug = config.getBoolean("debug", false);
 
         // Command restriction settings
@@ -186,6 +365,10 @@ public class ConfigManager {
         return messageConfig;
     }
 
+    public StorageBackend getStorageBackend() {
+        return storageBackend;
+    }
+
     public String getDbHost() {
         return dbHost;
     }
@@ -210,6 +393,210 @@ public class ConfigManager {
         return dbPoolSize;
     }
 
+    public boolean isReplicaEnabled() {
+        return replicaEnabled;
+    }
+
+    public String getReplicaHost() {
+        return replicaHost;
+    }
+
+    public int getReplicaPort() {
+        return replicaPort;
+    }
+
+    public String getReplicaDatabase() {
+        return replicaDatabase;
+    }
+
+    public String getReplicaUsername() {
+        return replicaUsername;
+    }
+
+    public String getReplicaPassword() {
+        return replicaPassword;
+    }
+
+    public int getReplicaPoolSize() {
+        return replicaPoolSize;
+    }
+
+    public long getReplicaReadYourWritesMs() {
+        return replicaReadYourWritesMs;
+    }
+
+    public boolean isMigrationDryRun() {
+        return migrationDryRun;
+    }
+
+    public int getMigrationChunkSize() {
+        return migrationChunkSize;
+    }
+
+    public long getMigrationChunkPauseMs() {
+        return migrationChunkPauseMs;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public long getSlowQueryThresholdMs() {
+        return slowQueryThresholdMs;
+    }
+
+    public int getSlowQueryLogSize() {
+        return slowQueryLogSize;
+    }
+
+    public boolean isLogSlowQueries() {
+        return logSlowQueries;
+    }
+
+    public int getTransferFetchSize() {
+        return transferFetchSize;
+    }
+
+    public int getTransferBatchSize() {
+        return transferBatchSize;
+    }
+
+    public long getTransferProgressIntervalMs() {
+        return transferProgressIntervalMs;
+    }
+
+    public int getResetChunkSize() {
+        return resetChunkSize;
+    }
+
+    public long getResetChunkPauseMs() {
+        return resetChunkPauseMs;
+    }
+
+    public boolean isCompactionEnabled() {
+        return compactionEnabled;
+    }
+
+    public int getCompactionKeepRecentAttempts() {
+        return compactionKeepRecentAttempts;
+    }
+
+    public long getCompactionIntervalMinutes() {
+        return compactionIntervalMinutes;
+    }
+
+    public int getCompactionChunkSize() {
+        return compactionChunkSize;
+    }
+
+    public long getCompactionChunkPauseMs() {
+        return compactionChunkPauseMs;
+    }
+
+    public boolean isRollupsEnabled() {
+        return rollupsEnabled;
+    }
+
+    public long getRollupIntervalMinutes() {
+        return rollupIntervalMinutes;
+    }
+
+    public long getRollupLagMinutes() {
+        return rollupLagMinutes;
+    }
+
+    public int getRollupReprocessHours() {
+        return rollupReprocessHours;
+    }
+
+    public boolean isHistoryRetentionEnabled() {
+        return historyRetentionEnabled;
+    }
+
+    public int getHistoryRetentionDays() {
+        return historyRetentionDays;
+    }
+
+    public boolean isHistoryArchiveEnabled() {
+        return historyArchiveEnabled;
+    }
+
+    public long getHistoryRetentionIntervalMinutes() {
+        return historyRetentionIntervalMinutes;
+    }
+
+    public int getHistoryRetentionWindowStartHour() {
+        return historyRetentionWindowStartHour;
+    }
+
+    public int getHistoryRetentionWindowEndHour() {
+        return historyRetentionWindowEndHour;
+    }
+
+    public int getHistoryRetentionChunkSize() {
+        return historyRetentionChunkSize;
+    }
+
+    public long getHistoryRetentionChunkPauseMs() {
+        return historyRetentionChunkPauseMs;
+    }
+
+    public int getSeasonLockWaitTimeoutSeconds() {
+        return seasonLockWaitTimeoutSeconds;
+    }
+
+    public boolean isOutboxEnabled() {
+        return outboxEnabled;
+    }
+
+    public long getOutboxWriteTimeoutMs() {
+        return outboxWriteTimeoutMs;
+    }
+
+    public long getOutboxReplayIntervalSeconds() {
+        return outboxReplayIntervalSeconds;
+    }
+
+    public long getShutdownDrainTimeoutMs() {
+        return shutdownDrainTimeoutMs;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public long getRetryBaseDelayMs() {
+        return retryBaseDelayMs;
+    }
+
+    public long getRetryMaxDelayMs() {
+        return retryMaxDelayMs;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public long getCircuitBreakerOpenSeconds() {
+        return circuitBreakerOpenSeconds;
+    }
+
+    public long getStartupRetryIntervalSeconds() {
+        return startupRetryIntervalSeconds;
+    }
+
+    public ZoneId getPeriodTimezone() {
+        return periodTimezone;
+    }
+
+    public DayOfWeek getPeriodWeekStart() {
+        return periodWeekStart;
+    }
+
+    public int getPeriodRetentionDays() {
+        return periodRetentionDays;
+    }
+
     public int getDefaultTimeLimit() {
         return defaultTimeLimit;
     }
@@ -222,6 +609,10 @@ public class ConfigManager {
         return enabled;
     }
 
+    public boolean isRankUpNotifications() {
+        return rankUpNotifications;
+    }
+
     public boolean isDebug() {
         return debug;
     }
@@ -2,6 +2,9 @@ package net.mofucraft.bossbattle.config;
 
 import org.bukkit.configuration.file.YamlConfiguration;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public class MessageConfig {
 
     // Battle messages
@@ -32,6 +35,31 @@ public class MessageConfig {
     private String rankingNoRecords;
     private String rankingYourRank;
     private String rankingNotRanked;
+    private String rankingNextRankGap;
+    private String rankingNeighborhoodHeader;
+    private String rankingNeighborhoodSelf;
+    private String rankingRankUp;
+    private String rankingNewEntry;
+    private String rankingProfileHeader;
+    private String rankingProfileEntry;
+    private String rankingProfileNotRanked;
+    private String rankingSeasonHeader;
+    private String rankingUnknownSeason;
+    private String rankingPeriodHeader;
+    private final Map<String, String> rankingPeriodNames = new HashMap<>();
+
+    // Stats
+    private String statsHeader;
+    private String statsEntry;
+    private String statsNoRecords;
+
+    // History
+    private String historyHeader;
+    private String historyEntry;
+    private String historyNoRecords;
+    private String historyNextPage;
+    private String historyAllBosses;
+    private final Map<String, String> historyResultNames = new HashMap<>();
 
     // Command messages
     private String commandNoPermission;
@@ -48,6 +76,10 @@ public class MessageConfig {
     private String commandLeaveNotAllowed;
     private String commandLeaveSuccess;
     private String commandBlocked;
+    private String commandWarmingUp;
+
+    // Placeholders
+    private String placeholderWarmingUp;
 
     // Prefix
     private String prefix;
@@ -79,8 +111,39 @@ public class MessageConfig {
         rankingHeader = config.getString("ranking.header", "&6=== {boss_name_plain} ランキング ===");
         rankingEntry = config.getString("ranking.entry", "&e{rank}. &f{player} &7- &a{time}");
         rankingNoRecords = config.getString("ranking.no-records", "&7まだ記録がありません。");
-        rankingYourRank = config.getString("ranking.your-rank", "&eあなたの順位: &f{rank}位 &7(&a{time}&7)");
+        rankingYourRank = config.getString("ranking.your-rank", "&eあなたの順位: &f{rank}位&7/{total}人 &7(&a{time}&7)");
         rankingNotRanked = config.getString("ranking.not-ranked", "&7あなたはまだランキングに登録されていません。");
+        rankingNextRankGap = config.getString("ranking.next-rank-gap", "&7{next_rank}位まであと &c{gap}");
+        rankingNeighborhoodHeader = config.getString("ranking.neighborhood-header", "&7--- 前後の順位 ---");
+        rankingNeighborhoodSelf = config.getString("ranking.neighborhood-self", "&a{rank}. &f{player} &7- &a{time} &e◀");
+        rankingRankUp = config.getString("ranking.rank-up", "&6{boss_name_plain} のランキングで &f{rank}位&6 に上がりました！ &7({previous_rank}位 → {rank}位)");
+        rankingNewEntry = config.getString("ranking.new-entry", "&6{boss_name_plain} のランキングに &f{rank}位&6 で登録されました！ &7({total}人中)");
+        rankingProfileHeader = config.getString("ranking.profile-header", "&6=== あなたの順位 ===");
+        rankingProfileEntry = config.getString("ranking.profile-entry", "&e{boss_name_plain}: &f{rank}位&7/{total}人 &7(&a{time}&7)");
+        rankingProfileNotRanked = config.getString("ranking.profile-not-ranked", "&e{boss_name_plain}: &7未登録");
+        rankingSeasonHeader = config.getString("ranking.season-header", "&7シーズン: &f{season}");
+        rankingUnknownSeason = config.getString("ranking.unknown-season", "&cシーズン「{season}」は存在しません。");
+        rankingPeriodHeader = config.getString("ranking.period-header", "&7{period}のランキング &8({start}〜)");
+        rankingPeriodNames.put("daily", config.getString("ranking.period-names.daily", "今日"));
+        rankingPeriodNames.put("weekly", config.getString("ranking.period-names.weekly", "今週"));
+        rankingPeriodNames.put("monthly", config.getString("ranking.period-names.monthly", "今月"));
+
+        // Stats messages
+        statsHeader = config.getString("stats.header", "&6=== {player} の戦績 ===");
+        statsEntry = config.getString("stats.entry", "&e{boss_name_plain}: &f{attempts}戦 &a{victories}勝 &c{defeats}敗 &7(時間切れ {timeouts} / 離脱 {logouts}) &7勝率 &f{win_rate}% &7平均クリア &a{average_time}");
+        statsNoRecords = config.getString("stats.no-records", "&7まだ戦績がありません。");
+
+        // History messages
+        historyHeader = config.getString("history.header", "&6=== {player} の戦闘履歴 &7({boss_filter} / {page}ページ) &6===");
+        historyEntry = config.getString("history.entry", "&7{position}. &f{date} &e{boss_name_plain} {result} &7{duration}");
+        historyNoRecords = config.getString("history.no-records", "&7戦闘履歴がありません。");
+        historyNextPage = config.getString("history.next-page", "&7次のページ: &f{command}");
+        historyAllBosses = config.getString("history.all-bosses", "全ボス");
+        historyResultNames.put("VICTORY", config.getString("history.results.victory", "&a勝利"));
+        historyResultNames.put("SURVIVAL", config.getString("history.results.survival", "&a生存"));
+        historyResultNames.put("DEFEAT", config.getString("history.results.defeat", "&c敗北"));
+        historyResultNames.put("TIMEOUT", config.getString("history.results.timeout", "&6時間切れ"));
+        historyResultNames.put("LOGOUT", config.getString("history.results.logout", "&7離脱"));
 
         // Command messages
         commandNoPermission = config.getString("command.no-permission", "&cこのコマンドを実行する権限がありません。");
@@ -97,6 +160,10 @@ public class MessageConfig {
         commandLeaveNotAllowed = config.getString("command.leave-not-allowed", "&cアイテム回収時間中のみ離脱できます。");
         commandLeaveSuccess = config.getString("command.leave-success", "&a離脱しました。");
         commandBlocked = config.getString("command.blocked", "&cボス戦中はこのコマンドを使用できません。");
+        commandWarmingUp = config.getString("command.warming-up", "&eデータベースを準備中です。しばらくしてからもう一度お試しください。");
+
+        // Placeholder text
+        placeholderWarmingUp = config.getString("placeholder.warming-up", "準備中...");
 
         // Prefix
         prefix = config.getString("prefix", "&8[&6MofuBossBattle&8] ");
@@ -179,6 +246,90 @@ public class MessageConfig {
         return rankingNotRanked;
     }
 
+    public String getRankingNextRankGap() {
+        return rankingNextRankGap;
+    }
+
+    public String getRankingNeighborhoodHeader() {
+        return rankingNeighborhoodHeader;
+    }
+
+    public String getRankingNeighborhoodSelf() {
+        return rankingNeighborhoodSelf;
+    }
+
+    public String getRankingRankUp() {
+        return rankingRankUp;
+    }
+
+    public String getRankingNewEntry() {
+        return rankingNewEntry;
+    }
+
+    public String getRankingProfileHeader() {
+        return rankingProfileHeader;
+    }
+
+    public String getRankingProfileEntry() {
+        return rankingProfileEntry;
+    }
+
+    public String getRankingProfileNotRanked() {
+        return rankingProfileNotRanked;
+    }
+
+    public String getRankingSeasonHeader() {
+        return rankingSeasonHeader;
+    }
+
+    public String getRankingUnknownSeason() {
+        return rankingUnknownSeason;
+    }
+
+    public String getRankingPeriodHeader() {
+        return rankingPeriodHeader;
+    }
+
+    public String getRankingPeriodName(String period) {
+        return rankingPeriodNames.getOrDefault(period, period);
+    }
+
+    public String getStatsHeader() {
+        return statsHeader;
+    }
+
+    public String getStatsEntry() {
+        return statsEntry;
+    }
+
+    public String getStatsNoRecords() {
+        return statsNoRecords;
+    }
+
+    public String getHistoryHeader() {
+        return historyHeader;
+    }
+
+    public String getHistoryEntry() {
+        return historyEntry;
+    }
+
+    public String getHistoryNoRecords() {
+        return historyNoRecords;
+    }
+
+    public String getHistoryNextPage() {
+        return historyNextPage;
+    }
+
+    public String getHistoryAllBosses() {
+        return historyAllBosses;
+    }
+
+    public String getHistoryResultName(String result) {
+        return historyResultNames.getOrDefault(result, result);
+    }
+
     public String getCommandNoPermission() {
         return commandNoPermission;
     }
@@ -235,6 +386,14 @@ public class MessageConfig {
         return commandBlocked;
     }
 
+    public String getCommandWarmingUp() {
+        return commandWarmingUp;
+    }
+
+    public String getPlaceholderWarmingUp() {
+        return placeholderWarmingUp;
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -0,0 +1,197 @@
+package net.mofucraft.bossbattle.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Trims boss_rankings down to what is worth keeping: every attempt that matches the player's
+ * personal best plus their most recent attempts for each boss. Works through the primary key
+ * range in small autocommitted chunks so no statement holds InnoDB locks for long.
+ */
+public class AttemptCompactor {
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final AtomicBoolean running;
+    private final AtomicBoolean cancelRequested;
+
+    // Stats of the last finished run, plus totals since startup
+    private volatile long lastRunStartedAt;
+    private volatile long lastRunDurationMs;
+    private volatile long lastRunDeleted;
+    private volatile boolean lastRunCancelled;
+    private volatile long totalDeleted;
+    private volatile int runs;
+
+    // Progress of the current run
+    private volatile long currentId;
+    private volatile long maxId;
+
+    public AttemptCompactor(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.running = new AtomicBoolean();
+        this.cancelRequested = new AtomicBoolean();
+    }
+
+    /**
+     * Run one compaction pass on the calling thread. Returns the number of rows deleted,
+     * or -1 if a pass is already running.
+     */
+    public long compact(int keepRecent, int chunkSize, long chunkPauseMs) {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        cancelRequested.set(false);
+        long startedAt = System.currentTimeMillis();
+        long deleted = 0;
+        chunkSize = Math.max(1, chunkSize);
+
+        // A row is kept if it ties the personal best or is one of the newest keepRecent attempts
+        String selectSql = """
+                SELECT r.id FROM boss_rankings r
+                JOIN boss_personal_bests pb ON pb.boss_id = r.boss_id AND pb.player_uuid = r.player_uuid
+                WHERE r.id >= ? AND r.id < ?
+                  AND r.clear_time_ms > pb.best_time_ms
+                """ + (keepRecent > 0 ? """
+                  AND (SELECT n.id FROM boss_rankings n
+                       WHERE n.player_uuid = r.player_uuid AND n.boss_id = r.boss_id AND n.id > r.id
+                       ORDER BY n.id LIMIT 1 OFFSET ?) IS NOT NULL
+                """ : "");
+
+        try (Connection conn = databaseManager.getConnection()) {
+            long[] range = getIdRange(conn);
+            if (range == null) {
+                return 0;
+            }
+            maxId = range[1];
+
+            try (PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+                for (long from = range[0]; from <= range[1]; from += chunkSize) {
+                    if (cancelRequested.get()) {
+                        logger.info("Attempt compaction cancelled at id " + from);
+                        break;
+                    }
+                    currentId = from;
+
+                    long chunkStart = System.nanoTime();
+                    List<Long> ids = new ArrayList<>();
+                    selectStmt.setLong(1, from);
+                    selectStmt.setLong(2, from + chunkSize);
+                    if (keepRecent > 0) {
+                        selectStmt.setInt(3, keepRecent - 1);
+                    }
+                    try (ResultSet rs = selectStmt.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getLong(1));
+                        }
+                    }
+
+                    int chunkDeleted = deleteIds(conn, ids);
+                    deleted += chunkDeleted;
+                    databaseManager.getMetrics().record("compactAttempts", System.nanoTime() - chunkStart,
+                            chunkDeleted, true, new Object[]{from, from + chunkSize});
+
+                    if (chunkPauseMs > 0) {
+                        Thread.sleep(chunkPauseMs);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Attempt compaction failed after deleting " + deleted + " rows", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRunStartedAt = startedAt;
+            lastRunDurationMs = System.currentTimeMillis() - startedAt;
+            lastRunDeleted = deleted;
+            lastRunCancelled = cancelRequested.get();
+            totalDeleted += deleted;
+            runs++;
+            currentId = 0;
+            running.set(false);
+        }
+
+        if (deleted > 0) {
+            logger.info("Attempt compaction removed " + deleted + " rows in " + lastRunDurationMs + "ms");
+        }
+        return deleted;
+    }
+
+    public void cancel() {
+        cancelRequested.set(true);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Rough progress of the running pass in percent, by primary key position
+     */
+    public int getProgressPercent() {
+        long max = maxId;
+        return running.get() && max > 0 ? (int) Math.min(100, currentId * 100 / max) : 0;
+    }
+
+    public long getLastRunStartedAt() {
+        return lastRunStartedAt;
+    }
+
+    public long getLastRunDurationMs() {
+        return lastRunDurationMs;
+    }
+
+    public long getLastRunDeleted() {
+        return lastRunDeleted;
+    }
+
+    public boolean isLastRunCancelled() {
+        return lastRunCancelled;
+    }
+
+    public long getTotalDeleted() {
+        return totalDeleted;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    private int deleteIds(Connection conn, List<Long> ids) throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        String sql = "DELETE FROM boss_rankings WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                stmt.setLong(i + 1, ids.get(i));
+            }
+            return stmt.executeUpdate();
+        }
+    }
+
+    private long[] getIdRange(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT MIN(id), MAX(id) FROM boss_rankings");
+             ResultSet rs = stmt.executeQuery()) {
+            if (rs.next()) {
+                long min = rs.getLong(1);
+                if (rs.wasNull()) {
+                    return null;
+                }
+                return new long[]{min, rs.getLong(2)};
+            }
+        }
+        return null;
+    }
+}
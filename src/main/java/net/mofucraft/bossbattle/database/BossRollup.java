@@ -0,0 +1,122 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.util.LogHistogram;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Battles against one boss within one hour (or, once summed, any longer span), as rolled up
+ * from battle_history. Durations are kept as log histograms so quantiles of any span can be
+ * read without going back to the history.
+ */
+public class BossRollup {
+
+    private final String bossId;
+    private final Instant start;
+    private final int attempts;
+    private final int victories;
+    private final int defeats;
+    private final int timeouts;
+    private final int logouts;
+    private final long totalDurationMillis;
+    private final LogHistogram victoryDurations;
+    private final LogHistogram failureDurations;
+
+    public BossRollup(String bossId, Instant start, int attempts, int victories, int defeats, int timeouts, int logouts,
+                      long totalDurationMillis, LogHistogram victoryDurations, LogHistogram failureDurations) {
+        this.bossId = bossId;
+        this.start = start;
+        this.attempts = attempts;
+        this.victories = victories;
+        this.defeats = defeats;
+        this.timeouts = timeouts;
+        this.logouts = logouts;
+        this.totalDurationMillis = totalDurationMillis;
+        this.victoryDurations = victoryDurations;
+        this.failureDurations = failureDurations;
+    }
+
+    /**
+     * All battles of {@code rollups} as one rollup starting at {@code start}
+     */
+    public static BossRollup sum(String bossId, Instant start, Collection<BossRollup> rollups) {
+        int attempts = 0;
+        int victories = 0;
+        int defeats = 0;
+        int timeouts = 0;
+        int logouts = 0;
+        long totalDuration = 0;
+        LogHistogram victoryDurations = new LogHistogram();
+        LogHistogram failureDurations = new LogHistogram();
+        for (BossRollup rollup : rollups) {
+            attempts += rollup.attempts;
+            victories += rollup.victories;
+            defeats += rollup.defeats;
+            timeouts += rollup.timeouts;
+            logouts += rollup.logouts;
+            totalDuration += rollup.totalDurationMillis;
+            victoryDurations.merge(rollup.victoryDurations);
+            failureDurations.merge(rollup.failureDurations);
+        }
+        return new BossRollup(bossId, start, attempts, victories, defeats, timeouts, logouts,
+                totalDuration, victoryDurations, failureDurations);
+    }
+
+    public String getBossId() {
+        return bossId;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getVictories() {
+        return victories;
+    }
+
+    public int getDefeats() {
+        return defeats;
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    public int getLogouts() {
+        return logouts;
+    }
+
+    public long getTotalDurationMillis() {
+        return totalDurationMillis;
+    }
+
+    /**
+     * Durations of won battles (clear times)
+     */
+    public LogHistogram getVictoryDurations() {
+        return victoryDurations;
+    }
+
+    /**
+     * Durations of defeats and timeouts, i.e. how long players lasted
+     */
+    public LogHistogram getFailureDurations() {
+        return failureDurations;
+    }
+
+    /**
+     * Share of attempts ending with {@code count}, 0-100
+     */
+    public double getRate(int count) {
+        return attempts > 0 ? count * 100.0 / attempts : 0;
+    }
+
+    public double getWinRate() {
+        return getRate(victories);
+    }
+}
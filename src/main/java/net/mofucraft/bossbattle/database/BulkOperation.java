@@ -0,0 +1,76 @@
+package net.mofucraft.bossbattle.database;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Handle for a long-running chunked write such as a bulk reset: chunk settings in,
+ * progress and cancellation out.
+ */
+public class BulkOperation {
+
+    private final String description;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+    private final long progressIntervalMs;
+    private final Consumer<BulkOperation> progressListener;
+    private final AtomicBoolean cancelled;
+    private final AtomicLong processed;
+    private final long startedAt;
+    private volatile long lastReport;
+
+    public BulkOperation(String description, int chunkSize, long chunkPauseMs, long progressIntervalMs,
+                         Consumer<BulkOperation> progressListener) {
+        this.description = description;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunkPauseMs = Math.max(0, chunkPauseMs);
+        this.progressIntervalMs = progressIntervalMs;
+        this.progressListener = progressListener;
+        this.cancelled = new AtomicBoolean();
+        this.processed = new AtomicLong();
+        this.startedAt = System.currentTimeMillis();
+        this.lastReport = startedAt;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - startedAt;
+    }
+
+    /**
+     * Record a finished chunk, report progress if due and sleep for the configured pause
+     */
+    void chunkDone(long rows) throws InterruptedException {
+        processed.addAndGet(rows);
+
+        long now = System.currentTimeMillis();
+        if (progressListener != null && now - lastReport >= progressIntervalMs) {
+            lastReport = now;
+            progressListener.accept(this);
+        }
+
+        if (chunkPauseMs > 0) {
+            Thread.sleep(chunkPauseMs);
+        }
+    }
+}
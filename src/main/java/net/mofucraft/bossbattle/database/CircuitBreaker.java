@@ -0,0 +1,165 @@
+package net.mofucraft.bossbattle.database;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Stops sending queries to a database that keeps failing. After {@code failureThreshold}
+ * transient failures in a row the breaker opens and calls fail immediately instead of each
+ * waiting for the pool's connection timeout. Once {@code openMillis} has passed a single
+ * trial call is let through; its success closes the breaker, its failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final Logger logger;
+
+    // Guarded by this
+    private int failureThreshold;
+    private long openMillis;
+    private State state;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    private final AtomicLong openedTotal;
+    private final AtomicLong rejectedTotal;
+    private volatile String lastError;
+
+    public CircuitBreaker(Logger logger, int failureThreshold, long openMillis) {
+        this.logger = logger;
+        this.state = State.CLOSED;
+        this.openedTotal = new AtomicLong();
+        this.rejectedTotal = new AtomicLong();
+        configure(failureThreshold, openMillis);
+    }
+
+    /**
+     * Change the thresholds in place; the current state and counters are kept
+     */
+    public synchronized void configure(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+    }
+
+    /**
+     * Whether a call may go to the database now. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure(SQLException)}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) {
+                    rejectedTotal.incrementAndGet();
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    rejectedTotal.incrementAndGet();
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * The database answered (errors that are not about its health count as answers too)
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            state = State.CLOSED;
+            logger.info("Database is reachable again, circuit breaker closed");
+        }
+    }
+
+    public synchronized void onFailure(SQLException error) {
+        lastError = error.getMessage();
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            openedTotal.incrementAndGet();
+            logger.warning("Database unavailable (" + lastError + "), failing queries fast for "
+                    + openMillis / 1000 + "s");
+        }
+    }
+
+    /**
+     * Close the breaker by hand, e.g. after the database was brought back
+     */
+    public synchronized void reset() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * True while calls are being rejected without a trial
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.currentTimeMillis() - openedAt < openMillis;
+    }
+
+    /**
+     * Closed with no failure since the last success. Results read while this is false may be
+     * fallbacks for failed queries.
+     */
+    public synchronized boolean isHealthy() {
+        return state == State.CLOSED && consecutiveFailures == 0;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Milliseconds until the next trial call is allowed, 0 unless open
+     */
+    public synchronized long getRemainingOpenMillis() {
+        return state == State.OPEN ? Math.max(0, openMillis - (System.currentTimeMillis() - openedAt)) : 0;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public long getOpenedTotal() {
+        return openedTotal.get();
+    }
+
+    public long getRejectedTotal() {
+        return rejectedTotal.get();
+    }
+
+    public Map<String, Number> getGauges() {
+        Map<String, Number> gauges = new LinkedHashMap<>();
+        // 0 = closed, 1 = half-open, 2 = open
+        State current = getState();
+        gauges.put("db_circuit_state", current == State.CLOSED ? 0 : current == State.HALF_OPEN ? 1 : 2);
+        gauges.put("db_circuit_consecutive_failures", getConsecutiveFailures());
+        gauges.put("db_circuit_opened_total", openedTotal.get());
+        gauges.put("db_circuit_rejected_total", rejectedTotal.get());
+        return gauges;
+    }
+}
@@ -2,63 +2,194 @@ package net.mofucraft.bossbattle.database;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import net.mofucraft.bossbattle.MofuBossBattle;
 import net.mofucraft.bossbattle.config.ConfigManager;
+import net.mofucraft.bossbattle.database.migration.MigrationRunner;
 
+import java.io.File;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class DatabaseManager {
 
-    private final MofuBossBattle plugin;
+    private final Logger logger;
+    private final File dataFolder;
     private final ConfigManager configManager;
-    private HikariDataSource dataSource;
+    private final QueryMetrics metrics;
+    private final CircuitBreaker circuitBreaker;
+    private final RetryPolicy retryPolicy;
+    // Queries wait on the pool and sleep between retries, so they get their own threads rather
+    // than the shared common pool; bulk jobs run one at a time beside them
+    private final ExecutorService queryExecutor;
+    private final ExecutorService bulkExecutor;
+    private StorageBackend backend = StorageBackend.MYSQL;
+    // Written by the startup thread, read by every query
+    private volatile HikariDataSource dataSource;
+    private volatile HikariDataSource replicaDataSource;
+    private volatile boolean closed;
+    private volatile int schemaVersion;
+    private volatile CompletableFuture<Integer> migrations = CompletableFuture.completedFuture(0);
 
     public DatabaseManager(MofuBossBattle plugin, ConfigManager configManager) {
-        this.plugin = plugin;
+        this(plugin.getLogger(), plugin.getDataFolder(), configManager);
+    }
+
+    /**
+     * Without a running plugin, e.g. in tests. {@code dataFolder} holds the embedded database.
+     */
+    public DatabaseManager(Logger logger, File dataFolder, ConfigManager configManager) {
+        this.logger = logger;
+        this.dataFolder = dataFolder;
         this.configManager = configManager;
+        this.metrics = new QueryMetrics(logger);
+        this.circuitBreaker = new CircuitBreaker(logger,
+                configManager.getCircuitBreakerFailureThreshold(),
+                configManager.getCircuitBreakerOpenSeconds() * 1000);
+        this.retryPolicy = new RetryPolicy(configManager.getRetryMaxAttempts(),
+                configManager.getRetryBaseDelayMs(),
+                configManager.getRetryMaxDelayMs());
+        int queryThreads = configManager.getDbPoolSize()
+                + (configManager.isReplicaEnabled() ? configManager.getReplicaPoolSize() : 0);
+        this.queryExecutor = Executors.newFixedThreadPool(Math.max(2, queryThreads), threadFactory("MofuBossBattle-DB"));
+        this.bulkExecutor = Executors.newSingleThreadExecutor(threadFactory("MofuBossBattle-DB-Bulk"));
+    }
+
+    private static ThreadFactory threadFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * {@link #connect()} off the main thread, so server startup does not wait for the database
+     */
+    public CompletableFuture<Boolean> connectAsync() {
+        return CompletableFuture.supplyAsync(this::connect, bulkExecutor);
     }
 
     public boolean connect() {
+        applySettings();
+        backend = configManager.getStorageBackend();
+
+        // A retry after a failed startup replaces the pools of the previous attempt
+        closePools();
+
         try {
-            HikariConfig config = new HikariConfig();
-            config.setJdbcUrl(String.format("jdbc:mysql://%s:%d/%s?useSSL=false&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8",
+            dataSource = createDataSource("MofuBossBattle-Pool",
                     configManager.getDbHost(),
                     configManager.getDbPort(),
-                    configManager.getDbDatabase()));
-            config.setUsername(configManager.getDbUsername());
-            config.setPassword(configManager.getDbPassword());
-            config.setMaximumPoolSize(configManager.getDbPoolSize());
-            config.setMinimumIdle(2);
-            config.setIdleTimeout(300000);
-            config.setConnectionTimeout(10000);
-            config.setMaxLifetime(600000);
-            config.setPoolName("MofuBossBattle-Pool");
-
-            // Performance settings
-            config.addDataSourceProperty("cachePrepStmts", "true");
-            config.addDataSourceProperty("prepStmtCacheSize", "250");
-            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-
-            dataSource = new HikariDataSource(config);
-
-            // Create tables
-            createTables();
-
-            plugin.getLogger().info("Database connection established!");
-            return true;
+                    configManager.getDbDatabase(),
+                    configManager.getDbUsername(),
+                    configManager.getDbPassword(),
+                    configManager.getDbPoolSize(),
+                    false);
+
+            // Shut down while the pool was starting
+            if (closed) {
+                disconnect();
+                return false;
+            }
+
+            // Create/upgrade tables in the background
+            migrations = runMigrations();
+
+            logger.info("Database connection established! (" + backend.getKey() + ")");
         } catch (Exception e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to connect to database", e);
+            logger.log(Level.SEVERE, "Failed to connect to database", e);
             return false;
         }
+
+        // The replica is optional - without it every read simply goes to the primary
+        if (configManager.isReplicaEnabled() && backend.isEmbedded()) {
+            logger.warning("The read replica is ignored with an embedded database");
+        } else if (configManager.isReplicaEnabled()) {
+            try {
+                replicaDataSource = createDataSource("MofuBossBattle-Replica",
+                        configManager.getReplicaHost(),
+                        configManager.getReplicaPort(),
+                        configManager.getReplicaDatabase(),
+                        configManager.getReplicaUsername(),
+                        configManager.getReplicaPassword(),
+                        configManager.getReplicaPoolSize(),
+                        true);
+                logger.info("Read replica connection established!");
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to connect to read replica, reads will use the primary", e);
+            }
+        }
+
+        if (closed) {
+            disconnect();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Apply the settings that take effect without reconnecting: query metrics, retries and
+     * the circuit breaker. Called on connect and by /boss reload.
+     */
+    public void applySettings() {
+        metrics.configure(configManager.isMetricsEnabled(),
+                configManager.getSlowQueryThresholdMs(),
+                configManager.getSlowQueryLogSize(),
+                configManager.isLogSlowQueries());
+        circuitBreaker.configure(configManager.getCircuitBreakerFailureThreshold(),
+                configManager.getCircuitBreakerOpenSeconds() * 1000);
+        retryPolicy.configure(configManager.getRetryMaxAttempts(),
+                configManager.getRetryBaseDelayMs(),
+                configManager.getRetryMaxDelayMs());
+    }
+
+    private HikariDataSource createDataSource(String poolName, String host, int port, String database,
+                                              String username, String password, int poolSize, boolean readOnly) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(backend.getJdbcUrl(host, port, database, dataFolder));
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(Math.min(2, poolSize));
+        config.setIdleTimeout(300000);
+        config.setConnectionTimeout(10000);
+        config.setMaxLifetime(600000);
+        config.setPoolName(poolName);
+        config.setReadOnly(readOnly);
+        backend.configure(config);
+
+        return new HikariDataSource(config);
     }
 
     public void disconnect() {
+        closed = true;
+        closePools();
+        queryExecutor.shutdown();
+        bulkExecutor.shutdown();
+    }
+
+    private void closePools() {
+        if (replicaDataSource != null && !replicaDataSource.isClosed()) {
+            replicaDataSource.close();
+        }
+        replicaDataSource = null;
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
-            plugin.getLogger().info("Database connection closed.");
+            logger.info("Database connection closed.");
         }
     }
 
@@ -69,44 +200,132 @@ public class DatabaseManager {
         return dataSource.getConnection();
     }
 
-    private void createTables() {
-        String createRankingsTable = """
-                CREATE TABLE IF NOT EXISTS boss_rankings (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    player_uuid VARCHAR(36) NOT NULL,
-                    player_name VARCHAR(16) NOT NULL,
-                    boss_id VARCHAR(64) NOT NULL,
-                    clear_time_ms BIGINT NOT NULL,
-                    recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    INDEX idx_boss_time (boss_id, clear_time_ms ASC),
-                    INDEX idx_player_boss (player_uuid, boss_id),
-                    INDEX idx_recorded_at (recorded_at)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                """;
-
-        String createHistoryTable = """
-                CREATE TABLE IF NOT EXISTS battle_history (
-                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
-                    player_uuid VARCHAR(36) NOT NULL,
-                    player_name VARCHAR(16) NOT NULL,
-                    boss_id VARCHAR(64) NOT NULL,
-                    result VARCHAR(16) NOT NULL,
-                    duration_ms BIGINT NOT NULL,
-                    recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                    INDEX idx_player (player_uuid),
-                    INDEX idx_boss (boss_id),
-                    INDEX idx_recorded_at (recorded_at)
-                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
-                """;
-
-        try (Connection conn = getConnection();
-             Statement stmt = conn.createStatement()) {
-            stmt.execute(createRankingsTable);
-            stmt.execute(createHistoryTable);
-            plugin.getLogger().info("Database tables created/verified.");
+    /**
+     * Connection to the read replica. Callers should fall back to {@link #getConnection()} on failure.
+     */
+    public Connection getReadConnection() throws SQLException {
+        if (replicaDataSource == null || replicaDataSource.isClosed()) {
+            throw new SQLException("Read replica is not available");
+        }
+        return replicaDataSource.getConnection();
+    }
+
+    public boolean hasReplica() {
+        return replicaDataSource != null && !replicaDataSource.isClosed();
+    }
+
+    public long getReadYourWritesMillis() {
+        return configManager.getReplicaReadYourWritesMs();
+    }
+
+    /**
+     * Apply pending schema migrations off the main thread so a long index build
+     * does not hold up server startup.
+     */
+    public CompletableFuture<Integer> runMigrations() {
+        return CompletableFuture.supplyAsync(() -> {
+            MigrationRunner runner = new MigrationRunner(logger, backend, backend.getMigrations());
+
+            try (Connection conn = getConnection()) {
+                int version = runner.run(conn,
+                        configManager.isMigrationDryRun(),
+                        configManager.getMigrationChunkSize(),
+                        configManager.getMigrationChunkPauseMs());
+                schemaVersion = version;
+                return version;
+            } catch (SQLException e) {
+                // The caller must not run on a schema this version of the plugin does not expect
+                throw new CompletionException(e);
+            }
+        }, bulkExecutor);
+    }
+
+    /**
+     * Completes with the schema version once the startup migrations have run, or exceptionally
+     * if a migration failed or another server held the migration lock for too long
+     */
+    public CompletableFuture<Integer> whenMigrated() {
+        return migrations;
+    }
+
+    /**
+     * Threads for repository queries and writes, sized to the connection pools
+     */
+    public ExecutorService getQueryExecutor() {
+        return queryExecutor;
+    }
+
+    /**
+     * Single thread for long jobs (migrations, imports, exports, resets and maintenance) so at
+     * most one of them holds a connection and none delay regular queries
+     */
+    public ExecutorService getBulkExecutor() {
+        return bulkExecutor;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public StorageBackend getBackend() {
+        return backend;
+    }
+
+    /**
+     * Cheap row estimate from table statistics (no full scan), or -1 if unavailable
+     */
+    public long estimateTableRows(Connection conn, String table) {
+        try (PreparedStatement stmt = conn.prepareStatement(backend.getRowEstimateSql())) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
         } catch (SQLException e) {
-            plugin.getLogger().log(Level.SEVERE, "Failed to create database tables", e);
+            return -1;
+        }
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public QueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Current Hikari pool gauges keyed by metric name, for the admin command and metrics export.
+     */
+    public Map<String, Number> getPoolGauges() {
+        Map<String, Number> gauges = new LinkedHashMap<>();
+        addPoolGauges(gauges, "primary", dataSource);
+        addPoolGauges(gauges, "replica", replicaDataSource);
+        gauges.put("schema_version", schemaVersion);
+        gauges.putAll(circuitBreaker.getGauges());
+        gauges.put("db_retries_total", retryPolicy.getRetriesTotal());
+        return gauges;
+    }
+
+    private void addPoolGauges(Map<String, Number> gauges, String name, HikariDataSource source) {
+        if (source == null || source.isClosed()) {
+            return;
+        }
+        HikariPoolMXBean pool = source.getHikariPoolMXBean();
+        if (pool == null) {
+            return;
         }
+        gauges.put("pool_active_connections{pool=\"" + name + "\"}", pool.getActiveConnections());
+        gauges.put("pool_idle_connections{pool=\"" + name + "\"}", pool.getIdleConnections());
+        gauges.put("pool_total_connections{pool=\"" + name + "\"}", pool.getTotalConnections());
+        gauges.put("pool_pending_threads{pool=\"" + name + "\"}", pool.getThreadsAwaitingConnection());
     }
 
     public boolean isConnected() {
@@ -0,0 +1,227 @@
+package net.mofucraft.bossbattle.database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves battle_history rows past their retention into battle_history_archive (or just deletes
+ * them), oldest first. Each chunk is copied and deleted in its own short transaction, so the
+ * hot table's indexes shrink without long locks and a stopped run loses nothing.
+ */
+public class HistoryArchiver {
+
+    private static final String COLUMNS = "id, battle_id, player_uuid, player_name, boss_id, result, duration_ms, recorded_at";
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final AtomicBoolean running;
+    private final AtomicBoolean cancelRequested;
+
+    // Stats of the last finished run, plus totals since startup
+    private volatile long lastRunStartedAt;
+    private volatile long lastRunDurationMs;
+    private volatile long lastRunMoved;
+    private volatile Instant lastRunCutoff;
+    private volatile boolean lastRunCancelled;
+    private volatile long totalMoved;
+    private volatile int runs;
+
+    // recorded_at of the newest row moved by the current run
+    private volatile Instant currentRecordedAt;
+
+    public HistoryArchiver(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.running = new AtomicBoolean();
+        this.cancelRequested = new AtomicBoolean();
+    }
+
+    /**
+     * Rows before this instant may go: older than {@code retentionDays} and also before
+     * {@code settledBefore}, the point up to which the rollups will not read the history again.
+     * Null when nothing may be purged yet. Whole hours only, so a rolled up hour is either
+     * untouched or empty, and empty hours are never rolled up again.
+     */
+    public static Instant getCutoff(int retentionDays, Instant settledBefore) {
+        if (retentionDays <= 0 || settledBefore == null) {
+            return null;
+        }
+        Instant retained = Instant.now().minus(retentionDays, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        return retained.isBefore(settledBefore) ? retained : settledBefore;
+    }
+
+    /**
+     * Run one pass on the calling thread, stopping at {@code deadline} (epoch millis). Rows are
+     * copied to the archive table first when {@code archive} is set. Returns the number of rows
+     * removed from battle_history, or -1 if a pass is already running.
+     */
+    public long archive(Instant cutoff, boolean archive, int chunkSize, long chunkPauseMs, long deadline) {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        cancelRequested.set(false);
+        long startedAt = System.currentTimeMillis();
+        long moved = 0;
+        chunkSize = Math.max(1, chunkSize);
+
+        // Walks idx_recorded_at, whose entries end with the primary key
+        String selectSql = """
+                SELECT id, recorded_at FROM battle_history
+                WHERE recorded_at < ?
+                ORDER BY recorded_at, id
+                LIMIT ?
+                """;
+
+        try (Connection conn = databaseManager.getConnection();
+             PreparedStatement selectStmt = conn.prepareStatement(selectSql)) {
+            while (true) {
+                if (cancelRequested.get()) {
+                    logger.info("History archival cancelled at " + currentRecordedAt);
+                    break;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    logger.info("History archival paused at " + currentRecordedAt + " until the next low-load window");
+                    break;
+                }
+
+                long chunkStart = System.nanoTime();
+                List<Long> ids = new ArrayList<>();
+                Timestamp newest = null;
+                selectStmt.setTimestamp(1, Timestamp.from(cutoff));
+                selectStmt.setInt(2, chunkSize);
+                try (ResultSet rs = selectStmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getLong(1));
+                        newest = rs.getTimestamp(2);
+                    }
+                }
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                int chunkMoved = moveIds(conn, ids, archive);
+                moved += chunkMoved;
+                currentRecordedAt = newest != null ? newest.toInstant() : null;
+                databaseManager.getMetrics().record("archiveHistory", System.nanoTime() - chunkStart,
+                        chunkMoved, true, new Object[]{cutoff, chunkSize});
+
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                if (chunkPauseMs > 0) {
+                    Thread.sleep(chunkPauseMs);
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "History archival failed after moving " + moved + " rows", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lastRunStartedAt = startedAt;
+            lastRunDurationMs = System.currentTimeMillis() - startedAt;
+            lastRunMoved = moved;
+            lastRunCutoff = cutoff;
+            lastRunCancelled = cancelRequested.get();
+            totalMoved += moved;
+            runs++;
+            currentRecordedAt = null;
+            running.set(false);
+        }
+
+        if (moved > 0) {
+            logger.info((archive ? "Archived " : "Purged ") + moved + " history rows before " + cutoff
+                    + " in " + lastRunDurationMs + "ms");
+        }
+        return moved;
+    }
+
+    public void cancel() {
+        cancelRequested.set(true);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * recorded_at reached by the running pass, or null
+     */
+    public Instant getCurrentRecordedAt() {
+        return currentRecordedAt;
+    }
+
+    public long getLastRunStartedAt() {
+        return lastRunStartedAt;
+    }
+
+    public long getLastRunDurationMs() {
+        return lastRunDurationMs;
+    }
+
+    public long getLastRunMoved() {
+        return lastRunMoved;
+    }
+
+    public Instant getLastRunCutoff() {
+        return lastRunCutoff;
+    }
+
+    public boolean isLastRunCancelled() {
+        return lastRunCancelled;
+    }
+
+    public long getTotalMoved() {
+        return totalMoved;
+    }
+
+    public int getRuns() {
+        return runs;
+    }
+
+    // Copy and delete in one transaction so a row is never in both tables or neither
+    private int moveIds(Connection conn, List<Long> ids, boolean archive) throws SQLException {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        String copySql = "INSERT IGNORE INTO battle_history_archive (" + COLUMNS + ") SELECT " + COLUMNS
+                + " FROM battle_history WHERE id IN (" + placeholders + ")";
+        String deleteSql = "DELETE FROM battle_history WHERE id IN (" + placeholders + ")";
+
+        conn.setAutoCommit(false);
+        try {
+            if (archive) {
+                try (PreparedStatement stmt = conn.prepareStatement(copySql)) {
+                    for (int i = 0; i < ids.size(); i++) {
+                        stmt.setLong(i + 1, ids.get(i));
+                    }
+                    stmt.executeUpdate();
+                }
+            }
+
+            int deleted;
+            try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    stmt.setLong(i + 1, ids.get(i));
+                }
+                deleted = stmt.executeUpdate();
+            }
+            conn.commit();
+            return deleted;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.mofucraft.bossbattle.database;
+
+import java.time.LocalDateTime;
+
+/**
+ * One battle_history row, newest first. {@code position} counts from the player's most recent
+ * battle (1) and is only meaningful within the listing it was read for.
+ */
+public class HistoryEntry {
+
+    private final int position;
+    private final long id;
+    private final String bossId;
+    private final String result;
+    private final long durationMillis;
+    private final LocalDateTime recordedAt;
+
+    public HistoryEntry(int position, long id, String bossId, String result, long durationMillis, LocalDateTime recordedAt) {
+        this.position = position;
+        this.id = id;
+        this.bossId = bossId;
+        this.result = result;
+        this.durationMillis = durationMillis;
+        this.recordedAt = recordedAt;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getBossId() {
+        return bossId;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+}
@@ -0,0 +1,329 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.util.LogHistogram;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rolls battle_history up into hourly per-boss aggregates. Each pass continues from the
+ * recorded_at watermark of the last one and rewrites whole hours, so running an hour again
+ * (e.g. after an outbox replay filed a late result under it) gives the same rows. The
+ * history is only read one hour at a time through its recorded_at index.
+ */
+public class HistoryRollup {
+
+    private static final String WATERMARK_NAME = "battle_history_hourly";
+
+    private static final String UPSERT_ROLLUP_SQL = """
+            INSERT INTO boss_hourly_rollups (boss_id, hour_start, attempts, victories, defeats, timeouts, logouts,
+                total_duration_ms, victory_sketch, failure_sketch)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                attempts = VALUES(attempts),
+                victories = VALUES(victories),
+                defeats = VALUES(defeats),
+                timeouts = VALUES(timeouts),
+                logouts = VALUES(logouts),
+                total_duration_ms = VALUES(total_duration_ms),
+                victory_sketch = VALUES(victory_sketch),
+                failure_sketch = VALUES(failure_sketch)
+            """;
+
+    private static final String UPSERT_WATERMARK_SQL = """
+            INSERT INTO rollup_watermarks (name, watermark)
+            VALUES (?, ?)
+            ON DUPLICATE KEY UPDATE watermark = VALUES(watermark)
+            """;
+
+    private final DatabaseManager databaseManager;
+    private final Logger logger;
+    private final AtomicBoolean running;
+
+    private volatile Instant watermark;
+    private volatile long lastRunStartedAt;
+    private volatile long lastRunDurationMs;
+    private volatile int lastRunHours;
+
+    public HistoryRollup(DatabaseManager databaseManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.logger = logger;
+        this.running = new AtomicBoolean();
+    }
+
+    /**
+     * Roll up every complete hour older than {@code lagMinutes}, starting {@code reprocessHours}
+     * before the watermark so results filed late under a recent hour are picked up. Runs on the
+     * calling thread; returns the number of hours written, or -1 if a pass is already running.
+     */
+    public int run(long lagMinutes, int reprocessHours) {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        int hours = 0;
+        Instant until = Instant.now().minus(Math.max(0, lagMinutes), ChronoUnit.MINUTES).truncatedTo(ChronoUnit.HOURS);
+
+        try (Connection conn = databaseManager.getConnection()) {
+            Instant stored = loadWatermark(conn);
+            Instant hour = stored != null
+                    ? stored.minus(Math.max(0, reprocessHours), ChronoUnit.HOURS)
+                    : nextRecordedHour(conn, Instant.EPOCH, until);
+
+            while (hour != null && hour.isBefore(until)) {
+                Instant next = hour.plus(1, ChronoUnit.HOURS);
+                Map<String, HourAccumulator> bosses = readHour(conn, hour, next);
+
+                conn.setAutoCommit(false);
+                try {
+                    writeHour(conn, hour, bosses);
+                    if (stored == null || next.isAfter(stored)) {
+                        saveWatermark(conn, next);
+                        stored = next;
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+                watermark = stored;
+                if (!bosses.isEmpty()) {
+                    hours++;
+                }
+
+                // Skip stretches without battles instead of querying every empty hour
+                hour = nextRecordedHour(conn, next, until);
+            }
+
+            // Nothing left before the cutoff: everything up to it is rolled up
+            if (stored == null || until.isAfter(stored)) {
+                saveWatermark(conn, until);
+                watermark = until;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Battle history rollup failed after " + hours + " hour(s)", e);
+        } finally {
+            lastRunStartedAt = startedAt;
+            lastRunDurationMs = System.currentTimeMillis() - startedAt;
+            lastRunHours = hours;
+            running.set(false);
+        }
+
+        return hours;
+    }
+
+    /**
+     * Hourly rollups of a boss from {@code from} (inclusive) to {@code to} (exclusive), oldest first
+     */
+    public CompletableFuture<List<BossRollup>> getRollups(String bossId, Instant from, Instant to) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = """
+                    SELECT hour_start, attempts, victories, defeats, timeouts, logouts,
+                        total_duration_ms, victory_sketch, failure_sketch
+                    FROM boss_hourly_rollups
+                    WHERE boss_id = ? AND hour_start >= ? AND hour_start < ?
+                    ORDER BY hour_start
+                    """;
+            List<BossRollup> rollups = new ArrayList<>();
+
+            long start = System.nanoTime();
+            try (Connection conn = databaseManager.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, bossId);
+                stmt.setObject(2, toUtc(from));
+                stmt.setObject(3, toUtc(to));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        rollups.add(new BossRollup(
+                                bossId,
+                                rs.getObject("hour_start", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+                                rs.getInt("attempts"),
+                                rs.getInt("victories"),
+                                rs.getInt("defeats"),
+                                rs.getInt("timeouts"),
+                                rs.getInt("logouts"),
+                                rs.getLong("total_duration_ms"),
+                                LogHistogram.fromBytes(rs.getBytes("victory_sketch")),
+                                LogHistogram.fromBytes(rs.getBytes("failure_sketch"))));
+                    }
+                }
+                databaseManager.getMetrics().record("getRollups", System.nanoTime() - start,
+                        rollups.size(), true, new Object[]{bossId, from, to});
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to read rollups of " + bossId, e);
+            }
+            return rollups;
+        }, databaseManager.getQueryExecutor());
+    }
+
+    /**
+     * Start of the first hour not rolled up yet, or null before the first pass
+     */
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * History before this instant is never read again by a pass run with {@code reprocessHours},
+     * so it can be purged without changing the rollups. Null before the first pass.
+     */
+    public Instant getSettledBefore(int reprocessHours) {
+        Instant current = watermark;
+        return current != null ? current.minus(Math.max(0, reprocessHours), ChronoUnit.HOURS) : null;
+    }
+
+    /**
+     * Read the stored watermark, also refreshing {@link #getWatermark()}
+     */
+    public CompletableFuture<Instant> loadWatermark() {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = databaseManager.getConnection()) {
+                watermark = loadWatermark(conn);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to read the rollup watermark", e);
+            }
+            return watermark;
+        }, databaseManager.getQueryExecutor());
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public long getLastRunStartedAt() {
+        return lastRunStartedAt;
+    }
+
+    public long getLastRunDurationMs() {
+        return lastRunDurationMs;
+    }
+
+    public int getLastRunHours() {
+        return lastRunHours;
+    }
+
+    private Map<String, HourAccumulator> readHour(Connection conn, Instant hour, Instant next) throws SQLException {
+        String sql = """
+                SELECT boss_id, result, duration_ms
+                FROM battle_history
+                WHERE recorded_at >= ? AND recorded_at < ?
+                """;
+        Map<String, HourAccumulator> bosses = new HashMap<>();
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(hour));
+            stmt.setTimestamp(2, Timestamp.from(next));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bosses.computeIfAbsent(rs.getString("boss_id"), id -> new HourAccumulator())
+                            .add(rs.getString("result"), rs.getLong("duration_ms"));
+                }
+            }
+        }
+        return bosses;
+    }
+
+    private void writeHour(Connection conn, Instant hour, Map<String, HourAccumulator> bosses) throws SQLException {
+        if (bosses.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_ROLLUP_SQL)) {
+            for (Map.Entry<String, HourAccumulator> entry : bosses.entrySet()) {
+                HourAccumulator totals = entry.getValue();
+                stmt.setString(1, entry.getKey());
+                stmt.setObject(2, toUtc(hour));
+                stmt.setInt(3, totals.attempts);
+                stmt.setInt(4, totals.victories);
+                stmt.setInt(5, totals.defeats);
+                stmt.setInt(6, totals.timeouts);
+                stmt.setInt(7, totals.logouts);
+                stmt.setLong(8, totals.totalDuration);
+                stmt.setBytes(9, totals.victoryDurations.toBytes());
+                stmt.setBytes(10, totals.failureDurations.toBytes());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    // Start of the first hour at or after from (and before until) holding a battle, or null
+    private Instant nextRecordedHour(Connection conn, Instant from, Instant until) throws SQLException {
+        String sql = "SELECT MIN(recorded_at) FROM battle_history WHERE recorded_at >= ? AND recorded_at < ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(from));
+            stmt.setTimestamp(2, Timestamp.from(until));
+            try (ResultSet rs = stmt.executeQuery()) {
+                Timestamp first = rs.next() ? rs.getTimestamp(1) : null;
+                return first != null ? first.toInstant().truncatedTo(ChronoUnit.HOURS) : null;
+            }
+        }
+    }
+
+    private Instant loadWatermark(Connection conn) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT watermark FROM rollup_watermarks WHERE name = ?")) {
+            stmt.setString(1, WATERMARK_NAME);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getObject(1, LocalDateTime.class).toInstant(ZoneOffset.UTC) : null;
+            }
+        }
+    }
+
+    private void saveWatermark(Connection conn, Instant value) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_WATERMARK_SQL)) {
+            stmt.setString(1, WATERMARK_NAME);
+            stmt.setObject(2, toUtc(value));
+            stmt.executeUpdate();
+        }
+    }
+
+    private static LocalDateTime toUtc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private static class HourAccumulator {
+        int attempts;
+        int victories;
+        int defeats;
+        int timeouts;
+        int logouts;
+        long totalDuration;
+        final LogHistogram victoryDurations = new LogHistogram();
+        final LogHistogram failureDurations = new LogHistogram();
+
+        void add(String result, long durationMs) {
+            attempts++;
+            totalDuration += durationMs;
+            if (PlayerBossStats.isVictory(result)) {
+                victories++;
+                victoryDurations.record(durationMs);
+            } else if ("DEFEAT".equals(result)) {
+                defeats++;
+                failureDurations.record(durationMs);
+            } else if ("TIMEOUT".equals(result)) {
+                timeouts++;
+                failureDurations.record(durationMs);
+            } else if ("LOGOUT".equals(result)) {
+                logouts++;
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.mofucraft.bossbattle.database;
+
+import java.util.UUID;
+
+/**
+ * A player name resolved to its UUID, with the name spelled as the player last used it
+ */
+public class KnownPlayer {
+
+    private final UUID playerId;
+    private final String name;
+
+    public KnownPlayer(UUID playerId, String name) {
+        this.playerId = playerId;
+        this.name = name;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,120 @@
+package net.mofucraft.bossbattle.database;
+
+import java.util.UUID;
+
+/**
+ * Battle counters of one player against one boss, kept in {@code player_boss_stats} and
+ * incremented with every history row so they never have to be counted from the history.
+ */
+public class PlayerBossStats {
+
+    private final UUID playerId;
+    private final String bossId;
+    private final int attempts;
+    private final int victories;
+    private final int defeats;
+    private final int timeouts;
+    private final int logouts;
+    private final long totalDurationMillis;
+    private final long victoryDurationMillis;
+
+    public PlayerBossStats(UUID playerId, String bossId, int attempts, int victories, int defeats, int timeouts,
+                           int logouts, long totalDurationMillis, long victoryDurationMillis) {
+        this.playerId = playerId;
+        this.bossId = bossId;
+        this.attempts = attempts;
+        this.victories = victories;
+        this.defeats = defeats;
+        this.timeouts = timeouts;
+        this.logouts = logouts;
+        this.totalDurationMillis = totalDurationMillis;
+        this.victoryDurationMillis = victoryDurationMillis;
+    }
+
+    public static PlayerBossStats empty(UUID playerId, String bossId) {
+        return new PlayerBossStats(playerId, bossId, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Whether a history result counts as a win (survival battles are won by lasting the time limit)
+     */
+    public static boolean isVictory(String result) {
+        return "VICTORY".equals(result) || "SURVIVAL".equals(result);
+    }
+
+    /**
+     * These counters with one more battle added
+     */
+    public PlayerBossStats withBattle(String result, long durationMillis) {
+        boolean victory = isVictory(result);
+        return new PlayerBossStats(playerId, bossId,
+                attempts + 1,
+                victories + (victory ? 1 : 0),
+                defeats + ("DEFEAT".equals(result) ? 1 : 0),
+                timeouts + ("TIMEOUT".equals(result) ? 1 : 0),
+                logouts + ("LOGOUT".equals(result) ? 1 : 0),
+                totalDurationMillis + durationMillis,
+                victoryDurationMillis + (victory ? durationMillis : 0));
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getBossId() {
+        return bossId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getVictories() {
+        return victories;
+    }
+
+    public int getDefeats() {
+        return defeats;
+    }
+
+    public int getTimeouts() {
+        return timeouts;
+    }
+
+    public int getLogouts() {
+        return logouts;
+    }
+
+    public long getTotalDurationMillis() {
+        return totalDurationMillis;
+    }
+
+    public long getVictoryDurationMillis() {
+        return victoryDurationMillis;
+    }
+
+    /**
+     * Share of attempts won, 0-100
+     */
+    public double getWinRate() {
+        return attempts > 0 ? victories * 100.0 / attempts : 0;
+    }
+
+    /**
+     * Average length of all battles, or -1 without any
+     */
+    public long getAverageDurationMillis() {
+        return attempts > 0 ? totalDurationMillis / attempts : -1;
+    }
+
+    /**
+     * Average length of won battles, or -1 without a win
+     */
+    public long getAverageClearTimeMillis() {
+        return victories > 0 ? victoryDurationMillis / victories : -1;
+    }
+
+    public boolean hasAttempts() {
+        return attempts > 0;
+    }
+}
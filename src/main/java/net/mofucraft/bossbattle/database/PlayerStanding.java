@@ -0,0 +1,67 @@
+package net.mofucraft.bossbattle.database;
+
+import java.util.UUID;
+
+public class PlayerStanding {
+
+    private final UUID playerId;
+    private final String bossId;
+    private final int rank;
+    private final long bestTimeMillis;
+    private final int totalRanked;
+    private final long nextRankTimeMillis;
+
+    public PlayerStanding(UUID playerId, String bossId, int rank, long bestTimeMillis, int totalRanked, long nextRankTimeMillis) {
+        this.playerId = playerId;
+        this.bossId = bossId;
+        this.rank = rank;
+        this.bestTimeMillis = bestTimeMillis;
+        this.totalRanked = totalRanked;
+        this.nextRankTimeMillis = nextRankTimeMillis;
+    }
+
+    public static PlayerStanding unranked(UUID playerId, String bossId) {
+        return new PlayerStanding(playerId, bossId, -1, -1, 0, -1);
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getBossId() {
+        return bossId;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public long getBestTimeMillis() {
+        return bestTimeMillis;
+    }
+
+    public int getTotalRanked() {
+        return totalRanked;
+    }
+
+    /**
+     * Best time of the closest player ranked above, or -1 when already first
+     */
+    public long getNextRankTimeMillis() {
+        return nextRankTimeMillis;
+    }
+
+    /**
+     * How much faster the player has to clear to move up one rank, or -1 when already first
+     */
+    public long getGapToNextRankMillis() {
+        if (!isRanked() || nextRankTimeMillis < 0) {
+            return -1;
+        }
+        return bestTimeMillis - nextRankTimeMillis;
+    }
+
+    public boolean isRanked() {
+        return rank > 0 && bestTimeMillis >= 0;
+    }
+}
@@ -0,0 +1,207 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.util.LogHistogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Per-operation latency, connection-acquire wait and row counts for repository calls,
+ * plus a bounded log of slow queries with their bound parameters.
+ */
+public class QueryMetrics {
+
+    private final Logger logger;
+    private final Map<String, OperationStats> operations;
+    private final Deque<SlowQuery> slowQueries;
+
+    private volatile boolean enabled = true;
+    private volatile long slowQueryThresholdMs = 200;
+    private volatile int slowQueryLogSize = 50;
+    private volatile boolean logSlowQueries = true;
+
+    public QueryMetrics(Logger logger) {
+        this.logger = logger;
+        this.operations = new ConcurrentHashMap<>();
+        this.slowQueries = new ArrayDeque<>();
+    }
+
+    public void configure(boolean enabled, long slowQueryThresholdMs, int slowQueryLogSize, boolean logSlowQueries) {
+        this.enabled = enabled;
+        this.slowQueryThresholdMs = slowQueryThresholdMs;
+        this.slowQueryLogSize = Math.max(0, slowQueryLogSize);
+        this.logSlowQueries = logSlowQueries;
+    }
+
+    public void recordAcquire(String operation, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        getStats(operation).acquireMicros.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public void record(String operation, long nanos, long rows, boolean success, Object[] params) {
+        if (!enabled) {
+            return;
+        }
+
+        OperationStats stats = getStats(operation);
+        stats.latencyMicros.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        stats.calls.incrementAndGet();
+        stats.rows.addAndGet(rows);
+        if (!success) {
+            stats.errors.incrementAndGet();
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (slowQueryThresholdMs >= 0 && elapsedMs >= slowQueryThresholdMs) {
+            SlowQuery slowQuery = new SlowQuery(LocalDateTime.now(), operation, elapsedMs, rows, success, Arrays.deepToString(params));
+            synchronized (slowQueries) {
+                slowQueries.addFirst(slowQuery);
+                while (slowQueries.size() > slowQueryLogSize) {
+                    slowQueries.removeLast();
+                }
+            }
+            if (logSlowQueries) {
+                logger.warning("Slow query: " + operation + " took " + elapsedMs + "ms params=" + slowQuery.getParams());
+            }
+        }
+    }
+
+    /**
+     * Stats per operation, sorted by name
+     */
+    public Map<String, OperationStats> getOperations() {
+        return new TreeMap<>(operations);
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void reset() {
+        operations.clear();
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Write all counters in Prometheus text format, together with any extra gauges
+     */
+    public void exportTo(File file, Map<String, Number> gauges) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Number> gauge : new TreeMap<>(gauges).entrySet()) {
+                out.printf("mofubossbattle_%s %s%n", gauge.getKey(), gauge.getValue());
+            }
+            for (Map.Entry<String, OperationStats> entry : getOperations().entrySet()) {
+                String op = entry.getKey();
+                OperationStats stats = entry.getValue();
+                out.printf("mofubossbattle_query_calls_total{operation=\"%s\"} %d%n", op, stats.getCalls());
+                out.printf("mofubossbattle_query_errors_total{operation=\"%s\"} %d%n", op, stats.getErrors());
+                out.printf("mofubossbattle_query_rows_total{operation=\"%s\"} %d%n", op, stats.getRows());
+                for (double q : new double[]{50, 95, 99}) {
+                    out.printf("mofubossbattle_query_latency_us{operation=\"%s\",quantile=\"%.2f\"} %d%n",
+                            op, q / 100, stats.getLatencyMicros().getPercentile(q));
+                    out.printf("mofubossbattle_query_acquire_us{operation=\"%s\",quantile=\"%.2f\"} %d%n",
+                            op, q / 100, stats.getAcquireMicros().getPercentile(q));
+                }
+            }
+        }
+    }
+
+    private OperationStats getStats(String operation) {
+        return operations.computeIfAbsent(operation, k -> new OperationStats());
+    }
+
+    public static class OperationStats {
+        private final LogHistogram latencyMicros = new LogHistogram();
+        private final LogHistogram acquireMicros = new LogHistogram();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong rows = new AtomicLong();
+
+        public LogHistogram getLatencyMicros() {
+            return latencyMicros;
+        }
+
+        public LogHistogram getAcquireMicros() {
+            return acquireMicros;
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        public long getRows() {
+            return rows.get();
+        }
+    }
+
+    public static class SlowQuery {
+        private final LocalDateTime timestamp;
+        private final String operation;
+        private final long elapsedMs;
+        private final long rows;
+        private final boolean success;
+        private final String params;
+
+        public SlowQuery(LocalDateTime timestamp, String operation, long elapsedMs, long rows, boolean success, String params) {
+            this.timestamp = timestamp;
+            this.operation = operation;
+            this.elapsedMs = elapsedMs;
+            this.rows = rows;
+            this.success = success;
+            this.params = params;
+        }
+
+        public LocalDateTime getTimestamp() {
+            return timestamp;
+        }
+
+        public String getOperation() {
+            return operation;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getParams() {
+            return params;
+        }
+    }
+}
@@ -5,15 +5,19 @@ import java.util.UUID;
 
 public class RankingEntry {
 
+    // Ties share a rank; the position is the entry's unique place in leaderboard order
     private final int rank;
+    private final int position;
     private final UUID playerId;
     private final String playerName;
     private final String bossId;
     private final long clearTimeMillis;
     private final LocalDateTime recordedAt;
 
-    public RankingEntry(int rank, UUID playerId, String playerName, String bossId, long clearTimeMillis, LocalDateTime recordedAt) {
+    public RankingEntry(int rank, int position, UUID playerId, String playerName, String bossId, long clearTimeMillis,
+                        LocalDateTime recordedAt) {
         this.rank = rank;
+        this.position = position;
         this.playerId = playerId;
         this.playerName = playerName;
         this.bossId = bossId;
@@ -25,6 +29,10 @@ public class RankingEntry {
         return rank;
     }
 
+    public int getPosition() {
+        return position;
+    }
+
     public UUID getPlayerId() {
         return playerId;
     }
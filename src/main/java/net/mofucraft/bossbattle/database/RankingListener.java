@@ -0,0 +1,29 @@
+package net.mofucraft.bossbattle.database;
+
+import java.util.UUID;
+
+/**
+ * Notified by {@link RankingStore} after ranking data has been committed.
+ * Callbacks run on the database thread that performed the write.
+ */
+public interface RankingListener {
+
+    /**
+     * @param previousBestMs the player's best time before this record, or -1 if they had none
+     */
+    default void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+    }
+
+    /**
+     * A battle of any outcome was added to the history
+     */
+    default void onBattleRecorded(UUID playerId, String bossId, String result, long durationMs) {
+    }
+
+    /**
+     * @param bossId   the boss that was reset, or null for every boss
+     * @param playerId the player that was reset, or null for every player
+     */
+    default void onRankingsReset(String bossId, UUID playerId) {
+    }
+}
@@ -0,0 +1,60 @@
+package net.mofucraft.bossbattle.database;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Time-boxed leaderboards. Each period's bests are kept as their own rows in
+ * boss_period_bests, keyed by the date the period started.
+ */
+public enum RankingPeriod {
+
+    DAILY("daily") {
+        @Override
+        public LocalDate getStart(LocalDate date, DayOfWeek weekStart) {
+            return date;
+        }
+    },
+
+    WEEKLY("weekly") {
+        @Override
+        public LocalDate getStart(LocalDate date, DayOfWeek weekStart) {
+            return date.with(TemporalAdjusters.previousOrSame(weekStart));
+        }
+    },
+
+    MONTHLY("monthly") {
+        @Override
+        public LocalDate getStart(LocalDate date, DayOfWeek weekStart) {
+            return date.withDayOfMonth(1);
+        }
+    };
+
+    private final String key;
+
+    RankingPeriod(String key) {
+        this.key = key;
+    }
+
+    public static RankingPeriod fromKey(String key) {
+        for (RankingPeriod period : values()) {
+            if (period.key.equalsIgnoreCase(key)) {
+                return period;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Name stored in the period_type column and used in commands and placeholders
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * First day of the period containing {@code date}
+     */
+    public abstract LocalDate getStart(LocalDate date, DayOfWeek weekStart);
+}
@@ -1,227 +1,1382 @@
 package net.mofucraft.bossbattle.database;
 
-import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.migration.MigrationContext;
+import net.mofucraft.bossbattle.database.outbox.DrainReport;
+import net.mofucraft.bossbattle.database.outbox.OutboxEntry;
+import net.mofucraft.bossbattle.database.outbox.OutboxJournal;
+import net.mofucraft.bossbattle.database.outbox.PendingWrites;
+import net.mofucraft.bossbattle.util.LogHistogram;
 
 import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 
-public class RankingRepository {
+/**
+ * JDBC ranking store. The same SQL runs on MySQL and on the embedded H2 database (in its
+ * MySQL mode); only season archiving needs MySQL's atomic RENAME TABLE.
+ */
+public class RankingRepository implements RankingStore {
+
+    // best_time_ms must be assigned last: MySQL evaluates the assignments left to right
+    private static final String UPSERT_PERSONAL_BEST_SQL = """
+            INSERT INTO boss_personal_bests (boss_id, player_uuid, player_name, best_time_ms, recorded_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                player_name = VALUES(player_name),
+                recorded_at = CASE WHEN VALUES(best_time_ms) < best_time_ms THEN VALUES(recorded_at) ELSE recorded_at END,
+                best_time_ms = LEAST(best_time_ms, VALUES(best_time_ms))
+            """;
+
+    private static final String UPSERT_PERIOD_BEST_SQL = """
+            INSERT INTO boss_period_bests (period_type, period_start, boss_id, player_uuid, player_name, best_time_ms, recorded_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                player_name = VALUES(player_name),
+                recorded_at = CASE WHEN VALUES(best_time_ms) < best_time_ms THEN VALUES(recorded_at) ELSE recorded_at END,
+                best_time_ms = LEAST(best_time_ms, VALUES(best_time_ms))
+            """;
+
+    private static final String UPSERT_PLAYER_STATS_SQL = """
+            INSERT INTO player_boss_stats (player_uuid, boss_id, player_name, attempts, victories, defeats,
+                timeouts, logouts, total_duration_ms, victory_duration_ms)
+            VALUES (?, ?, ?, 1, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                player_name = VALUES(player_name),
+                attempts = attempts + 1,
+                victories = victories + VALUES(victories),
+                defeats = defeats + VALUES(defeats),
+                timeouts = timeouts + VALUES(timeouts),
+                logouts = logouts + VALUES(logouts),
+                total_duration_ms = total_duration_ms + VALUES(total_duration_ms),
+                victory_duration_ms = victory_duration_ms + VALUES(victory_duration_ms)
+            """;
+
+    // Creates player_boss_stats and backfills it from the history up to a fixed id
+    private static final int PLAYER_STATS_SCHEMA_VERSION = 7;
+
+    // Rows per round trip when a whole table is loaded from a backend that fetches in batches
+    private static final int LOAD_FETCH_SIZE = 1000;
+
+    // Returned by the record transaction when the battle id was already stored
+    private static final long ALREADY_STORED = Long.MIN_VALUE;
+
+    private static final String PERIOD_SCOPE = "period_type = ? AND period_start = ? AND ";
 
     private final DatabaseManager databaseManager;
+    private final Logger logger;
+    // Queries and writes; resets and season archives use the bulk executor instead
+    private final Executor executor;
+
+    // Last write time per player/boss, used for read-your-writes routing when a replica is configured
+    private final Map<UUID, Long> recentPlayerWrites;
+    private final Map<String, Long> recentBossWrites;
+    private volatile long lastBulkWrite;
+
+    // Highest history id the stats backfill covers, -1 until known
+    private volatile long statsBoundary = -1;
+    private final List<RankingListener> listeners;
+    private final Set<String> knownSeasons;
+    private volatile ZoneId periodZone;
+    private volatile DayOfWeek periodWeekStart;
+    private final PendingWrites pendingWrites;
+    private volatile long writeTimeoutMillis;
 
     public RankingRepository(DatabaseManager databaseManager) {
         this.databaseManager = databaseManager;
+        this.logger = databaseManager.getLogger();
+        this.executor = databaseManager.getQueryExecutor();
+        this.recentPlayerWrites = new ConcurrentHashMap<>();
+        this.recentBossWrites = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.knownSeasons = ConcurrentHashMap.newKeySet();
+        this.periodZone = ZoneId.systemDefault();
+        this.periodWeekStart = DayOfWeek.MONDAY;
+        this.pendingWrites = new PendingWrites(logger);
     }
 
-    public CompletableFuture<Void> saveRecord(UUID playerId, String playerName, String bossId, long clearTimeMs) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = "INSERT INTO boss_rankings (player_uuid, player_name, boss_id, clear_time_ms) VALUES (?, ?, ?, ?)";
+    @Override
+    public void addListener(RankingListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void setOutbox(OutboxJournal outbox, long writeTimeoutMillis) {
+        pendingWrites.setJournal(outbox);
+        this.writeTimeoutMillis = writeTimeoutMillis;
+    }
+
+    @Override
+    public CompletableFuture<Void> recordBattleResult(UUID battleId, UUID playerId, String playerName, String bossId,
+                                                      String result, long clearTimeMs) {
+        return submit(OutboxEntry.result(battleId, playerId, playerName, bossId, result, clearTimeMs, System.currentTimeMillis()));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveBattleHistory(UUID battleId, UUID playerId, String playerName, String bossId,
+                                                     String result, long durationMs) {
+        return submit(OutboxEntry.history(battleId, playerId, playerName, bossId, result, durationMs, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void replay(OutboxEntry entry) throws SQLException {
+        apply(entry);
+    }
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, playerName);
-                stmt.setString(3, bossId);
-                stmt.setLong(4, clearTimeMs);
-                stmt.executeUpdate();
+    // The future completes once the result is in the database or, failing that, in the outbox.
+    // A write that times out may still commit later; the battle id makes the replay a no-op then.
+    private CompletableFuture<Void> submit(OutboxEntry entry) {
+        CompletableFuture<Void> write = CompletableFuture.runAsync(() -> {
+            try {
+                apply(entry);
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to save ranking record", e);
+                throw new CompletionException(e);
             }
-        });
+        }, executor);
+        if (writeTimeoutMillis > 0) {
+            write.orTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+
+        return pendingWrites.track(entry, write);
     }
 
-    public CompletableFuture<Void> saveBattleHistory(UUID playerId, String playerName, String bossId, String result, long durationMs) {
-        return CompletableFuture.runAsync(() -> {
-            String sql = "INSERT INTO battle_history (player_uuid, player_name, boss_id, result, duration_ms) VALUES (?, ?, ?, ?, ?)";
+    @Override
+    public DrainReport drain(long timeoutMillis) {
+        return pendingWrites.drain(timeoutMillis);
+    }
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, playerName);
-                stmt.setString(3, bossId);
-                stmt.setString(4, result);
-                stmt.setLong(5, durationMs);
-                stmt.executeUpdate();
-            } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to save battle history", e);
+    private void apply(OutboxEntry entry) throws SQLException {
+        switch (entry.getType()) {
+            case RESULT -> applyResult(entry);
+            case RECORD -> applyRecord(entry);
+            case HISTORY -> applyHistory(entry);
+        }
+    }
+
+    // Ranking record, history row and stats share one connection and one transaction
+    private void applyResult(OutboxEntry entry) throws SQLException {
+        long previousBest = write("recordBattleResult", params(entry.getBattleId(), entry.getPlayerId(), entry.getBossId(),
+                entry.getResult(), entry.getTimeMillis()), conn -> inTransaction(conn, () -> {
+            long previous = insertRecord(conn, entry);
+            insertHistory(conn, entry);
+            return previous;
+        }));
+        recordSaved(entry, previousBest);
+        // Both rows carry the battle id, so they were either both stored now or both before
+        if (previousBest != ALREADY_STORED) {
+            battleRecorded(entry);
+        }
+    }
+
+    // Ranking records journaled before results were written as one transaction
+    private void applyRecord(OutboxEntry entry) throws SQLException {
+        long previousBest = write("saveRecord", params(entry.getBattleId(), entry.getPlayerId(), entry.getBossId(), entry.getTimeMillis()),
+                conn -> inTransaction(conn, () -> insertRecord(conn, entry)));
+        recordSaved(entry, previousBest);
+    }
+
+    private void applyHistory(OutboxEntry entry) throws SQLException {
+        int inserted = write("saveBattleHistory", params(entry.getBattleId(), entry.getPlayerId(), entry.getBossId(), entry.getResult(), entry.getTimeMillis()),
+                conn -> inTransaction(conn, () -> insertHistory(conn, entry)));
+        markWritten(entry.getPlayerId(), entry.getBossId());
+        if (inserted > 0) {
+            battleRecorded(entry);
+        }
+    }
+
+    // Inserts the attempt and upserts the personal and period bests. Must run in a transaction.
+    // Returns the previous personal best (-1 if none), or ALREADY_STORED if the battle id exists.
+    private long insertRecord(Connection conn, OutboxEntry entry) throws SQLException {
+        String sql = """
+                INSERT IGNORE INTO boss_rankings (battle_id, player_uuid, player_name, boss_id, clear_time_ms, recorded_at)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+        String previousSql = "SELECT best_time_ms FROM boss_personal_bests WHERE boss_id = ? AND player_uuid = ? FOR UPDATE";
+        UUID playerId = entry.getPlayerId();
+        String bossId = entry.getBossId();
+        long clearTimeMs = entry.getTimeMillis();
+        Timestamp recordedAt = new Timestamp(entry.getRecordedAt());
+
+        // Previous best is read under the row lock so listeners can apply the change incrementally
+        try (PreparedStatement previousStmt = conn.prepareStatement(previousSql);
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement bestStmt = conn.prepareStatement(UPSERT_PERSONAL_BEST_SQL);
+             PreparedStatement periodStmt = conn.prepareStatement(UPSERT_PERIOD_BEST_SQL)) {
+            long previous = -1;
+            previousStmt.setString(1, bossId);
+            previousStmt.setString(2, playerId.toString());
+            try (ResultSet rs = previousStmt.executeQuery()) {
+                if (rs.next()) {
+                    previous = rs.getLong("best_time_ms");
+                }
             }
-        });
+
+            stmt.setString(1, entry.getBattleId().toString());
+            stmt.setString(2, playerId.toString());
+            stmt.setString(3, entry.getPlayerName());
+            stmt.setString(4, bossId);
+            stmt.setLong(5, clearTimeMs);
+            stmt.setTimestamp(6, recordedAt);
+            if (stmt.executeUpdate() == 0) {
+                // Already stored by an earlier attempt that timed out on our side
+                return ALREADY_STORED;
+            }
+
+            bestStmt.setString(1, bossId);
+            bestStmt.setString(2, playerId.toString());
+            bestStmt.setString(3, entry.getPlayerName());
+            bestStmt.setLong(4, clearTimeMs);
+            bestStmt.setTimestamp(5, recordedAt);
+            bestStmt.executeUpdate();
+
+            addPeriodBests(periodStmt, bossId, playerId, entry.getPlayerName(), clearTimeMs, recordedAt.toInstant());
+            periodStmt.executeBatch();
+
+            return previous;
+        }
+    }
+
+    // Idempotent as well, so it is safe to run again for a result whose history row already exists.
+    // The stats are only counted for a new row. Must run in a transaction.
+    private int insertHistory(Connection conn, OutboxEntry entry) throws SQLException {
+        String sql = """
+                INSERT IGNORE INTO battle_history (battle_id, player_uuid, player_name, boss_id, result, duration_ms, recorded_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+
+        // Read before the insert, see MigrationContext.getBoundary
+        long boundary = getStatsBoundary(conn);
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, entry.getBattleId().toString());
+            stmt.setString(2, entry.getPlayerId().toString());
+            stmt.setString(3, entry.getPlayerName());
+            stmt.setString(4, entry.getBossId());
+            stmt.setString(5, entry.getResult());
+            stmt.setLong(6, entry.getTimeMillis());
+            stmt.setTimestamp(7, new Timestamp(entry.getRecordedAt()));
+            int inserted = stmt.executeUpdate();
+            if (inserted == 0 || boundary < 0) {
+                return inserted;
+            }
+
+            // Rows up to the boundary are counted by the backfill
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next() && keys.getLong(1) > boundary) {
+                    upsertPlayerStats(conn, entry);
+                }
+            }
+            return inserted;
+        }
+    }
+
+    // -1 while the stats backfill has not fixed its range, after which it never changes
+    private long getStatsBoundary(Connection conn) throws SQLException {
+        long boundary = statsBoundary;
+        if (boundary >= 0) {
+            return boundary;
+        }
+
+        boundary = MigrationContext.getBoundary(conn, PLAYER_STATS_SCHEMA_VERSION);
+        if (boundary < 0 && databaseManager.getSchemaVersion() >= PLAYER_STATS_SCHEMA_VERSION) {
+            // Backfilled before progress was stored: every later row is counted live
+            boundary = 0;
+        }
+        if (boundary >= 0) {
+            statsBoundary = boundary;
+        }
+        return boundary;
+    }
+
+    private void upsertPlayerStats(Connection conn, OutboxEntry entry) throws SQLException {
+        String result = entry.getResult();
+        boolean victory = PlayerBossStats.isVictory(result);
+
+        try (PreparedStatement stmt = conn.prepareStatement(UPSERT_PLAYER_STATS_SQL)) {
+            stmt.setString(1, entry.getPlayerId().toString());
+            stmt.setString(2, entry.getBossId());
+            stmt.setString(3, entry.getPlayerName());
+            stmt.setInt(4, victory ? 1 : 0);
+            stmt.setInt(5, "DEFEAT".equals(result) ? 1 : 0);
+            stmt.setInt(6, "TIMEOUT".equals(result) ? 1 : 0);
+            stmt.setInt(7, "LOGOUT".equals(result) ? 1 : 0);
+            stmt.setLong(8, entry.getTimeMillis());
+            stmt.setLong(9, victory ? entry.getTimeMillis() : 0);
+            stmt.executeUpdate();
+        }
+    }
+
+    private void battleRecorded(OutboxEntry entry) {
+        notifyListeners(listener -> listener.onBattleRecorded(entry.getPlayerId(), entry.getBossId(),
+                entry.getResult(), entry.getTimeMillis()));
     }
 
-    public CompletableFuture<List<RankingEntry>> getTopRankings(String bossId, int limit) {
+    private void recordSaved(OutboxEntry entry, long previousBest) {
+        markWritten(entry.getPlayerId(), entry.getBossId());
+        if (previousBest != ALREADY_STORED) {
+            notifyListeners(listener -> listener.onRecordSaved(entry.getPlayerId(), entry.getPlayerName(),
+                    entry.getBossId(), entry.getTimeMillis(), previousBest));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, PlayerBossStats>> getPlayerStats(UUID playerId) {
         return CompletableFuture.supplyAsync(() -> {
-            List<RankingEntry> rankings = new ArrayList<>();
+            String sql = """
+                    SELECT boss_id, attempts, victories, defeats, timeouts, logouts, total_duration_ms, victory_duration_ms
+                    FROM player_boss_stats
+                    WHERE player_uuid = ?
+                    """;
+
+            try {
+                return read("getPlayerStats", playerId, null, params(playerId), conn -> {
+                    Map<String, PlayerBossStats> stats = new HashMap<>();
 
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, playerId.toString());
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                String bossId = rs.getString("boss_id");
+                                stats.put(bossId, new PlayerBossStats(
+                                        playerId,
+                                        bossId,
+                                        rs.getInt("attempts"),
+                                        rs.getInt("victories"),
+                                        rs.getInt("defeats"),
+                                        rs.getInt("timeouts"),
+                                        rs.getInt("logouts"),
+                                        rs.getLong("total_duration_ms"),
+                                        rs.getLong("victory_duration_ms")));
+                            }
+                        }
+                    }
+
+                    return stats;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to get player stats", e);
+                return null;
+            }
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<List<RankingEntry>> getRankingsAfter(String season, String bossId, RankingEntry after, int limit) {
+        return CompletableFuture.supplyAsync(() -> queryRankingsAfter(seasonOperation("getRankingsAfter", season),
+                personalBestsTable(season), "", params(), bossId, after, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<RankingEntry>> getPeriodRankingsAfter(RankingPeriod period, String bossId, RankingEntry after, int limit) {
+        LocalDate start = getCurrentPeriodStart(period);
+        return CompletableFuture.supplyAsync(() -> queryRankingsAfter("getPeriodRankingsAfter", "boss_period_bests",
+                PERIOD_SCOPE, params(period.getKey(), Date.valueOf(start)), bossId, after, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> getPeriodBestTime(UUID playerId, RankingPeriod period, String bossId) {
+        LocalDate start = getCurrentPeriodStart(period);
+        return CompletableFuture.supplyAsync(() -> {
             String sql = """
-                    SELECT player_uuid, player_name, clear_time_ms, recorded_at
-                    FROM (
-                        SELECT player_uuid, player_name, MIN(clear_time_ms) as clear_time_ms, MAX(recorded_at) as recorded_at
-                        FROM boss_rankings
-                        WHERE boss_id = ?
-                        GROUP BY player_uuid, player_name
-                    ) as best_times
-                    ORDER BY clear_time_ms ASC
-                    LIMIT ?
+                    SELECT best_time_ms FROM boss_period_bests
+                    WHERE period_type = ? AND period_start = ? AND boss_id = ? AND player_uuid = ?
                     """;
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, bossId);
-                stmt.setInt(2, limit);
+            try {
+                return read("getPeriodBestTime", playerId, bossId, params(period.getKey(), start, bossId, playerId), conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, period.getKey());
+                        stmt.setDate(2, Date.valueOf(start));
+                        stmt.setString(3, bossId);
+                        stmt.setString(4, playerId.toString());
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            return rs.next() ? rs.getLong("best_time_ms") : -1L;
+                        }
+                    }
+                });
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to get period best time", e);
+            }
+
+            return -1L;
+        }, executor);
+    }
+
+    @Override
+    public void setPeriodCalendar(ZoneId zone, DayOfWeek weekStart) {
+        this.periodZone = zone;
+        this.periodWeekStart = weekStart;
+    }
+
+    @Override
+    public LocalDate getCurrentPeriodStart(RankingPeriod period) {
+        return getPeriodStart(period, Instant.now());
+    }
+
+    private LocalDate getPeriodStart(RankingPeriod period, Instant time) {
+        return period.getStart(time.atZone(periodZone).toLocalDate(), periodWeekStart);
+    }
+
+    // Seeks on (best_time_ms, player_uuid) so the cost does not depend on how deep the page is.
+    // scope is an extra "column = ? AND " prefix for tables holding more than one leaderboard per boss.
+    private List<RankingEntry> queryRankingsAfter(String operation, String table, String scope, Object[] scopeValues,
+                                                  String bossId, RankingEntry after, int limit) {
+        String sql = (after == null ? """
+                SELECT player_uuid, player_name, best_time_ms, recorded_at
+                FROM %s
+                WHERE %sboss_id = ?
+                ORDER BY best_time_ms ASC, player_uuid ASC
+                LIMIT ?
+                """ : """
+                SELECT player_uuid, player_name, best_time_ms, recorded_at
+                FROM %s
+                WHERE %sboss_id = ?
+                  AND (best_time_ms > ? OR (best_time_ms = ? AND player_uuid > ?))
+                ORDER BY best_time_ms ASC, player_uuid ASC
+                LIMIT ?
+                """).formatted(table, scope);
+
+        try {
+            return read(operation, null, bossId, params(scopeValues, bossId, after, limit), conn -> {
+                List<RankingEntry> rankings = new ArrayList<>();
+
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    int index = bindKeyset(stmt, scopeValues, bossId, after);
+                    stmt.setInt(index, limit);
+
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        // Ties share the rank of their first entry, which may be on an earlier page
+                        int position = after != null ? after.getPosition() : 0;
+                        int rank = after != null ? after.getRank() : 0;
+                        long previousTime = after != null ? after.getClearTimeMillis() : -1;
+                        while (rs.next()) {
+                            position++;
+                            long time = rs.getLong("best_time_ms");
+                            if (time != previousTime) {
+                                rank = position;
+                                previousTime = time;
+                            }
+                            rankings.add(readRankingEntry(rs, rank, position, bossId));
+                        }
+                    }
+                }
+
+                return rankings;
+            });
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to get rankings", e);
+        }
+
+        return null;
+    }
+
+    @Override
+    public CompletableFuture<List<HistoryEntry>> getHistoryAfter(UUID playerId, String bossId, HistoryEntry after, int limit) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return queryHistory("getHistoryAfter", playerId, bossId, after, limit);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to get battle history", e);
+            }
+            return new ArrayList<>();
+        }, executor);
+    }
+
+    // Every column comes from idx_player_recent, so the clustered index is never touched
+    private List<HistoryEntry> queryHistory(String operation, UUID playerId, String bossId, HistoryEntry after,
+                                            int limit) throws SQLException {
+        String sql = """
+                SELECT id, boss_id, result, duration_ms, recorded_at
+                FROM battle_history
+                WHERE player_uuid = ?%s%s
+                ORDER BY recorded_at DESC, id DESC
+                LIMIT ?
+                """.formatted(
+                bossId != null ? " AND boss_id = ?" : "",
+                after != null ? " AND (recorded_at < ? OR (recorded_at = ? AND id < ?))" : "");
+
+        return read(operation, playerId, bossId, params(playerId, bossId, after, limit), conn -> {
+            List<HistoryEntry> entries = new ArrayList<>();
+
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                int index = 1;
+                stmt.setString(index++, playerId.toString());
+                if (bossId != null) {
+                    stmt.setString(index++, bossId);
+                }
+                if (after != null) {
+                    Timestamp recordedAt = Timestamp.valueOf(after.getRecordedAt());
+                    stmt.setTimestamp(index++, recordedAt);
+                    stmt.setTimestamp(index++, recordedAt);
+                    stmt.setLong(index++, after.getId());
+                }
+                stmt.setInt(index, limit);
 
                 try (ResultSet rs = stmt.executeQuery()) {
-                    int rank = 1;
+                    int position = (after != null ? after.getPosition() : 0) + 1;
                     while (rs.next()) {
-                        UUID playerId = UUID.fromString(rs.getString("player_uuid"));
-                        String playerName = rs.getString("player_name");
-                        long clearTimeMs = rs.getLong("clear_time_ms");
                         Timestamp timestamp = rs.getTimestamp("recorded_at");
-                        LocalDateTime recordedAt = timestamp != null ? timestamp.toLocalDateTime() : LocalDateTime.now();
-
-                        rankings.add(new RankingEntry(rank++, playerId, playerName, bossId, clearTimeMs, recordedAt));
+                        entries.add(new HistoryEntry(position++, rs.getLong("id"), rs.getString("boss_id"),
+                                rs.getString("result"), rs.getLong("duration_ms"),
+                                timestamp != null ? timestamp.toLocalDateTime() : LocalDateTime.now()));
                     }
                 }
-            } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to get rankings", e);
             }
 
-            return rankings;
+            return entries;
         });
     }
 
-    public CompletableFuture<Long> getPlayerBestTime(UUID playerId, String bossId) {
+    // Returns the index of the next parameter
+    private static int bindKeyset(PreparedStatement stmt, Object[] scopeValues, String bossId, RankingEntry after) throws SQLException {
+        int index = 1;
+        for (Object value : scopeValues) {
+            stmt.setObject(index++, value);
+        }
+        stmt.setString(index++, bossId);
+        if (after != null) {
+            stmt.setLong(index++, after.getClearTimeMillis());
+            stmt.setLong(index++, after.getClearTimeMillis());
+            stmt.setString(index++, after.getPlayerId().toString());
+        }
+        return index;
+    }
+
+    // Standings for all requested bosses come back in a single round trip
+    @Override
+    public CompletableFuture<Map<String, PlayerStanding>> getPlayerStandings(UUID playerId, Collection<String> bossIds) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT MIN(clear_time_ms) as best_time FROM boss_rankings WHERE player_uuid = ? AND boss_id = ?";
+            Map<String, PlayerStanding> standings = new HashMap<>();
+            if (bossIds.isEmpty()) {
+                return standings;
+            }
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, bossId);
+            String placeholders = String.join(", ", Collections.nCopies(bossIds.size(), "?"));
+            String sql = """
+                    SELECT pb.boss_id, pb.best_time_ms,
+                        (SELECT COUNT(*) FROM boss_personal_bests b
+                            WHERE b.boss_id = pb.boss_id AND b.best_time_ms < pb.best_time_ms) + 1 AS player_rank,
+                        (SELECT COUNT(*) FROM boss_personal_bests b
+                            WHERE b.boss_id = pb.boss_id) AS total_ranked,
+                        (SELECT MAX(b.best_time_ms) FROM boss_personal_bests b
+                            WHERE b.boss_id = pb.boss_id AND b.best_time_ms < pb.best_time_ms) AS next_time
+                    FROM boss_personal_bests pb
+                    WHERE pb.player_uuid = ? AND pb.boss_id IN (%s)
+                    """.formatted(placeholders);
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        long bestTime = rs.getLong("best_time");
-                        if (!rs.wasNull()) {
-                            return bestTime;
+            try {
+                standings.putAll(read("getPlayerStandings", playerId, null, params(playerId, bossIds), conn -> {
+                    Map<String, PlayerStanding> found = new HashMap<>();
+
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int index = 1;
+                        stmt.setString(index++, playerId.toString());
+                        for (String bossId : bossIds) {
+                            stmt.setString(index++, bossId);
+                        }
+
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                String bossId = rs.getString("boss_id");
+                                long nextTime = rs.getLong("next_time");
+                                if (rs.wasNull()) {
+                                    nextTime = -1;
+                                }
+                                found.put(bossId, new PlayerStanding(
+                                        playerId,
+                                        bossId,
+                                        rs.getInt("player_rank"),
+                                        rs.getLong("best_time_ms"),
+                                        rs.getInt("total_ranked"),
+                                        nextTime));
+                            }
                         }
                     }
-                }
+
+                    return found;
+                }));
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to get player best time", e);
+                logger.log(Level.WARNING, "Failed to get player standings", e);
+                return null;
             }
 
-            return -1L;
-        });
+            for (String bossId : bossIds) {
+                standings.putIfAbsent(bossId, PlayerStanding.unranked(playerId, bossId));
+            }
+            return standings;
+        }, executor);
     }
 
-    public CompletableFuture<Integer> getPlayerRank(UUID playerId, String bossId) {
+    /**
+     * Stream every personal best into a per-boss histogram. Used to rebuild the in-memory
+     * distributions at startup; rows are streamed so memory stays flat however many there are.
+     */
+    @Override
+    public CompletableFuture<Map<String, LogHistogram>> loadBestTimeHistograms() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT boss_id, best_time_ms FROM boss_personal_bests";
+
+            try {
+                return read("loadBestTimeHistograms", null, null, params(), conn -> {
+                    Map<String, LogHistogram> histograms = new HashMap<>();
+
+                    try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                        stmt.setFetchSize(databaseManager.getBackend().getStreamingFetchSize(LOAD_FETCH_SIZE));
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                histograms.computeIfAbsent(rs.getString("boss_id"), k -> new LogHistogram())
+                                        .record(rs.getLong("best_time_ms"));
+                            }
+                        }
+                    }
+
+                    return histograms;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to load best time histograms", e);
+            }
+
+            return null;
+        }, executor);
+    }
+
+    // Streams idx_boss_best in index order, so nothing is sorted on the server
+    @Override
+    public CompletableFuture<Map<String, List<RankingEntry>>> loadLeaderboards() {
         return CompletableFuture.supplyAsync(() -> {
             String sql = """
-                    SELECT COUNT(*) + 1 as player_rank
-                    FROM (
-                        SELECT player_uuid, MIN(clear_time_ms) as best_time
-                        FROM boss_rankings
-                        WHERE boss_id = ?
-                        GROUP BY player_uuid
-                    ) as bests
-                    WHERE best_time < (
-                        SELECT MIN(clear_time_ms)
-                        FROM boss_rankings
-                        WHERE player_uuid = ? AND boss_id = ?
-                    )
+                    SELECT boss_id, player_uuid, player_name, best_time_ms, recorded_at
+                    FROM boss_personal_bests
+                    ORDER BY boss_id, best_time_ms, player_uuid
                     """;
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, bossId);
-                stmt.setString(2, playerId.toString());
-                stmt.setString(3, bossId);
+            try {
+                return read("loadLeaderboards", null, null, params(), conn -> {
+                    Map<String, List<RankingEntry>> leaderboards = new HashMap<>();
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getInt("player_rank");
+                    try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                        stmt.setFetchSize(databaseManager.getBackend().getStreamingFetchSize(LOAD_FETCH_SIZE));
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            List<RankingEntry> entries = null;
+                            String currentBoss = null;
+                            long previousTime = -1;
+                            int rank = 0;
+                            while (rs.next()) {
+                                String bossId = rs.getString("boss_id");
+                                if (!bossId.equals(currentBoss)) {
+                                    currentBoss = bossId;
+                                    entries = leaderboards.computeIfAbsent(bossId, k -> new ArrayList<>());
+                                    previousTime = -1;
+                                }
+
+                                // Ties share a rank, as in getPlayerRank
+                                long time = rs.getLong("best_time_ms");
+                                if (time != previousTime) {
+                                    rank = entries.size() + 1;
+                                    previousTime = time;
+                                }
+                                entries.add(readRankingEntry(rs, rank, entries.size() + 1, bossId));
+                            }
+                        }
                     }
-                }
+
+                    return leaderboards;
+                });
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to get player rank", e);
+                logger.log(Level.WARNING, "Failed to load leaderboards", e);
             }
 
-            return -1;
-        });
+            return null;
+        }, executor);
     }
 
+    @Override
+    public CompletableFuture<Map<String, List<UUID>>> loadClearedPlayers() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = "SELECT boss_id, player_uuid FROM boss_personal_bests";
+
+            try {
+                return read("loadClearedPlayers", null, null, params(), conn -> {
+                    Map<String, List<UUID>> clears = new HashMap<>();
+
+                    try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                        stmt.setFetchSize(databaseManager.getBackend().getStreamingFetchSize(LOAD_FETCH_SIZE));
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                clears.computeIfAbsent(rs.getString("boss_id"), k -> new ArrayList<>())
+                                        .add(UUID.fromString(rs.getString("player_uuid")));
+                            }
+                        }
+                    }
+
+                    return clears;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to load cleared players", e);
+            }
+
+            return null;
+        }, executor);
+    }
+
+    // idx_player_name finds every UUID that battled under the name; should a name have changed
+    // hands, the latest battle (a seek on idx_player_recent) decides who holds it now
+    @Override
+    public CompletableFuture<KnownPlayer> findPlayerByName(String name) {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = """
+                    SELECT s.player_uuid, MAX(s.player_name) AS player_name,
+                        (SELECT MAX(h.recorded_at) FROM battle_history h WHERE h.player_uuid = s.player_uuid) AS last_battle
+                    FROM player_boss_stats s
+                    WHERE s.player_name = ?
+                    GROUP BY s.player_uuid
+                    ORDER BY last_battle DESC
+                    LIMIT 1
+                    """;
+
+            try {
+                return read("findPlayerByName", null, null, params(name), conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, name);
+
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (rs.next()) {
+                                return new KnownPlayer(UUID.fromString(rs.getString("player_uuid")),
+                                        rs.getString("player_name"));
+                            }
+                        }
+                    }
+                    return null;
+                });
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to look up player " + name, e);
+                return null;
+            }
+        }, executor);
+    }
+
+    @Override
     public CompletableFuture<Integer> getTotalClears(String bossId) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "SELECT COUNT(DISTINCT player_uuid) as total FROM boss_rankings WHERE boss_id = ?";
+            // One personal best per player, so this is a primary key range count
+            String sql = "SELECT COUNT(*) as total FROM boss_personal_bests WHERE boss_id = ?";
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, bossId);
+            try {
+                return read("getTotalClears", null, bossId, params(bossId), conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, bossId);
 
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getInt("total");
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            if (rs.next()) {
+                                return rs.getInt("total");
+                            }
+                        }
                     }
-                }
+                    return 0;
+                });
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to get total clears", e);
+                logger.log(Level.WARNING, "Failed to get total clears", e);
             }
 
             return 0;
-        });
+        }, executor);
     }
 
+    @Override
     public CompletableFuture<Integer> resetPlayerRankings(UUID playerId, String bossId) {
         return CompletableFuture.supplyAsync(() -> {
             String sql = "DELETE FROM boss_rankings WHERE player_uuid = ? AND boss_id = ?";
+            String bestSql = "DELETE FROM boss_personal_bests WHERE player_uuid = ? AND boss_id = ?";
+            String periodSql = "DELETE FROM boss_period_bests WHERE player_uuid = ? AND boss_id = ?";
+
+            try {
+                int deleted = write("resetPlayerRankings", params(playerId, bossId), conn -> inTransaction(conn, () -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(sql);
+                         PreparedStatement bestStmt = conn.prepareStatement(bestSql);
+                         PreparedStatement periodStmt = conn.prepareStatement(periodSql)) {
+                        stmt.setString(1, playerId.toString());
+                        stmt.setString(2, bossId);
+                        int count = stmt.executeUpdate();
+
+                        bestStmt.setString(1, playerId.toString());
+                        bestStmt.setString(2, bossId);
+                        bestStmt.executeUpdate();
+
+                        periodStmt.setString(1, playerId.toString());
+                        periodStmt.setString(2, bossId);
+                        periodStmt.executeUpdate();
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, playerId.toString());
-                stmt.setString(2, bossId);
-                return stmt.executeUpdate();
+                        return count;
+                    }
+                }));
+                markWritten(playerId, bossId);
+                notifyListeners(listener -> listener.onRankingsReset(bossId, playerId));
+                return deleted;
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to reset player rankings", e);
+                logger.log(Level.WARNING, "Failed to reset player rankings", e);
             }
 
             return 0;
-        });
+        }, executor);
     }
 
-    public CompletableFuture<Integer> resetBossRankings(String bossId) {
+    // Small chunks so concurrent saves and leaderboard reads are never blocked for long
+    @Override
+    public CompletableFuture<Integer> resetBossRankings(String bossId, BulkOperation operation) {
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "DELETE FROM boss_rankings WHERE boss_id = ?";
+            try {
+                if (chunkedReset("resetBossRankings", "boss_id", bossId, operation)) {
+                    markWritten(null, bossId);
+                    notifyListeners(listener -> listener.onRankingsReset(bossId, null));
+                    return (int) operation.getProcessed();
+                }
+            } catch (SQLException e) {
+                // Stopped part way, so caches cannot apply it as a scoped reset
+                notifyRankingsReplaced();
+                throw new CompletionException(e);
+            }
+            notifyRankingsReplaced();
+            return (int) operation.getProcessed();
+        }, databaseManager.getBulkExecutor());
+    }
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, bossId);
-                return stmt.executeUpdate();
+    @Override
+    public CompletableFuture<Integer> resetAllPlayerRankings(UUID playerId, BulkOperation operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                if (chunkedReset("resetAllPlayerRankings", "player_uuid", playerId.toString(), operation)) {
+                    markWritten(playerId, null);
+                    notifyListeners(listener -> listener.onRankingsReset(null, playerId));
+                    return (int) operation.getProcessed();
+                }
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to reset boss rankings", e);
+                notifyRankingsReplaced();
+                throw new CompletionException(e);
             }
+            notifyRankingsReplaced();
+            return (int) operation.getProcessed();
+        }, databaseManager.getBulkExecutor());
+    }
 
-            return 0;
-        });
+    // Attempts go first and may be cancelled, leaving the leaderboard untouched. Personal and
+    // period bests are then always removed completely and re-derived from attempts saved during the reset.
+    // Returns false if the reset was cancelled and throws if it failed part way; the deleted attempts
+    // are counted in the operation either way.
+    private boolean chunkedReset(String operationName, String column, String value, BulkOperation operation) throws SQLException {
+        String maxIdSql = "SELECT COALESCE(MAX(id), 0) FROM boss_rankings";
+        String attemptsSql = "DELETE FROM boss_rankings WHERE " + column + " = ? AND id <= ? LIMIT ?";
+        String bestsSql = "DELETE FROM boss_personal_bests WHERE " + column + " = ? LIMIT ?";
+        String periodBestsSql = "DELETE FROM boss_period_bests WHERE " + column + " = ? LIMIT ?";
+        String newAttemptsSql = """
+                SELECT boss_id, player_uuid, player_name, clear_time_ms, recorded_at
+                FROM boss_rankings
+                WHERE %s = ? AND id > ?
+                """.formatted(column);
+        // Through a derived table, as the update would otherwise be ambiguous on MySQL
+        String rederiveSql = """
+                INSERT INTO boss_personal_bests (boss_id, player_uuid, player_name, best_time_ms, recorded_at)
+                SELECT new_boss_id, new_player_uuid, new_name, new_time, new_recorded_at FROM (
+                    SELECT id AS new_id, boss_id AS new_boss_id, player_uuid AS new_player_uuid,
+                        player_name AS new_name, clear_time_ms AS new_time, recorded_at AS new_recorded_at
+                    FROM boss_rankings
+                    WHERE %s = ? AND id > ?
+                ) AS new_attempts
+                ORDER BY new_id
+                ON DUPLICATE KEY UPDATE
+                    player_name = VALUES(player_name),
+                    recorded_at = CASE WHEN VALUES(best_time_ms) < best_time_ms THEN VALUES(recorded_at) ELSE recorded_at END,
+                    best_time_ms = LEAST(best_time_ms, VALUES(best_time_ms))
+                """.formatted(column);
+        int chunkSize = operation.getChunkSize();
+        int deleted = 0;
+
+        try {
+            long maxId = write(operationName + ".snapshot", params(value), conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(maxIdSql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    return rs.next() ? rs.getLong(1) : 0L;
+                }
+            });
+
+            int count;
+            do {
+                if (operation.isCancelled()) {
+                    logger.info(operation.getDescription() + " cancelled after " + deleted + " records");
+                    return false;
+                }
+                count = write(operationName + ".attempts", params(value, maxId), conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(attemptsSql)) {
+                        stmt.setString(1, value);
+                        stmt.setLong(2, maxId);
+                        stmt.setInt(3, chunkSize);
+                        return stmt.executeUpdate();
+                    }
+                });
+                deleted += count;
+                operation.chunkDone(count);
+            } while (count >= chunkSize);
+
+            do {
+                count = write(operationName + ".bests", params(value), conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(bestsSql)) {
+                        stmt.setString(1, value);
+                        stmt.setInt(2, chunkSize);
+                        return stmt.executeUpdate();
+                    }
+                });
+                operation.chunkDone(0);
+            } while (count >= chunkSize);
+
+            do {
+                count = write(operationName + ".periodBests", params(value), conn -> {
+                    try (PreparedStatement stmt = conn.prepareStatement(periodBestsSql)) {
+                        stmt.setString(1, value);
+                        stmt.setInt(2, chunkSize);
+                        return stmt.executeUpdate();
+                    }
+                });
+                operation.chunkDone(0);
+            } while (count >= chunkSize);
+
+            write(operationName + ".rederive", params(value, maxId), conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(rederiveSql)) {
+                    stmt.setString(1, value);
+                    stmt.setLong(2, maxId);
+                    return stmt.executeUpdate();
+                }
+            });
+
+            // Period boundaries depend on the configured timezone, so these are worked out here
+            write(operationName + ".rederivePeriods", params(value, maxId), conn -> {
+                try (PreparedStatement stmt = conn.prepareStatement(newAttemptsSql);
+                     PreparedStatement periodStmt = conn.prepareStatement(UPSERT_PERIOD_BEST_SQL)) {
+                    stmt.setString(1, value);
+                    stmt.setLong(2, maxId);
+                    try (ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Timestamp recordedAt = rs.getTimestamp("recorded_at");
+                            addPeriodBests(periodStmt, rs.getString("boss_id"), UUID.fromString(rs.getString("player_uuid")),
+                                    rs.getString("player_name"), rs.getLong("clear_time_ms"),
+                                    recordedAt != null ? recordedAt.toInstant() : Instant.now());
+                        }
+                    }
+                    return periodStmt.executeBatch().length;
+                }
+            });
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to " + operation.getDescription()
+                    + " after deleting " + deleted + " records", e);
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException(operation.getDescription() + " interrupted", e);
+        }
     }
 
-    public CompletableFuture<Integer> resetAllPlayerRankings(UUID playerId) {
+    @Override
+    public int purgePeriodBests(LocalDate before, int chunkSize, long chunkPauseMs) {
+        String sql = "DELETE FROM boss_period_bests WHERE period_type = ? AND period_start < ? LIMIT ?";
+        int deleted = 0;
+
+        try {
+            for (RankingPeriod period : RankingPeriod.values()) {
+                int count;
+                do {
+                    count = write("purgePeriodBests", params(period.getKey(), before), conn -> {
+                        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                            stmt.setString(1, period.getKey());
+                            stmt.setDate(2, Date.valueOf(before));
+                            stmt.setInt(3, chunkSize);
+                            return stmt.executeUpdate();
+                        }
+                    });
+                    deleted += count;
+                    if (count >= chunkSize && chunkPauseMs > 0) {
+                        Thread.sleep(chunkPauseMs);
+                    }
+                } while (count >= chunkSize);
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to purge period bests after deleting " + deleted + " rows", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return deleted;
+    }
+
+    // One batch entry per period the record falls into
+    private void addPeriodBests(PreparedStatement stmt, String bossId, UUID playerId, String playerName,
+                                long clearTimeMs, Instant recordedAt) throws SQLException {
+        for (RankingPeriod period : RankingPeriod.values()) {
+            stmt.setString(1, period.getKey());
+            stmt.setDate(2, Date.valueOf(getPeriodStart(period, recordedAt)));
+            stmt.setString(3, bossId);
+            stmt.setString(4, playerId.toString());
+            stmt.setString(5, playerName);
+            stmt.setLong(6, clearTimeMs);
+            stmt.setTimestamp(7, Timestamp.from(recordedAt));
+            stmt.addBatch();
+        }
+    }
+
+    @Override
+    public boolean supportsSeasonArchive() {
+        return !databaseManager.getBackend().isEmbedded();
+    }
+
+    /**
+     * Close the current season: the active ranking tables are renamed to the season's archive
+     * tables and empty copies take their place in a single atomic RENAME TABLE, so the cost does
+     * not depend on how many rows the season holds. Completes with null if the name is taken
+     * or the swap failed; the active tables are left untouched in that case.
+     */
+    @Override
+    public CompletableFuture<RankingSeason> archiveSeason(String name, int lockWaitTimeoutSeconds) {
+        if (!RankingSeason.isValidName(name)) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid season name: " + name));
+        }
+        if (!supportsSeasonArchive()) {
+            return CompletableFuture.failedFuture(new UnsupportedOperationException(
+                    "Seasons cannot be archived on the " + databaseManager.getBackend().getKey() + " backend"));
+        }
+
         return CompletableFuture.supplyAsync(() -> {
-            String sql = "DELETE FROM boss_rankings WHERE player_uuid = ?";
+            String rankingsArchive = "boss_rankings_s_" + name;
+            String bestsArchive = personalBestsTable(name);
 
-            try (Connection conn = databaseManager.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-                stmt.setString(1, playerId.toString());
-                return stmt.executeUpdate();
+            try {
+                RankingSeason season = write("archiveSeason", params(name), conn -> {
+                    // Claim the name first so two servers cannot archive into the same tables
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "INSERT IGNORE INTO ranking_seasons (name, rankings_table, personal_bests_table) VALUES (?, ?, ?)")) {
+                        stmt.setString(1, name);
+                        stmt.setString(2, rankingsArchive);
+                        stmt.setString(3, bestsArchive);
+                        if (stmt.executeUpdate() == 0) {
+                            return null;
+                        }
+                    }
+
+                    try (Statement stmt = conn.createStatement()) {
+                        try {
+                            stmt.execute("DROP TABLE IF EXISTS boss_rankings_next, boss_personal_bests_next");
+                            stmt.execute("CREATE TABLE boss_rankings_next LIKE boss_rankings");
+                            stmt.execute("CREATE TABLE boss_personal_bests_next LIKE boss_personal_bests");
+
+                            // The rename waits for in-flight saves to commit; don't queue new ones behind it for long
+                            stmt.execute("SET SESSION lock_wait_timeout = " + Math.max(1, lockWaitTimeoutSeconds));
+                            stmt.execute("RENAME TABLE boss_rankings TO " + rankingsArchive
+                                    + ", boss_rankings_next TO boss_rankings"
+                                    + ", boss_personal_bests TO " + bestsArchive
+                                    + ", boss_personal_bests_next TO boss_personal_bests");
+                        } catch (SQLException e) {
+                            stmt.execute("DROP TABLE IF EXISTS boss_rankings_next, boss_personal_bests_next");
+                            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM ranking_seasons WHERE name = ?")) {
+                                delete.setString(1, name);
+                                delete.executeUpdate();
+                            }
+                            throw e;
+                        } finally {
+                            stmt.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                        }
+                    }
+
+                    return new RankingSeason(name, rankingsArchive, bestsArchive, LocalDateTime.now());
+                });
+
+                if (season != null) {
+                    knownSeasons.add(name);
+                    markAllWritten();
+                    notifyListeners(listener -> listener.onRankingsReset(null, null));
+                }
+                return season;
             } catch (SQLException e) {
-                MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to reset all player rankings", e);
+                logger.log(Level.WARNING, "Failed to archive season " + name, e);
             }
 
-            return 0;
-        });
+            return null;
+        }, databaseManager.getBulkExecutor());
+    }
+
+    @Override
+    public CompletableFuture<List<RankingSeason>> getSeasons() {
+        return CompletableFuture.supplyAsync(() -> {
+            String sql = """
+                    SELECT name, rankings_table, personal_bests_table, archived_at
+                    FROM ranking_seasons
+                    ORDER BY archived_at DESC, name ASC
+                    """;
+
+            try {
+                List<RankingSeason> seasons = read("getSeasons", null, null, params(), conn -> {
+                    List<RankingSeason> result = new ArrayList<>();
+                    try (PreparedStatement stmt = conn.prepareStatement(sql);
+                         ResultSet rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            Timestamp archivedAt = rs.getTimestamp("archived_at");
+                            result.add(new RankingSeason(
+                                    rs.getString("name"),
+                                    rs.getString("rankings_table"),
+                                    rs.getString("personal_bests_table"),
+                                    archivedAt != null ? archivedAt.toLocalDateTime() : null));
+                        }
+                    }
+                    return result;
+                });
+
+                knownSeasons.clear();
+                seasons.forEach(season -> knownSeasons.add(season.getName()));
+                return seasons;
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to get seasons", e);
+            }
+
+            return new ArrayList<>();
+        }, executor);
+    }
+
+    // Answered from memory when the name is known, otherwise the season list is reloaded
+    // in case another server archived it
+    @Override
+    public CompletableFuture<Boolean> hasSeason(String name) {
+        if (!RankingSeason.isValidName(name)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (knownSeasons.contains(name)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return getSeasons().thenApply(seasons -> knownSeasons.contains(name));
+    }
+
+    @Override
+    public Collection<String> getKnownSeasonNames() {
+        return Collections.unmodifiableSet(knownSeasons);
+    }
+
+    private static String personalBestsTable(String season) {
+        if (season == null) {
+            return "boss_personal_bests";
+        }
+        if (!RankingSeason.isValidName(season)) {
+            throw new IllegalArgumentException("Invalid season name: " + season);
+        }
+        return "boss_personal_bests_s_" + season;
+    }
+
+    private static String seasonOperation(String operation, String season) {
+        return season == null ? operation : operation + "@season";
+    }
+
+    /**
+     * Run a read on the replica when one is configured, falling back to the primary if it fails.
+     * Reads about a player or boss written within the read-your-writes window go straight to the
+     * primary so a player never sees their own result missing because of replication lag.
+     */
+    private <T> T read(String operation, UUID playerId, String bossId, Object[] params, SqlFunction<T> query) throws SQLException {
+        if (databaseManager.hasReplica() && !isRecentlyWritten(playerId, bossId)) {
+            try {
+                return execute(operation + "@replica", params, databaseManager::getReadConnection, query);
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Replica read failed, falling back to primary", e);
+            }
+        }
+
+        return withRetry(operation, () -> execute(operation, params, databaseManager::getConnection, query));
+    }
+
+    private <T> T write(String operation, Object[] params, SqlFunction<T> update) throws SQLException {
+        return withRetry(operation, () -> execute(operation, params, databaseManager::getConnection, update));
+    }
+
+    // Transient failures are retried with backoff, each attempt on a fresh connection (a failed
+    // transaction has been rolled back). While the circuit breaker is open nothing is attempted.
+    private <T> T withRetry(String operation, SqlSupplier<T> call) throws SQLException {
+        CircuitBreaker breaker = databaseManager.getCircuitBreaker();
+        RetryPolicy retry = databaseManager.getRetryPolicy();
+
+        for (int attempt = 1; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                throw new SQLTransientConnectionException("Database circuit breaker is open, " + operation + " was not attempted");
+            }
+
+            try {
+                T result = call.get();
+                breaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                // A bug in the query code says nothing about the database either, but the
+                // breaker must be settled or a half-open trial would never end
+                breaker.onSuccess();
+                throw e;
+            } catch (SQLException e) {
+                if (!RetryPolicy.isTransient(e)) {
+                    // The database did answer, so this says nothing about its health
+                    breaker.onSuccess();
+                    throw e;
+                }
+                breaker.onFailure(e);
+                if (attempt >= retry.getMaxAttempts()) {
+                    throw e;
+                }
+
+                retry.recordRetry();
+                try {
+                    Thread.sleep(retry.getDelayMillis(attempt));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Every repository call goes through here so latency, pool wait and row counts are recorded
+    private <T> T execute(String operation, Object[] params, ConnectionSource source, SqlFunction<T> function) throws SQLException {
+        QueryMetrics metrics = databaseManager.getMetrics();
+        long start = System.nanoTime();
+        T result = null;
+        boolean success = false;
+
+        try (Connection conn = source.get()) {
+            metrics.recordAcquire(operation, System.nanoTime() - start);
+            result = function.apply(conn);
+            success = true;
+            return result;
+        } finally {
+            metrics.record(operation, System.nanoTime() - start, countRows(result), success, params);
+        }
+    }
+
+    private static <T> T inTransaction(Connection conn, SqlSupplier<T> work) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            T result = work.get();
+            conn.commit();
+            return result;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static long countRows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Integer count) {
+            return count;
+        }
+        return result != null ? 1 : 0;
+    }
+
+    private static Object[] params(Object... values) {
+        return values;
+    }
+
+    @Override
+    public void notifyRankingsReplaced() {
+        markAllWritten();
+        notifyListeners(listener -> listener.onRankingsReset(null, null));
+    }
+
+    private void notifyListeners(Consumer<RankingListener> event) {
+        for (RankingListener listener : listeners) {
+            try {
+                event.accept(listener);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Ranking listener failed", e);
+            }
+        }
+    }
+
+    private void markWritten(UUID playerId, String bossId) {
+        if (!databaseManager.hasReplica()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (playerId != null) {
+            recentPlayerWrites.put(playerId, now);
+        }
+        if (bossId != null) {
+            recentBossWrites.put(bossId, now);
+        }
+    }
+
+    // Bulk changes touch every boss and player, so route all reads to the primary for a while
+    private void markAllWritten() {
+        if (databaseManager.hasReplica()) {
+            lastBulkWrite = System.currentTimeMillis();
+        }
+    }
+
+    private boolean isRecentlyWritten(UUID playerId, String bossId) {
+        long window = databaseManager.getReadYourWritesMillis();
+        long now = System.currentTimeMillis();
+        return now - lastBulkWrite < window
+                || (playerId != null && isWithin(recentPlayerWrites, playerId, now, window))
+                || (bossId != null && isWithin(recentBossWrites, bossId, now, window));
+    }
+
+    private static <K> boolean isWithin(Map<K, Long> writes, K key, long now, long window) {
+        Long writtenAt = writes.get(key);
+        if (writtenAt == null) {
+            return false;
+        }
+        if (now - writtenAt >= window) {
+            writes.remove(key, writtenAt);
+            return false;
+        }
+        return true;
+    }
+
+    private static RankingEntry readRankingEntry(ResultSet rs, int rank, int position, String bossId) throws SQLException {
+        UUID playerId = UUID.fromString(rs.getString("player_uuid"));
+        String playerName = rs.getString("player_name");
+        long clearTimeMs = rs.getLong("best_time_ms");
+        Timestamp timestamp = rs.getTimestamp("recorded_at");
+        LocalDateTime recordedAt = timestamp != null ? timestamp.toLocalDateTime() : LocalDateTime.now();
+
+        return new RankingEntry(rank, position, playerId, playerName, bossId, clearTimeMs, recordedAt);
+    }
+
+    @FunctionalInterface
+    private interface SqlFunction<T> {
+        T apply(Connection conn) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlSupplier<T> {
+        T get() throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get() throws SQLException;
     }
 }
@@ -0,0 +1,45 @@
+package net.mofucraft.bossbattle.database;
+
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+/**
+ * An archived season: the ranking tables as they were when the season was closed
+ */
+public class RankingSeason {
+
+    private static final Pattern NAME = Pattern.compile("[a-z0-9_]{1,32}");
+
+    private final String name;
+    private final String rankingsTable;
+    private final String personalBestsTable;
+    private final LocalDateTime archivedAt;
+
+    public RankingSeason(String name, String rankingsTable, String personalBestsTable, LocalDateTime archivedAt) {
+        this.name = name;
+        this.rankingsTable = rankingsTable;
+        this.personalBestsTable = personalBestsTable;
+        this.archivedAt = archivedAt;
+    }
+
+    // Season names end up in table names, so keep them to characters that never need quoting
+    public static boolean isValidName(String name) {
+        return name != null && NAME.matcher(name).matches();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRankingsTable() {
+        return rankingsTable;
+    }
+
+    public String getPersonalBestsTable() {
+        return personalBestsTable;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
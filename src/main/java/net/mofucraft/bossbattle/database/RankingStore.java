@@ -0,0 +1,214 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.database.outbox.DrainReport;
+import net.mofucraft.bossbattle.database.outbox.OutboxEntry;
+import net.mofucraft.bossbattle.database.outbox.OutboxJournal;
+import net.mofucraft.bossbattle.util.LogHistogram;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Storage of battle results and the leaderboards derived from them. Futures complete off the
+ * main thread; read failures are logged and complete with an empty result rather than exceptionally.
+ */
+public interface RankingStore {
+
+    void addListener(RankingListener listener);
+
+    /**
+     * Use a local outbox for results the store does not accept within {@code writeTimeoutMillis}
+     * (0 waits forever). Without an outbox a failed write is only logged.
+     */
+    void setOutbox(OutboxJournal outbox, long writeTimeoutMillis);
+
+    /**
+     * Store a clear: the ranking record, the player's bests and the history row are written
+     * together or not at all, all tagged with {@code battleId}.
+     */
+    CompletableFuture<Void> recordBattleResult(UUID battleId, UUID playerId, String playerName, String bossId,
+                                               String result, long clearTimeMs);
+
+    /**
+     * Store a history row only, for battles that do not count towards the rankings
+     */
+    CompletableFuture<Void> saveBattleHistory(UUID battleId, UUID playerId, String playerName, String bossId,
+                                              String result, long durationMs);
+
+    /**
+     * Wait up to {@code timeoutMillis} for results still being written, spilling the rest to the
+     * outbox. Blocks the calling thread; used on shutdown.
+     */
+    DrainReport drain(long timeoutMillis);
+
+    /**
+     * Write a journaled result on the calling thread. Results already stored under the same
+     * battle id are skipped, so an entry may be replayed any number of times.
+     */
+    void replay(OutboxEntry entry) throws SQLException;
+
+    default CompletableFuture<List<RankingEntry>> getTopRankings(String bossId, int limit) {
+        return getRankingsAfter(bossId, null, limit);
+    }
+
+    /**
+     * Keyset page: the next {@code limit} entries after {@code after} (null for the top), or
+     * null if they could not be read. The cost does not depend on how deep the page is.
+     */
+    default CompletableFuture<List<RankingEntry>> getRankingsAfter(String bossId, RankingEntry after, int limit) {
+        return getRankingsAfter(null, bossId, after, limit);
+    }
+
+    /**
+     * Keyset page of an archived season, or of the active rankings when {@code season} is null
+     */
+    CompletableFuture<List<RankingEntry>> getRankingsAfter(String season, String bossId, RankingEntry after, int limit);
+
+    /**
+     * Keyset page of the current daily/weekly/monthly leaderboard, or null if it could not be read
+     */
+    CompletableFuture<List<RankingEntry>> getPeriodRankingsAfter(RankingPeriod period, String bossId, RankingEntry after, int limit);
+
+    /**
+     * Keyset page of a player's battle history, newest first: the next {@code limit} battles
+     * after {@code after} (null for the latest), optionally of one boss ({@code bossId} null
+     * for all). Served from the (player, recorded_at) covering index, so the cost does not
+     * depend on how many battles the player has.
+     */
+    CompletableFuture<List<HistoryEntry>> getHistoryAfter(UUID playerId, String bossId, HistoryEntry after, int limit);
+
+    /**
+     * The player's best time in the current period, or -1 if they have not cleared the boss in it
+     */
+    CompletableFuture<Long> getPeriodBestTime(UUID playerId, RankingPeriod period, String bossId);
+
+    /**
+     * Timezone and first day of the week used for period boundaries. Rows already written keep
+     * the period they were filed under.
+     */
+    void setPeriodCalendar(ZoneId zone, DayOfWeek weekStart);
+
+    LocalDate getCurrentPeriodStart(RankingPeriod period);
+
+    /**
+     * Best time, -1 if the player has not cleared the boss, or null if it could not be read
+     */
+    default CompletableFuture<Long> getPlayerBestTime(UUID playerId, String bossId) {
+        return getPlayerStanding(playerId, bossId)
+                .thenApply(standing -> standing == null ? null : standing.isRanked() ? standing.getBestTimeMillis() : -1L);
+    }
+
+    /**
+     * Rank, -1 if the player has not cleared the boss, or null if it could not be read
+     */
+    default CompletableFuture<Integer> getPlayerRank(UUID playerId, String bossId) {
+        return getPlayerStanding(playerId, bossId)
+                .thenApply(standing -> standing == null ? null : standing.isRanked() ? standing.getRank() : -1);
+    }
+
+    /**
+     * Rank, best time, number of ranked players and the time of the next rank up, or null if
+     * it could not be read
+     */
+    default CompletableFuture<PlayerStanding> getPlayerStanding(UUID playerId, String bossId) {
+        return getPlayerStandings(playerId, List.of(bossId))
+                .thenApply(standings -> standings == null ? null
+                        : standings.getOrDefault(bossId, PlayerStanding.unranked(playerId, bossId)));
+    }
+
+    /**
+     * Standings for several bosses at once, or null if they could not be read. Bosses the
+     * player has not cleared are returned as unranked.
+     */
+    CompletableFuture<Map<String, PlayerStanding>> getPlayerStandings(UUID playerId, Collection<String> bossIds);
+
+    /**
+     * Battle counters of a player for every boss they have fought, keyed by boss id, or null
+     * if they could not be read
+     */
+    CompletableFuture<Map<String, PlayerBossStats>> getPlayerStats(UUID playerId);
+
+    /**
+     * Every personal best as a per-boss histogram, or null if they could not be read
+     */
+    CompletableFuture<Map<String, LogHistogram>> loadBestTimeHistograms();
+
+    /**
+     * Every personal best in leaderboard order (ties by player UUID) and ranked, keyed by boss
+     * id, or null if they could not be read
+     */
+    CompletableFuture<Map<String, List<RankingEntry>>> loadLeaderboards();
+
+    /**
+     * Players holding a personal best, keyed by boss id, or null if they could not be read
+     */
+    CompletableFuture<Map<String, List<UUID>>> loadClearedPlayers();
+
+    /**
+     * The player who last battled under this name (ignoring case), or null if nobody did or
+     * the lookup failed
+     */
+    CompletableFuture<KnownPlayer> findPlayerByName(String name);
+
+    /**
+     * Number of players who cleared the boss, counted in the database
+     */
+    CompletableFuture<Integer> getTotalClears(String bossId);
+
+    CompletableFuture<Integer> resetPlayerRankings(UUID playerId, String bossId);
+
+    /**
+     * Delete every record of a boss in chunks and complete with the number of attempts deleted.
+     * A reset that failed part way completes exceptionally; the operation still counts what it
+     * deleted. Listeners are notified once, after the whole reset; a reset that was cancelled or
+     * failed part way is reported like {@link #notifyRankingsReplaced()}.
+     */
+    CompletableFuture<Integer> resetBossRankings(String bossId, BulkOperation operation);
+
+    CompletableFuture<Integer> resetAllPlayerRankings(UUID playerId, BulkOperation operation);
+
+    /**
+     * Delete period bests of periods that started before {@code before}, in chunks, on the
+     * calling thread. Returns the number of rows deleted.
+     */
+    int purgePeriodBests(LocalDate before, int chunkSize, long chunkPauseMs);
+
+    /**
+     * Whether {@link #archiveSeason(String, int)} is available on this store
+     */
+    boolean supportsSeasonArchive();
+
+    /**
+     * Close the current season and start empty rankings. Completes with null if the name is
+     * taken or the archive failed; the active rankings are left untouched in that case.
+     */
+    CompletableFuture<RankingSeason> archiveSeason(String name, int lockWaitTimeoutSeconds);
+
+    /**
+     * Archived seasons, newest first. Also refreshes the names returned by {@link #getKnownSeasonNames()}.
+     */
+    CompletableFuture<List<RankingSeason>> getSeasons();
+
+    /**
+     * Whether an archived season exists, reloading the season list if the name is not known yet
+     */
+    CompletableFuture<Boolean> hasSeason(String name);
+
+    /**
+     * Season names as of the last {@link #getSeasons()} call, for tab completion
+     */
+    Collection<String> getKnownSeasonNames();
+
+    /**
+     * Tell listeners that ranking data changed in bulk outside this store (e.g. an import),
+     * so every cache reloads.
+     */
+    void notifyRankingsReplaced();
+}
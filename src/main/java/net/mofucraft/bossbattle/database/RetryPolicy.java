@@ -0,0 +1,80 @@
+package net.mofucraft.bossbattle.database;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Which SQL errors are worth retrying, and how long to wait between attempts. Retries back off
+ * exponentially with full jitter so servers hitting the same hiccup do not retry in lockstep.
+ */
+public class RetryPolicy {
+
+    // MySQL lock wait timeout and deadlock
+    private static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int ER_LOCK_DEADLOCK = 1213;
+
+    private volatile int maxAttempts;
+    private volatile long baseDelayMillis;
+    private volatile long maxDelayMillis;
+    private final AtomicLong retriesTotal;
+
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.retriesTotal = new AtomicLong();
+        configure(maxAttempts, baseDelayMillis, maxDelayMillis);
+    }
+
+    /**
+     * Change the limits in place, e.g. after /boss reload. Retries already waiting keep their delay.
+     */
+    public void configure(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = Math.max(0, baseDelayMillis);
+        this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+    }
+
+    /**
+     * Errors that may go away by themselves: lost or unavailable connections, pool timeouts,
+     * deadlocks and lock wait timeouts. Anything else (bad SQL, constraint violations) is not retried.
+     */
+    public static boolean isTransient(SQLException error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql) {
+                String state = sql.getSQLState();
+                // Class 08: connection exception, class 40: transaction rollback
+                if (state != null && (state.startsWith("08") || state.startsWith("40"))) {
+                    return true;
+                }
+                if (sql.getErrorCode() == ER_LOCK_WAIT_TIMEOUT || sql.getErrorCode() == ER_LOCK_DEADLOCK) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Delay before retry number {@code attempt} (1 for the first retry)
+     */
+    public long getDelayMillis(int attempt) {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    public void recordRetry() {
+        retriesTotal.incrementAndGet();
+    }
+
+    public long getRetriesTotal() {
+        return retriesTotal.get();
+    }
+}
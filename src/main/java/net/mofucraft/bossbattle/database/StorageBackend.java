@@ -0,0 +1,135 @@
+package net.mofucraft.bossbattle.database;
+
+import com.zaxxer.hikari.HikariConfig;
+import net.mofucraft.bossbattle.database.migration.Migration;
+import net.mofucraft.bossbattle.database.migration.Migrations;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Database the ranking store runs on. Both backends execute the same ranking SQL (H2 in its
+ * MySQL compatibility mode); this enum only covers what differs between them.
+ */
+public enum StorageBackend {
+
+    MYSQL("mysql") {
+        @Override
+        public String getJdbcUrl(String host, int port, String database, File dataFolder) {
+            return String.format("jdbc:mysql://%s:%d/%s?useSSL=false&allowPublicKeyRetrieval=true&useUnicode=true&characterEncoding=UTF-8",
+                    host,
+                    port,
+                    database);
+        }
+
+        @Override
+        public void configure(HikariConfig config) {
+            // Performance settings
+            config.addDataSourceProperty("cachePrepStmts", "true");
+            config.addDataSourceProperty("prepStmtCacheSize", "250");
+            config.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        }
+
+        @Override
+        public int getStreamingFetchSize(int rowsPerFetch) {
+            // Connector/J streams row by row only with this exact value. Fetching in batches would
+            // need useCursorFetch, a second streaming mode, so that is left off.
+            return Integer.MIN_VALUE;
+        }
+
+        @Override
+        public String getRowEstimateSql() {
+            return "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+        }
+
+        @Override
+        public List<Migration> getMigrations() {
+            return Migrations.all();
+        }
+    },
+
+    H2("h2") {
+        @Override
+        public String getJdbcUrl(String host, int port, String database, File dataFolder) {
+            // Lower-case identifiers so table names read back from the catalog match the SQL
+            return "jdbc:h2:file:" + new File(dataFolder, database).getAbsolutePath()
+                    + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+        }
+
+        @Override
+        public void configure(HikariConfig config) {
+            config.setDriverClassName("org.h2.Driver");
+        }
+
+        @Override
+        public int getStreamingFetchSize(int rowsPerFetch) {
+            return rowsPerFetch;
+        }
+
+        @Override
+        public String getRowEstimateSql() {
+            return "SELECT ROW_COUNT_ESTIMATE FROM information_schema.TABLES WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = ?";
+        }
+
+        @Override
+        public List<Migration> getMigrations() {
+            return Migrations.embedded();
+        }
+
+        @Override
+        public boolean isEmbedded() {
+            return true;
+        }
+    };
+
+    private final String key;
+
+    StorageBackend(String key) {
+        this.key = key;
+    }
+
+    public static StorageBackend fromKey(String key) {
+        for (StorageBackend backend : values()) {
+            if (backend.key.equalsIgnoreCase(key)) {
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Name used for database.type in config.yml
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Embedded backends keep their file under the plugin data folder and ignore host and port
+     */
+    public abstract String getJdbcUrl(String host, int port, String database, File dataFolder);
+
+    public abstract void configure(HikariConfig config);
+
+    /**
+     * Fetch size for reads that stream a whole table without holding it in memory.
+     * {@code rowsPerFetch} is used by drivers that fetch such reads in batches.
+     */
+    public abstract int getStreamingFetchSize(int rowsPerFetch);
+
+    /**
+     * Cheap row estimate from table statistics, taking the table name as its only parameter
+     */
+    public abstract String getRowEstimateSql();
+
+    public abstract List<Migration> getMigrations();
+
+    /**
+     * Embedded databases belong to a single server: there is no replica, no other server to
+     * coordinate migrations with, and seasons cannot be archived by renaming tables.
+     */
+    public boolean isEmbedded() {
+        return false;
+    }
+}
@@ -0,0 +1,52 @@
+package net.mofucraft.bossbattle.database.migration;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migration that runs DDL first and then copies/transforms existing rows of
+ * {@code sourceTable} in primary key chunks (see {@link MigrationContext#updateInChunks}).
+ * The DDL must be safe to run again, since a failed migration resumes where it stopped.
+ */
+public class DataMigration implements Migration {
+
+    private final int version;
+    private final String description;
+    private final List<String> ddlStatements;
+    private final String sourceTable;
+    private final String chunkSql;
+
+    public DataMigration(int version, String description, List<String> ddlStatements, String sourceTable, String chunkSql) {
+        this.version = version;
+        this.description = description;
+        this.ddlStatements = ddlStatements;
+        this.sourceTable = sourceTable;
+        this.chunkSql = chunkSql;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public long apply(MigrationContext context) throws SQLException {
+        try (Statement stmt = context.getConnection().createStatement()) {
+            for (String sql : ddlStatements) {
+                stmt.execute(sql);
+            }
+        }
+        return context.updateInChunks(version, sourceTable, chunkSql);
+    }
+
+    @Override
+    public long estimateRows(MigrationContext context) throws SQLException {
+        return context.estimateTableRows(sourceTable);
+    }
+}
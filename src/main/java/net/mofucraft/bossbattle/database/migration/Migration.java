@@ -0,0 +1,20 @@
+package net.mofucraft.bossbattle.database.migration;
+
+import java.sql.SQLException;
+
+public interface Migration {
+
+    int getVersion();
+
+    String getDescription();
+
+    /**
+     * Apply this migration. Returns the number of rows touched (0 for pure DDL).
+     */
+    long apply(MigrationContext context) throws SQLException;
+
+    /**
+     * Estimate how many rows applying this migration would touch (used by dry-run mode)
+     */
+    long estimateRows(MigrationContext context) throws SQLException;
+}
@@ -0,0 +1,141 @@
+package net.mofucraft.bossbattle.database.migration;
+
+import net.mofucraft.bossbattle.database.StorageBackend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.logging.Logger;
+
+public class MigrationContext {
+
+    private final Connection connection;
+    private final Logger logger;
+    private final StorageBackend backend;
+    private final int chunkSize;
+    private final long chunkPauseMs;
+
+    public MigrationContext(Connection connection, Logger logger, StorageBackend backend, int chunkSize, long chunkPauseMs) {
+        this.connection = connection;
+        this.logger = logger;
+        this.backend = backend;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunkPauseMs = Math.max(0, chunkPauseMs);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Run a data migration over the primary key range of a table in small committed chunks,
+     * so no single statement holds row locks for long. The SQL must take the lower (inclusive)
+     * and upper (exclusive) id bound as its last two parameters.
+     *
+     * <p>The range is fixed in migration_progress the first time the migration runs, and each
+     * chunk commits together with the id to resume from, so a run that was interrupted and is
+     * retried never applies a chunk twice. Rows added to the table afterwards are above the
+     * fixed range and are left to the live code (see {@link #getBoundary}).
+     */
+    public long updateInChunks(int version, String table, String sql) throws SQLException {
+        long[] range = getProgress(version, table);
+        long boundary = range[0];
+
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+
+        long total = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(sql);
+             PreparedStatement progressStmt = connection.prepareStatement(
+                     "UPDATE migration_progress SET next_id = ? WHERE version = ?")) {
+            for (long from = range[1]; from <= boundary; from += chunkSize) {
+                try {
+                    stmt.setLong(1, from);
+                    stmt.setLong(2, from + chunkSize);
+                    total += stmt.executeUpdate();
+
+                    progressStmt.setLong(1, from + chunkSize);
+                    progressStmt.setInt(2, version);
+                    progressStmt.executeUpdate();
+                    connection.commit();
+                } catch (SQLException e) {
+                    connection.rollback();
+                    throw e;
+                }
+
+                if (chunkPauseMs > 0) {
+                    try {
+                        Thread.sleep(chunkPauseMs);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Chunked migration interrupted", e);
+                    }
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        return total;
+    }
+
+    /**
+     * Highest id a data migration covers, or -1 if it has not started. Read with FOR UPDATE: while
+     * the row is missing this holds its key, so a migration cannot fix its range until the
+     * caller's transaction (which must insert into the table after this call) has committed.
+     */
+    public static long getBoundary(Connection conn, int version) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT boundary_id FROM migration_progress WHERE version = ? FOR UPDATE")) {
+            stmt.setInt(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : -1;
+            }
+        }
+    }
+
+    /**
+     * Cheap row estimate from table statistics (no full scan)
+     */
+    public long estimateTableRows(String table) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(backend.getRowEstimateSql())) {
+            stmt.setString(1, table);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
+            }
+        }
+        return 0;
+    }
+
+    // {boundary (inclusive), id to resume from}; an empty table gives an empty range
+    private long[] getProgress(int version, String table) throws SQLException {
+        String fixSql = "INSERT IGNORE INTO migration_progress (version, boundary_id, next_id) "
+                + "SELECT ?, COALESCE(MAX(id), 0), COALESCE(MIN(id), 1) FROM " + table;
+        try (PreparedStatement stmt = connection.prepareStatement(fixSql)) {
+            stmt.setInt(1, version);
+            stmt.executeUpdate();
+        }
+
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "SELECT boundary_id, next_id FROM migration_progress WHERE version = ?")) {
+            stmt.setInt(1, version);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("Migration progress of V" + version + " was not stored");
+                }
+                return new long[]{rs.getLong("boundary_id"), rs.getLong("next_id")};
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package net.mofucraft.bossbattle.database.migration;
+
+import net.mofucraft.bossbattle.database.StorageBackend;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class MigrationRunner {
+
+    // Serializes migrations when several servers share one database
+    private static final String LOCK_NAME = "mofubossbattle_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+    private final Logger logger;
+    private final StorageBackend backend;
+    private final List<Migration> migrations;
+
+    public MigrationRunner(Logger logger, StorageBackend backend, List<Migration> migrations) {
+        this.logger = logger;
+        this.backend = backend;
+        this.migrations = new ArrayList<>(migrations);
+        this.migrations.sort(Comparator.comparingInt(Migration::getVersion));
+    }
+
+    /**
+     * Apply all pending migrations in version order. In dry-run mode nothing is changed;
+     * pending migrations are only listed with their estimated row counts.
+     *
+     * @return the schema version after running (unchanged in dry-run mode)
+     * @throws SQLException if a migration failed or another server held the migration lock
+     *                      for too long; the schema is then not up to date
+     */
+    public int run(Connection conn, boolean dryRun, int chunkSize, long chunkPauseMs) throws SQLException {
+        createVersionTable(conn);
+
+        if (!acquireLock(conn)) {
+            throw new SQLException("Another server is still migrating the schema after " + LOCK_TIMEOUT_SECONDS + "s");
+        }
+
+        try {
+            Set<Integer> applied = getAppliedVersions(conn);
+            MigrationContext context = new MigrationContext(conn, logger, backend, chunkSize, chunkPauseMs);
+            long estimatedTotal = 0;
+            int pending = 0;
+
+            for (Migration migration : migrations) {
+                if (applied.contains(migration.getVersion())) {
+                    continue;
+                }
+                pending++;
+
+                if (dryRun) {
+                    long estimate = migration.estimateRows(context);
+                    estimatedTotal += estimate;
+                    logger.info(String.format("[dry-run] V%d %s: ~%d row(s) would be touched",
+                            migration.getVersion(), migration.getDescription(), estimate));
+                    continue;
+                }
+
+                logger.info("Applying schema migration V" + migration.getVersion() + ": " + migration.getDescription());
+                long start = System.currentTimeMillis();
+                long rows;
+                try {
+                    rows = migration.apply(context);
+                } catch (SQLException e) {
+                    // Later migrations may depend on this one, so stop here
+                    throw new SQLException("Schema migration V" + migration.getVersion() + " failed", e);
+                }
+                long elapsed = System.currentTimeMillis() - start;
+                recordVersion(conn, migration, elapsed, rows);
+                logger.info(String.format("Schema migration V%d applied in %dms (%d row(s))",
+                        migration.getVersion(), elapsed, rows));
+            }
+
+            if (dryRun) {
+                logger.info(String.format("[dry-run] %d pending migration(s), ~%d row(s) in total", pending, estimatedTotal));
+            } else if (pending == 0) {
+                logger.info("Database schema is up to date.");
+            }
+
+            return getCurrentVersion(conn);
+        } finally {
+            releaseLock(conn);
+        }
+    }
+
+    private void createVersionTable(Connection conn) throws SQLException {
+        String sql = """
+                CREATE TABLE IF NOT EXISTS schema_version (
+                    version INT PRIMARY KEY,
+                    description VARCHAR(255) NOT NULL,
+                    execution_ms BIGINT NOT NULL,
+                    rows_affected BIGINT NOT NULL,
+                    applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                """;
+
+        // Range and resume point of each chunked data migration
+        String progressSql = """
+                CREATE TABLE IF NOT EXISTS migration_progress (
+                    version INT PRIMARY KEY,
+                    boundary_id BIGINT NOT NULL,
+                    next_id BIGINT NOT NULL
+                ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+                """;
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            stmt.execute(progressSql);
+        }
+    }
+
+    private Set<Integer> getAppliedVersions(Connection conn) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT version FROM schema_version")) {
+            while (rs.next()) {
+                versions.add(rs.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    private int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        }
+        return 0;
+    }
+
+    private void recordVersion(Connection conn, Migration migration, long elapsedMs, long rows) throws SQLException {
+        String sql = "INSERT INTO schema_version (version, description, execution_ms, rows_affected) VALUES (?, ?, ?, ?)";
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, migration.getVersion());
+            stmt.setString(2, migration.getDescription());
+            stmt.setLong(3, elapsedMs);
+            stmt.setLong(4, rows);
+            stmt.executeUpdate();
+        }
+    }
+
+    private boolean acquireLock(Connection conn) throws SQLException {
+        // An embedded database file is opened by this server only
+        if (backend.isEmbedded()) {
+            return true;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void releaseLock(Connection conn) {
+        if (backend.isEmbedded()) {
+            return;
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to release schema migration lock", e);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package net.mofucraft.bossbattle.database.migration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ordered list of schema migrations. Never edit a migration once released -
+ * add a new version instead.
+ */
+public final class Migrations {
+
+    private static final String CREATE_RANKINGS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_rankings (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                clear_time_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                INDEX idx_boss_time (boss_id, clear_time_ms ASC),
+                INDEX idx_player_boss (player_uuid, boss_id),
+                INDEX idx_recorded_at (recorded_at)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    private static final String CREATE_HISTORY_TABLE = """
+            CREATE TABLE IF NOT EXISTS battle_history (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                result VARCHAR(16) NOT NULL,
+                duration_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                INDEX idx_player (player_uuid),
+                INDEX idx_boss (boss_id),
+                INDEX idx_recorded_at (recorded_at)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // One row per player and boss holding the personal best. The secondary index covers
+    // leaderboard reads so keyset pagination never touches the clustered index.
+    private static final String CREATE_PERSONAL_BESTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_personal_bests (
+                boss_id VARCHAR(64) NOT NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                best_time_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (boss_id, player_uuid),
+                INDEX idx_boss_best (boss_id, best_time_ms, player_uuid, player_name, recorded_at),
+                INDEX idx_player (player_uuid)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Selected through a derived table, since boss_rankings shares the column names the update
+    // refers to. best_time_ms must be assigned last: MySQL evaluates the assignments left to right
+    private static final String BACKFILL_PERSONAL_BESTS = """
+            INSERT INTO boss_personal_bests (boss_id, player_uuid, player_name, best_time_ms, recorded_at)
+            SELECT chunk_boss_id, chunk_player_uuid, chunk_name, chunk_time, chunk_recorded_at FROM (
+                SELECT id AS chunk_id, boss_id AS chunk_boss_id, player_uuid AS chunk_player_uuid,
+                    player_name AS chunk_name, clear_time_ms AS chunk_time, recorded_at AS chunk_recorded_at
+                FROM boss_rankings
+                WHERE id >= ? AND id < ?
+            ) AS chunk
+            ORDER BY chunk_id
+            ON DUPLICATE KEY UPDATE
+                player_name = VALUES(player_name),
+                recorded_at = IF(VALUES(best_time_ms) < best_time_ms, VALUES(recorded_at), recorded_at),
+                best_time_ms = LEAST(best_time_ms, VALUES(best_time_ms))
+            """;
+
+    // Progress of resumable imports, updated in the same transaction as each imported batch
+    private static final String CREATE_IMPORT_CHECKPOINTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS data_import_checkpoints (
+                source VARCHAR(255) NOT NULL PRIMARY KEY,
+                file_size BIGINT NOT NULL,
+                lines_done BIGINT NOT NULL,
+                completed BOOLEAN NOT NULL DEFAULT FALSE,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Archived seasons and the tables their rankings were renamed to
+    private static final String CREATE_SEASONS_TABLE = """
+            CREATE TABLE IF NOT EXISTS ranking_seasons (
+                name VARCHAR(32) NOT NULL PRIMARY KEY,
+                rankings_table VARCHAR(64) NOT NULL,
+                personal_bests_table VARCHAR(64) NOT NULL,
+                archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Best time per player and boss within each daily/weekly/monthly period, upserted on save.
+    // The secondary index covers the keyset leaderboard of a single period.
+    private static final String CREATE_PERIOD_BESTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_period_bests (
+                period_type VARCHAR(8) NOT NULL,
+                period_start DATE NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                best_time_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (period_type, period_start, boss_id, player_uuid),
+                INDEX idx_period_best (period_type, period_start, boss_id, best_time_ms, player_uuid, player_name, recorded_at),
+                INDEX idx_boss (boss_id),
+                INDEX idx_player (player_uuid)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Client-generated id per battle result, so a write retried from the outbox is stored once
+    private static final String ADD_RANKINGS_BATTLE_ID = """
+            ALTER TABLE boss_rankings
+                ADD COLUMN battle_id CHAR(36) NULL AFTER id,
+                ADD UNIQUE INDEX uk_battle_id (battle_id)
+            """;
+
+    private static final String ADD_HISTORY_BATTLE_ID = """
+            ALTER TABLE battle_history
+                ADD COLUMN battle_id CHAR(36) NULL AFTER id,
+                ADD UNIQUE INDEX uk_battle_id (battle_id)
+            """;
+
+    // Per player and boss battle counters, upserted together with every history row
+    private static final String CREATE_PLAYER_STATS_TABLE = """
+            CREATE TABLE IF NOT EXISTS player_boss_stats (
+                player_uuid VARCHAR(36) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                attempts INT NOT NULL DEFAULT 0,
+                victories INT NOT NULL DEFAULT 0,
+                defeats INT NOT NULL DEFAULT 0,
+                timeouts INT NOT NULL DEFAULT 0,
+                logouts INT NOT NULL DEFAULT 0,
+                total_duration_ms BIGINT NOT NULL DEFAULT 0,
+                victory_duration_ms BIGINT NOT NULL DEFAULT 0,
+                PRIMARY KEY (player_uuid, boss_id),
+                INDEX idx_boss (boss_id)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Each history chunk is aggregated first and added onto the counters; the derived table
+    // keeps the aggregate names apart from the columns being updated. Rows above the backfill
+    // range are counted by the live writes, whose player name is newer, so it is kept.
+    private static final String BACKFILL_PLAYER_STATS = """
+            INSERT INTO player_boss_stats (player_uuid, boss_id, player_name, attempts, victories, defeats,
+                timeouts, logouts, total_duration_ms, victory_duration_ms)
+            SELECT * FROM (
+                SELECT player_uuid, boss_id, MAX(player_name) AS chunk_name, COUNT(*) AS chunk_attempts,
+                    SUM(CASE WHEN result IN ('VICTORY', 'SURVIVAL') THEN 1 ELSE 0 END) AS chunk_victories,
+                    SUM(CASE WHEN result = 'DEFEAT' THEN 1 ELSE 0 END) AS chunk_defeats,
+                    SUM(CASE WHEN result = 'TIMEOUT' THEN 1 ELSE 0 END) AS chunk_timeouts,
+                    SUM(CASE WHEN result = 'LOGOUT' THEN 1 ELSE 0 END) AS chunk_logouts,
+                    SUM(duration_ms) AS chunk_duration,
+                    SUM(CASE WHEN result IN ('VICTORY', 'SURVIVAL') THEN duration_ms ELSE 0 END) AS chunk_victory_duration
+                FROM battle_history
+                WHERE id >= ? AND id < ?
+                GROUP BY player_uuid, boss_id
+            ) AS chunk
+            ON DUPLICATE KEY UPDATE
+                attempts = attempts + VALUES(attempts),
+                victories = victories + VALUES(victories),
+                defeats = defeats + VALUES(defeats),
+                timeouts = timeouts + VALUES(timeouts),
+                logouts = logouts + VALUES(logouts),
+                total_duration_ms = total_duration_ms + VALUES(total_duration_ms),
+                victory_duration_ms = victory_duration_ms + VALUES(victory_duration_ms)
+            """;
+
+    // Hourly per-boss aggregates of battle_history. hour_start is a UTC DATETIME so it is never
+    // shifted by the session timezone or auto-updated like a TIMESTAMP can be.
+    private static final String CREATE_HOURLY_ROLLUPS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_hourly_rollups (
+                boss_id VARCHAR(64) NOT NULL,
+                hour_start DATETIME NOT NULL,
+                attempts INT NOT NULL,
+                victories INT NOT NULL,
+                defeats INT NOT NULL,
+                timeouts INT NOT NULL,
+                logouts INT NOT NULL,
+                total_duration_ms BIGINT NOT NULL,
+                victory_sketch VARBINARY(4096) NOT NULL,
+                failure_sketch VARBINARY(4096) NOT NULL,
+                PRIMARY KEY (boss_id, hour_start)
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // How far each background job has processed its source table (UTC)
+    private static final String CREATE_WATERMARKS_TABLE = """
+            CREATE TABLE IF NOT EXISTS rollup_watermarks (
+                name VARCHAR(64) NOT NULL PRIMARY KEY,
+                watermark DATETIME NOT NULL
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Covers /boss history: a player's battles newest first, with every displayed column in
+    // the index. Replaces idx_player, which is its prefix.
+    private static final String ADD_HISTORY_PLAYER_RECENT_INDEX = """
+            ALTER TABLE battle_history
+                ADD INDEX idx_player_recent (player_uuid, recorded_at, id, boss_id, result, duration_ms),
+                DROP INDEX idx_player
+            """;
+
+    // Name lookups for commands targeting offline players; the unicode_ci collation already
+    // makes them case-insensitive
+    private static final String ADD_PLAYER_STATS_NAME_INDEX = """
+            ALTER TABLE player_boss_stats ADD INDEX idx_player_name (player_name)
+            """;
+
+    // Rows moved out of battle_history by the retention job. Only read by hand, so it has no
+    // secondary indexes, and the pages are compressed since rows are written once.
+    private static final String CREATE_HISTORY_ARCHIVE_TABLE = """
+            CREATE TABLE IF NOT EXISTS battle_history_archive (
+                id BIGINT NOT NULL PRIMARY KEY,
+                battle_id CHAR(36) NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                result VARCHAR(16) NOT NULL,
+                duration_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP NULL
+            ) ENGINE=InnoDB ROW_FORMAT=COMPRESSED DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+            """;
+
+    // Embedded (H2) schema. Index names are unique per schema in H2, so they carry the table name.
+    private static final String CREATE_EMBEDDED_RANKINGS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_rankings (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                battle_id CHAR(36) NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                clear_time_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                CONSTRAINT uk_rankings_battle_id UNIQUE (battle_id)
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_HISTORY_TABLE = """
+            CREATE TABLE IF NOT EXISTS battle_history (
+                id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                battle_id CHAR(36) NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                result VARCHAR(16) NOT NULL,
+                duration_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                CONSTRAINT uk_history_battle_id UNIQUE (battle_id)
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_PERSONAL_BESTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_personal_bests (
+                boss_id VARCHAR(64) NOT NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                best_time_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (boss_id, player_uuid)
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_IMPORT_CHECKPOINTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS data_import_checkpoints (
+                source VARCHAR(255) NOT NULL PRIMARY KEY,
+                file_size BIGINT NOT NULL,
+                lines_done BIGINT NOT NULL,
+                completed BOOLEAN NOT NULL DEFAULT FALSE,
+                updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_SEASONS_TABLE = """
+            CREATE TABLE IF NOT EXISTS ranking_seasons (
+                name VARCHAR(32) NOT NULL PRIMARY KEY,
+                rankings_table VARCHAR(64) NOT NULL,
+                personal_bests_table VARCHAR(64) NOT NULL,
+                archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_PERIOD_BESTS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_period_bests (
+                period_type VARCHAR(8) NOT NULL,
+                period_start DATE NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                best_time_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (period_type, period_start, boss_id, player_uuid)
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_PLAYER_STATS_TABLE = """
+            CREATE TABLE IF NOT EXISTS player_boss_stats (
+                player_uuid VARCHAR(36) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                attempts INT NOT NULL DEFAULT 0,
+                victories INT NOT NULL DEFAULT 0,
+                defeats INT NOT NULL DEFAULT 0,
+                timeouts INT NOT NULL DEFAULT 0,
+                logouts INT NOT NULL DEFAULT 0,
+                total_duration_ms BIGINT NOT NULL DEFAULT 0,
+                victory_duration_ms BIGINT NOT NULL DEFAULT 0,
+                PRIMARY KEY (player_uuid, boss_id)
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_HOURLY_ROLLUPS_TABLE = """
+            CREATE TABLE IF NOT EXISTS boss_hourly_rollups (
+                boss_id VARCHAR(64) NOT NULL,
+                hour_start DATETIME NOT NULL,
+                attempts INT NOT NULL,
+                victories INT NOT NULL,
+                defeats INT NOT NULL,
+                timeouts INT NOT NULL,
+                logouts INT NOT NULL,
+                total_duration_ms BIGINT NOT NULL,
+                victory_sketch VARBINARY(4096) NOT NULL,
+                failure_sketch VARBINARY(4096) NOT NULL,
+                PRIMARY KEY (boss_id, hour_start)
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_WATERMARKS_TABLE = """
+            CREATE TABLE IF NOT EXISTS rollup_watermarks (
+                name VARCHAR(64) NOT NULL PRIMARY KEY,
+                watermark DATETIME NOT NULL
+            )
+            """;
+
+    private static final String CREATE_EMBEDDED_HISTORY_ARCHIVE_TABLE = """
+            CREATE TABLE IF NOT EXISTS battle_history_archive (
+                id BIGINT NOT NULL PRIMARY KEY,
+                battle_id CHAR(36) NULL,
+                player_uuid VARCHAR(36) NOT NULL,
+                player_name VARCHAR(16) NOT NULL,
+                boss_id VARCHAR(64) NOT NULL,
+                result VARCHAR(16) NOT NULL,
+                duration_ms BIGINT NOT NULL,
+                recorded_at TIMESTAMP NULL
+            )
+            """;
+
+    private static final List<String> EMBEDDED_INDEXES = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_rankings_boss_time ON boss_rankings (boss_id, clear_time_ms)",
+            "CREATE INDEX IF NOT EXISTS idx_rankings_player_boss ON boss_rankings (player_uuid, boss_id)",
+            "CREATE INDEX IF NOT EXISTS idx_rankings_recorded_at ON boss_rankings (recorded_at)",
+            "CREATE INDEX IF NOT EXISTS idx_history_player ON battle_history (player_uuid)",
+            "CREATE INDEX IF NOT EXISTS idx_history_boss ON battle_history (boss_id)",
+            "CREATE INDEX IF NOT EXISTS idx_history_recorded_at ON battle_history (recorded_at)",
+            "CREATE INDEX IF NOT EXISTS idx_bests_boss_best ON boss_personal_bests (boss_id, best_time_ms, player_uuid, player_name, recorded_at)",
+            "CREATE INDEX IF NOT EXISTS idx_bests_player ON boss_personal_bests (player_uuid)",
+            "CREATE INDEX IF NOT EXISTS idx_period_best ON boss_period_bests (period_type, period_start, boss_id, best_time_ms, player_uuid, player_name, recorded_at)",
+            "CREATE INDEX IF NOT EXISTS idx_period_boss ON boss_period_bests (boss_id)",
+            "CREATE INDEX IF NOT EXISTS idx_period_player ON boss_period_bests (player_uuid)"
+    );
+
+    private Migrations() {
+    }
+
+    public static List<Migration> all() {
+        return List.of(
+                // V1 matches the tables created before versioning existed, so it is safe to
+                // run against databases that already have them
+                new SqlMigration(1, "Initial schema",
+                        List.of(CREATE_RANKINGS_TABLE, CREATE_HISTORY_TABLE),
+                        List.of()),
+                new DataMigration(2, "Personal best table for keyset leaderboards",
+                        List.of(CREATE_PERSONAL_BESTS_TABLE),
+                        "boss_rankings",
+                        BACKFILL_PERSONAL_BESTS),
+                new SqlMigration(3, "Import checkpoints",
+                        List.of(CREATE_IMPORT_CHECKPOINTS_TABLE),
+                        List.of()),
+                new SqlMigration(4, "Ranking seasons",
+                        List.of(CREATE_SEASONS_TABLE),
+                        List.of()),
+                new SqlMigration(5, "Daily/weekly/monthly personal bests",
+                        List.of(CREATE_PERIOD_BESTS_TABLE),
+                        List.of()),
+                new SqlMigration(6, "Battle ids for idempotent writes",
+                        List.of(ADD_RANKINGS_BATTLE_ID, ADD_HISTORY_BATTLE_ID),
+                        List.of("boss_rankings", "battle_history")),
+                new DataMigration(7, "Per player battle stats",
+                        List.of(CREATE_PLAYER_STATS_TABLE),
+                        "battle_history",
+                        BACKFILL_PLAYER_STATS),
+                // Filled by the rollup job from its watermark, not by the migration
+                new SqlMigration(8, "Hourly battle rollups",
+                        List.of(CREATE_HOURLY_ROLLUPS_TABLE, CREATE_WATERMARKS_TABLE),
+                        List.of()),
+                new SqlMigration(9, "Battle history archive",
+                        List.of(CREATE_HISTORY_ARCHIVE_TABLE),
+                        List.of()),
+                new SqlMigration(10, "Covering index for player history",
+                        List.of(ADD_HISTORY_PLAYER_RECENT_INDEX),
+                        List.of("battle_history")),
+                new SqlMigration(11, "Player name lookups",
+                        List.of(ADD_PLAYER_STATS_NAME_INDEX),
+                        List.of("player_boss_stats"))
+        );
+    }
+
+    /**
+     * Migrations for the embedded backend. A new embedded database has no history to upgrade,
+     * so it starts directly at the MySQL schema version it matches; later versions must be
+     * added to both lists.
+     */
+    public static List<Migration> embedded() {
+        List<String> statements = new ArrayList<>(List.of(
+                CREATE_EMBEDDED_RANKINGS_TABLE,
+                CREATE_EMBEDDED_HISTORY_TABLE,
+                CREATE_EMBEDDED_PERSONAL_BESTS_TABLE,
+                CREATE_EMBEDDED_IMPORT_CHECKPOINTS_TABLE,
+                CREATE_EMBEDDED_SEASONS_TABLE,
+                CREATE_EMBEDDED_PERIOD_BESTS_TABLE));
+        statements.addAll(EMBEDDED_INDEXES);
+
+        return List.of(
+                new SqlMigration(6, "Embedded schema",
+                        statements,
+                        List.of()),
+                new DataMigration(7, "Per player battle stats",
+                        List.of(CREATE_EMBEDDED_PLAYER_STATS_TABLE,
+                                "CREATE INDEX IF NOT EXISTS idx_stats_boss ON player_boss_stats (boss_id)"),
+                        "battle_history",
+                        BACKFILL_PLAYER_STATS),
+                new SqlMigration(8, "Hourly battle rollups",
+                        List.of(CREATE_EMBEDDED_HOURLY_ROLLUPS_TABLE, CREATE_EMBEDDED_WATERMARKS_TABLE),
+                        List.of()),
+                new SqlMigration(9, "Battle history archive",
+                        List.of(CREATE_EMBEDDED_HISTORY_ARCHIVE_TABLE),
+                        List.of()),
+                new SqlMigration(10, "Covering index for player history",
+                        List.of("CREATE INDEX IF NOT EXISTS idx_history_player_recent ON battle_history "
+                                        + "(player_uuid, recorded_at, id, boss_id, result, duration_ms)",
+                                "DROP INDEX IF EXISTS idx_history_player"),
+                        List.of("battle_history")),
+                // H2 compares case-sensitively, so the column is made to match like MySQL's collation
+                new SqlMigration(11, "Player name lookups",
+                        List.of("ALTER TABLE player_boss_stats ALTER COLUMN player_name SET DATA TYPE VARCHAR_IGNORECASE(16)",
+                                "CREATE INDEX IF NOT EXISTS idx_stats_player_name ON player_boss_stats (player_name)"),
+                        List.of("player_boss_stats"))
+        );
+    }
+}
@@ -0,0 +1,53 @@
+package net.mofucraft.bossbattle.database.migration;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Migration made of plain DDL statements. Tables listed in {@code affectedTables}
+ * are used to estimate how many rows an ALTER/CREATE INDEX has to rebuild.
+ */
+public class SqlMigration implements Migration {
+
+    private final int version;
+    private final String description;
+    private final List<String> statements;
+    private final List<String> affectedTables;
+
+    public SqlMigration(int version, String description, List<String> statements, List<String> affectedTables) {
+        this.version = version;
+        this.description = description;
+        this.statements = statements;
+        this.affectedTables = affectedTables;
+    }
+
+    @Override
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public long apply(MigrationContext context) throws SQLException {
+        try (Statement stmt = context.getConnection().createStatement()) {
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public long estimateRows(MigrationContext context) throws SQLException {
+        long total = 0;
+        for (String table : affectedTables) {
+            total += context.estimateTableRows(table);
+        }
+        return total;
+    }
+}
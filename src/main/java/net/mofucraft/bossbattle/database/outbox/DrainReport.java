@@ -0,0 +1,53 @@
+package net.mofucraft.bossbattle.database.outbox;
+
+/**
+ * What happened to the battle results still being written when the plugin shut down
+ */
+public class DrainReport {
+
+    private final int flushed;
+    private final int spilled;
+    private final int lost;
+    private final long durationMillis;
+
+    public DrainReport(int flushed, int spilled, int lost, long durationMillis) {
+        this.flushed = flushed;
+        this.spilled = spilled;
+        this.lost = lost;
+        this.durationMillis = durationMillis;
+    }
+
+    /**
+     * Writes that reached the database
+     */
+    public int getFlushed() {
+        return flushed;
+    }
+
+    /**
+     * Writes kept in the outbox journal, replayed on the next start
+     */
+    public int getSpilled() {
+        return spilled;
+    }
+
+    /**
+     * Writes that could be neither stored nor journaled
+     */
+    public int getLost() {
+        return lost;
+    }
+
+    public int getTotal() {
+        return flushed + spilled + lost;
+    }
+
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public String format() {
+        return String.format("%d pending battle result(s): %d flushed, %d spilled to the outbox, %d lost (%dms)",
+                getTotal(), flushed, spilled, lost, durationMillis);
+    }
+}
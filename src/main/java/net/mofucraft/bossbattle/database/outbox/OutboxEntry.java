@@ -0,0 +1,138 @@
+package net.mofucraft.bossbattle.database.outbox;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.UUID;
+
+/**
+ * One battle result waiting to be written: a clear (ranking record and history row together),
+ * or a ranking record or history row on its own.
+ * The battle id is generated before the first write attempt, so a result that reached
+ * the database before its write timed out is recognised and skipped on replay.
+ */
+public class OutboxEntry {
+
+    public enum Type {
+        RESULT,
+        RECORD,
+        HISTORY
+    }
+
+    private final Type type;
+    private final UUID battleId;
+    private final UUID playerId;
+    private final String playerName;
+    private final String bossId;
+    private final String result;
+    private final long timeMillis;
+    private final long recordedAt;
+
+    private OutboxEntry(Type type, UUID battleId, UUID playerId, String playerName, String bossId,
+                        String result, long timeMillis, long recordedAt) {
+        this.type = type;
+        this.battleId = battleId;
+        this.playerId = playerId;
+        this.playerName = playerName;
+        this.bossId = bossId;
+        this.result = result;
+        this.timeMillis = timeMillis;
+        this.recordedAt = recordedAt;
+    }
+
+    public static OutboxEntry result(UUID battleId, UUID playerId, String playerName, String bossId,
+                                     String result, long clearTimeMs, long recordedAt) {
+        return new OutboxEntry(Type.RESULT, battleId, playerId, playerName, bossId, result, clearTimeMs, recordedAt);
+    }
+
+    public static OutboxEntry record(UUID battleId, UUID playerId, String playerName, String bossId,
+                                     long clearTimeMs, long recordedAt) {
+        return new OutboxEntry(Type.RECORD, battleId, playerId, playerName, bossId, null, clearTimeMs, recordedAt);
+    }
+
+    public static OutboxEntry history(UUID battleId, UUID playerId, String playerName, String bossId,
+                                      String result, long durationMs, long recordedAt) {
+        return new OutboxEntry(Type.HISTORY, battleId, playerId, playerName, bossId, result, durationMs, recordedAt);
+    }
+
+    /**
+     * Parse a journal line. Throws IllegalArgumentException (or a Gson exception) for a
+     * malformed line, e.g. one torn by a crash mid-write.
+     */
+    public static OutboxEntry parse(String line) {
+        JsonElement element = JsonParser.parseString(line);
+        if (!element.isJsonObject()) {
+            throw new IllegalArgumentException("Expected a JSON object per line");
+        }
+
+        JsonObject object = element.getAsJsonObject();
+        Type type = Type.valueOf(object.get("type").getAsString());
+        JsonElement result = object.get("result");
+        return new OutboxEntry(type,
+                UUID.fromString(object.get("battle_id").getAsString()),
+                UUID.fromString(object.get("player_uuid").getAsString()),
+                object.get("player_name").getAsString(),
+                object.get("boss_id").getAsString(),
+                result == null || result.isJsonNull() ? null : result.getAsString(),
+                object.get("time_ms").getAsLong(),
+                object.get("recorded_at").getAsLong());
+    }
+
+    public String toJson() {
+        JsonObject object = new JsonObject();
+        object.addProperty("type", type.name());
+        object.addProperty("battle_id", battleId.toString());
+        object.addProperty("player_uuid", playerId.toString());
+        object.addProperty("player_name", playerName);
+        object.addProperty("boss_id", bossId);
+        if (result != null) {
+            object.addProperty("result", result);
+        }
+        object.addProperty("time_ms", timeMillis);
+        object.addProperty("recorded_at", recordedAt);
+        return object.toString();
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public UUID getBattleId() {
+        return battleId;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getPlayerName() {
+        return playerName;
+    }
+
+    public String getBossId() {
+        return bossId;
+    }
+
+    /**
+     * Battle result for clears and history rows, null for ranking records
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * Clear time for clears and ranking records, battle duration for history rows
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getRecordedAt() {
+        return recordedAt;
+    }
+
+    public String describe() {
+        return type.name().toLowerCase() + " " + battleId + " (" + playerName + ", " + bossId + ")";
+    }
+}
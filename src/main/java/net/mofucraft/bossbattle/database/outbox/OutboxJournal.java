@@ -0,0 +1,300 @@
+package net.mofucraft.bossbattle.database.outbox;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only local journal for battle results the database did not accept. A single writer
+ * thread appends whatever has queued up since its last write and fsyncs once for the whole
+ * batch, so a burst of failed saves costs one disk flush rather than one per result.
+ * An append's future completes only after its line is on disk.
+ */
+public class OutboxJournal {
+
+    private static final String ACTIVE_FILE = "journal.ndjson";
+    private static final String SEGMENT_PREFIX = "replay-";
+    static final String DEAD_LETTER_FILE = "dead-letter.ndjson";
+    private static final int MAX_BATCH = 256;
+
+    private final File directory;
+    private final Logger logger;
+    private final BlockingQueue<PendingAppend> queue;
+    private final Object fileLock;
+
+    private final AtomicLong pendingEntries;
+    private final AtomicLong appendedTotal;
+    private final AtomicLong syncsTotal;
+    private final AtomicLong failedTotal;
+
+    // Guarded by fileLock
+    private FileChannel channel;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OutboxJournal(File directory, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.queue = new LinkedBlockingQueue<>();
+        this.fileLock = new Object();
+        this.pendingEntries = new AtomicLong();
+        this.appendedTotal = new AtomicLong();
+        this.syncsTotal = new AtomicLong();
+        this.failedTotal = new AtomicLong();
+    }
+
+    /**
+     * Open the active journal file, count entries left over from a previous run and start the writer
+     */
+    public void open() throws IOException {
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        long leftover = 0;
+        for (File file : getJournalFiles()) {
+            leftover += countLines(file);
+        }
+        pendingEntries.set(leftover);
+        if (leftover > 0) {
+            logger.info("Outbox holds " + leftover + " battle results from a previous run, they will be replayed");
+        }
+
+        synchronized (fileLock) {
+            channel = openActive();
+        }
+
+        running = true;
+        writer = new Thread(this::writeLoop, "MofuBossBattle-Outbox");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Void> append(OutboxEntry entry) {
+        PendingAppend pending = new PendingAppend(entry);
+        if (!running) {
+            failedTotal.incrementAndGet();
+            pending.future.completeExceptionally(new IOException("Outbox journal is closed"));
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * Seal the active file as a replay segment and start a fresh one, then return every segment
+     * waiting to be replayed, oldest first. New appends are never mixed into a segment being replayed.
+     */
+    public List<File> rotate() throws IOException {
+        synchronized (fileLock) {
+            File active = new File(directory, ACTIVE_FILE);
+            if (channel != null && channel.size() > 0) {
+                channel.close();
+                long stamp = System.currentTimeMillis();
+                File segment;
+                while ((segment = new File(directory, SEGMENT_PREFIX + stamp + ".ndjson")).exists()) {
+                    stamp++;
+                }
+                Files.move(active.toPath(), segment.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                channel = openActive();
+            }
+        }
+        return getSegments();
+    }
+
+    /**
+     * A segment has been fully written to the database; remove it
+     */
+    public void segmentReplayed(File segment, long entries) throws IOException {
+        Files.deleteIfExists(segment.toPath());
+        pendingEntries.addAndGet(-entries);
+    }
+
+    /**
+     * Keep an entry the database rejected for good in the dead-letter file, where it is never
+     * replayed but can be inspected and fixed by hand
+     */
+    public void deadLetter(String line) throws IOException {
+        Files.writeString(new File(directory, DEAD_LETTER_FILE).toPath(), line + "\n", StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    public boolean hasPendingEntries() {
+        return pendingEntries.get() > 0;
+    }
+
+    public long getPendingEntries() {
+        return pendingEntries.get();
+    }
+
+    public long getSizeBytes() {
+        long bytes = 0;
+        for (File file : getJournalFiles()) {
+            bytes += file.length();
+        }
+        return bytes;
+    }
+
+    public Map<String, Number> getGauges() {
+        Map<String, Number> gauges = new LinkedHashMap<>();
+        gauges.put("outbox_pending_entries", pendingEntries.get());
+        gauges.put("outbox_size_bytes", getSizeBytes());
+        gauges.put("outbox_appended_total", appendedTotal.get());
+        gauges.put("outbox_fsyncs_total", syncsTotal.get());
+        gauges.put("outbox_append_failures_total", failedTotal.get());
+        return gauges;
+    }
+
+    /**
+     * Write everything still queued, then stop the writer and close the file
+     */
+    public void close() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (fileLock) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Failed to close outbox journal", e);
+                }
+                channel = null;
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (running || !queue.isEmpty()) {
+            PendingAppend first;
+            try {
+                first = queue.poll(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+
+            List<PendingAppend> batch = new ArrayList<>();
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            writeBatch(batch);
+        }
+
+        // Anything left after an interrupt is reported as failed rather than silently dropped
+        List<PendingAppend> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (PendingAppend pending : remaining) {
+            failedTotal.incrementAndGet();
+            pending.future.completeExceptionally(new IOException("Outbox journal closed before the entry was written"));
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch) {
+        StringBuilder lines = new StringBuilder();
+        for (PendingAppend pending : batch) {
+            lines.append(pending.entry.toJson()).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        try {
+            synchronized (fileLock) {
+                if (channel == null) {
+                    throw new IOException("Outbox journal is closed");
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+            }
+            syncsTotal.incrementAndGet();
+            appendedTotal.addAndGet(batch.size());
+            pendingEntries.addAndGet(batch.size());
+            for (PendingAppend pending : batch) {
+                pending.future.complete(null);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to write " + batch.size() + " battle results to the outbox journal", e);
+            failedTotal.addAndGet(batch.size());
+            for (PendingAppend pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private FileChannel openActive() throws IOException {
+        return FileChannel.open(new File(directory, ACTIVE_FILE).toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private List<File> getSegments() {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(".ndjson"));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        // Segment names carry the rotation time, so name order is replay order
+        List<File> segments = new ArrayList<>(Arrays.asList(files));
+        segments.sort(Comparator.comparing(File::getName));
+        return segments;
+    }
+
+    private List<File> getJournalFiles() {
+        List<File> files = getSegments();
+        File active = new File(directory, ACTIVE_FILE);
+        if (active.exists()) {
+            files.add(active);
+        }
+        return files;
+    }
+
+    private static long countLines(File file) throws IOException {
+        long lines = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static class PendingAppend {
+        final OutboxEntry entry;
+        final CompletableFuture<Void> future;
+
+        PendingAppend(OutboxEntry entry) {
+            this.entry = entry;
+            this.future = new CompletableFuture<>();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.mofucraft.bossbattle.database.outbox;
+
+import net.mofucraft.bossbattle.database.RankingStore;
+import net.mofucraft.bossbattle.database.RetryPolicy;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Drains the outbox journal into the database. Entries are written with their original battle
+ * id, so replaying a segment again after a partial failure never duplicates a result.
+ */
+public class OutboxReplayer {
+
+    private final OutboxJournal journal;
+    private final RankingStore repository;
+    private final Logger logger;
+    private final AtomicBoolean running;
+
+    private final AtomicLong replayedTotal;
+    private final AtomicLong corruptTotal;
+    private final AtomicLong deadLetterTotal;
+    private volatile long lastRunReplayed;
+    private volatile long lastRunDurationMs;
+    private volatile String lastError;
+
+    public OutboxReplayer(OutboxJournal journal, RankingStore repository, Logger logger) {
+        this.journal = journal;
+        this.repository = repository;
+        this.logger = logger;
+        this.running = new AtomicBoolean();
+        this.replayedTotal = new AtomicLong();
+        this.corruptTotal = new AtomicLong();
+        this.deadLetterTotal = new AtomicLong();
+    }
+
+    /**
+     * Replay every journaled entry on the calling thread, stopping at the first transient failure
+     * (the database is still unavailable). Entries the database rejects for good are moved to the
+     * dead-letter file so they cannot hold up the rest. Returns the number of entries written, or
+     * -1 if a pass is already running.
+     */
+    public long replay() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long replayed = 0;
+        long deadLettered = 0;
+        try {
+            for (File segment : journal.rotate()) {
+                long lines = 0;
+                try (BufferedReader reader = Files.newBufferedReader(segment.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (line.isBlank()) {
+                            continue;
+                        }
+                        lines++;
+
+                        OutboxEntry entry;
+                        try {
+                            entry = OutboxEntry.parse(line);
+                        } catch (RuntimeException e) {
+                            // Most likely the last line of a journal torn by a crash
+                            corruptTotal.incrementAndGet();
+                            logger.warning("Skipping unreadable outbox entry in " + segment.getName() + ": " + line);
+                            continue;
+                        }
+
+                        try {
+                            repository.replay(entry);
+                        } catch (SQLException e) {
+                            if (RetryPolicy.isTransient(e)) {
+                                throw e;
+                            }
+                            journal.deadLetter(line);
+                            deadLettered++;
+                            deadLetterTotal.incrementAndGet();
+                            logger.log(Level.WARNING, "Outbox entry rejected by the database, moved to "
+                                    + OutboxJournal.DEAD_LETTER_FILE + ": " + line, e);
+                            continue;
+                        }
+                        replayed++;
+                        replayedTotal.incrementAndGet();
+                    }
+                }
+                journal.segmentReplayed(segment, lines);
+            }
+            lastError = null;
+        } catch (SQLException e) {
+            lastError = e.getMessage();
+            logger.log(Level.FINE, "Outbox replay stopped, database still unavailable", e);
+        } catch (IOException e) {
+            lastError = e.getMessage();
+            logger.log(Level.WARNING, "Failed to read the outbox journal", e);
+        } finally {
+            lastRunReplayed = replayed;
+            lastRunDurationMs = System.currentTimeMillis() - startedAt;
+            running.set(false);
+        }
+
+        if (replayed > 0 || deadLettered > 0) {
+            logger.info("Replayed " + replayed + " battle results from the outbox in " + lastRunDurationMs + "ms"
+                    + (deadLettered > 0 ? ", " + deadLettered + " rejected" : "")
+                    + (journal.hasPendingEntries() ? ", " + journal.getPendingEntries() + " still pending" : ""));
+        }
+        return replayed;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Entries per second written by the last pass
+     */
+    public long getLastRunRate() {
+        long duration = lastRunDurationMs;
+        return duration > 0 ? lastRunReplayed * 1000 / duration : lastRunReplayed;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public Map<String, Number> getGauges() {
+        Map<String, Number> gauges = new LinkedHashMap<>(journal.getGauges());
+        gauges.put("outbox_replayed_total", replayedTotal.get());
+        gauges.put("outbox_corrupt_entries_total", corruptTotal.get());
+        gauges.put("outbox_dead_letter_total", deadLetterTotal.get());
+        gauges.put("outbox_replay_rate", getLastRunRate());
+        return gauges;
+    }
+}
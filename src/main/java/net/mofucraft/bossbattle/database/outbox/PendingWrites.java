@@ -0,0 +1,154 @@
+package net.mofucraft.bossbattle.database.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Battle results handed to the database but not yet settled. Each one ends up written to the
+ * database, spilled to the outbox journal or, without a usable journal, lost. On shutdown the
+ * remaining writes are given a bounded time to finish before they are spilled.
+ */
+public class PendingWrites {
+
+    // How long a drain waits for spilled entries to reach the journal file
+    private static final long SPILL_TIMEOUT_MS = 5000;
+
+    private final Logger logger;
+    private final Set<PendingWrite> inFlight;
+    private volatile OutboxJournal journal;
+
+    public PendingWrites(Logger logger) {
+        this.logger = logger;
+        this.inFlight = ConcurrentHashMap.newKeySet();
+    }
+
+    public void setJournal(OutboxJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Track a database write of {@code entry}. The returned future completes once the result
+     * is in the database or, failing that, in the outbox.
+     */
+    public CompletableFuture<Void> track(OutboxEntry entry, CompletableFuture<Void> write) {
+        PendingWrite pending = new PendingWrite(entry);
+        inFlight.add(pending);
+        pending.settled.whenComplete((outcome, error) -> inFlight.remove(pending));
+
+        write.whenComplete((result, error) -> {
+            if (!pending.claim()) {
+                // Already spilled by a drain; a late commit is skipped when the entry is replayed
+                return;
+            }
+            if (error == null) {
+                pending.settled.complete(Outcome.FLUSHED);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            spill(pending, "Database write failed (" + cause + ")");
+        });
+
+        return pending.settled.thenApply(outcome -> null);
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Wait up to {@code timeoutMillis} for every tracked write, then spill the ones still
+     * running to the outbox. Blocks the calling thread.
+     */
+    public DrainReport drain(long timeoutMillis) {
+        long startedAt = System.currentTimeMillis();
+        List<PendingWrite> writes = new ArrayList<>(inFlight);
+        if (writes.isEmpty()) {
+            return new DrainReport(0, 0, 0, 0);
+        }
+
+        try {
+            CompletableFuture.allOf(writes.stream().map(pending -> pending.settled).toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, timeoutMillis), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Whatever is left is spilled below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<CompletableFuture<Outcome>> spills = new ArrayList<>();
+        for (PendingWrite pending : writes) {
+            if (pending.claim()) {
+                spills.add(spill(pending, "Still writing at shutdown"));
+            }
+        }
+        if (!spills.isEmpty()) {
+            try {
+                CompletableFuture.allOf(spills.toArray(CompletableFuture[]::new)).get(SPILL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | ExecutionException e) {
+                logger.warning("Timed out spilling battle results to the outbox");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        int flushed = 0;
+        int spilled = 0;
+        int lost = 0;
+        for (PendingWrite pending : writes) {
+            Outcome outcome = pending.settled.getNow(Outcome.LOST);
+            switch (outcome) {
+                case FLUSHED -> flushed++;
+                case SPILLED -> spilled++;
+                case LOST -> lost++;
+            }
+        }
+        return new DrainReport(flushed, spilled, lost, System.currentTimeMillis() - startedAt);
+    }
+
+    private CompletableFuture<Outcome> spill(PendingWrite pending, String reason) {
+        OutboxJournal target = journal;
+        if (target == null) {
+            logger.log(Level.WARNING, reason + ", " + pending.entry.describe() + " is lost (no outbox)");
+            pending.settled.complete(Outcome.LOST);
+            return pending.settled;
+        }
+
+        logger.warning(reason + ", keeping " + pending.entry.describe() + " in the outbox");
+        target.append(pending.entry).whenComplete((result, error) ->
+                pending.settled.complete(error == null ? Outcome.SPILLED : Outcome.LOST));
+        return pending.settled;
+    }
+
+    private enum Outcome {
+        FLUSHED,
+        SPILLED,
+        LOST
+    }
+
+    private static class PendingWrite {
+        final OutboxEntry entry;
+        final CompletableFuture<Outcome> settled;
+        // Set by whichever of the write callback and a drain gets to the entry first
+        final AtomicBoolean claimed;
+
+        PendingWrite(OutboxEntry entry) {
+            this.entry = entry;
+            this.settled = new CompletableFuture<>();
+            this.claimed = new AtomicBoolean();
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
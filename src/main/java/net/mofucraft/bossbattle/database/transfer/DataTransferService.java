@@ -0,0 +1,432 @@
+package net.mofucraft.bossbattle.database.transfer;
+
+import net.mofucraft.bossbattle.config.ConfigManager;
+import net.mofucraft.bossbattle.database.DatabaseManager;
+import net.mofucraft.bossbattle.database.PlayerBossStats;
+import net.mofucraft.bossbattle.database.RankingStore;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Streams whole tables to and from files. Exports read through a server-side cursor and
+ * imports insert in batches, so memory use does not depend on table size. Each import
+ * batch commits together with its checkpoint row, so an interrupted import resumes from
+ * the last committed line without duplicating anything.
+ */
+public class DataTransferService {
+
+    // best_time_ms must be assigned last: MySQL evaluates the assignments left to right
+    private static final String UPSERT_IMPORTED_BEST_SQL = """
+            INSERT INTO boss_personal_bests (boss_id, player_uuid, player_name, best_time_ms, recorded_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                player_name = VALUES(player_name),
+                recorded_at = CASE WHEN VALUES(best_time_ms) < best_time_ms THEN VALUES(recorded_at) ELSE recorded_at END,
+                best_time_ms = LEAST(best_time_ms, VALUES(best_time_ms))
+            """;
+
+    // Imported history rows are counted into the per player stats in the same batch
+    private static final String UPSERT_IMPORTED_STATS_SQL = """
+            INSERT INTO player_boss_stats (player_uuid, boss_id, player_name, attempts, victories, defeats,
+                timeouts, logouts, total_duration_ms, victory_duration_ms)
+            VALUES (?, ?, ?, 1, ?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                player_name = VALUES(player_name),
+                attempts = attempts + 1,
+                victories = victories + VALUES(victories),
+                defeats = defeats + VALUES(defeats),
+                timeouts = timeouts + VALUES(timeouts),
+                logouts = logouts + VALUES(logouts),
+                total_duration_ms = total_duration_ms + VALUES(total_duration_ms),
+                victory_duration_ms = victory_duration_ms + VALUES(victory_duration_ms)
+            """;
+
+    private static final String UPSERT_CHECKPOINT_SQL = """
+            INSERT INTO data_import_checkpoints (source, file_size, lines_done, completed)
+            VALUES (?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                file_size = VALUES(file_size),
+                lines_done = VALUES(lines_done),
+                completed = VALUES(completed)
+            """;
+
+    private final DatabaseManager databaseManager;
+    private final RankingStore repository;
+    private final ConfigManager configManager;
+    private final Logger logger;
+    private final AtomicBoolean running;
+
+    public DataTransferService(DatabaseManager databaseManager, RankingStore repository,
+                               ConfigManager configManager, Logger logger) {
+        this.databaseManager = databaseManager;
+        this.repository = repository;
+        this.configManager = configManager;
+        this.logger = logger;
+        this.running = new AtomicBoolean();
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Export a table to {@code file}. The file only appears once the export has finished;
+     * until then rows are written to a ".part" file next to it.
+     */
+    public CompletableFuture<TransferProgress> export(TransferTable table, TransferFormat format, File file,
+                                                      Consumer<TransferProgress> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another export/import is already running"));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String description = "export " + table.getName();
+            List<TransferTable.Column> columns = table.getColumns();
+            String sql = "SELECT " + columns.stream().map(TransferTable.Column::getName).collect(Collectors.joining(", "))
+                    + " FROM " + table.getTableName() + " ORDER BY id";
+            File partFile = new File(file.getParentFile(), file.getName() + ".part");
+            ProgressReporter reporter = new ProgressReporter(description, progress);
+
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.exists()) {
+                    parent.mkdirs();
+                }
+
+                try (Connection conn = getExportConnection();
+                     BufferedWriter writer = Files.newBufferedWriter(partFile.toPath(), StandardCharsets.UTF_8)) {
+                    reporter.estimatedTotal = databaseManager.estimateTableRows(conn, table.getTableName());
+
+                    String header = format.formatHeader(columns);
+                    if (header != null) {
+                        writer.write(header);
+                        writer.newLine();
+                    }
+
+                    try (PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                        // MySQL streams row by row, H2 reads fetch-size rows at a time
+                        stmt.setFetchSize(databaseManager.getBackend().getStreamingFetchSize(configManager.getTransferFetchSize()));
+
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            String[] values = new String[columns.size()];
+                            while (rs.next()) {
+                                for (int i = 0; i < columns.size(); i++) {
+                                    values[i] = readValue(rs, columns.get(i));
+                                }
+                                writer.write(format.formatRow(columns, values));
+                                writer.newLine();
+                                reporter.advance(1);
+                            }
+                        }
+                    }
+                }
+
+                Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                TransferProgress result = reporter.finish();
+                logger.info("Finished " + result.format() + " -> " + file.getName());
+                return result;
+            } catch (SQLException | IOException e) {
+                logger.log(Level.WARNING, "Failed to " + description, e);
+                partFile.delete();
+                throw new CompletionException(e);
+            } finally {
+                running.set(false);
+            }
+        }, databaseManager.getBulkExecutor());
+    }
+
+    /**
+     * Import {@code file} into a table. A file that was partially imported before resumes after
+     * its last committed batch; a file that completed is refused unless {@code restart} is set.
+     */
+    public CompletableFuture<TransferProgress> importFile(TransferTable table, TransferFormat format, File file,
+                                                          boolean restart, Consumer<TransferProgress> progress) {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Another export/import is already running"));
+        }
+
+        return CompletableFuture.supplyAsync(() -> {
+            String description = "import " + table.getName();
+            String source = table.getName() + ":" + file.getName();
+            long fileSize = file.length();
+            int batchSize = Math.max(1, configManager.getTransferBatchSize());
+            List<TransferTable.Column> columns = table.getImportColumns();
+            String insertSql = "INSERT INTO " + table.getTableName() + " ("
+                    + columns.stream().map(TransferTable.Column::getName).collect(Collectors.joining(", "))
+                    + ") VALUES (" + columns.stream().map(c -> "?").collect(Collectors.joining(", ")) + ")";
+            ProgressReporter reporter = new ProgressReporter(description, progress);
+            long lineNumber = 0;
+
+            try (Connection conn = databaseManager.getConnection()) {
+                long skip = 0;
+                Checkpoint checkpoint = restart ? null : loadCheckpoint(conn, source);
+                if (checkpoint != null && checkpoint.fileSize == fileSize) {
+                    if (checkpoint.completed) {
+                        throw new IllegalStateException(file.getName() + " was already imported (use 'restart' to import it again)");
+                    }
+                    skip = checkpoint.linesDone;
+                    logger.info("Resuming " + description + " from " + file.getName() + " after line " + skip);
+                } else if (checkpoint != null) {
+                    logger.warning(file.getName() + " changed since its last import, importing it from the beginning");
+                }
+
+                conn.setAutoCommit(false);
+                try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+                     PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                     PreparedStatement derivedStmt = conn.prepareStatement(
+                             table == TransferTable.RANKINGS ? UPSERT_IMPORTED_BEST_SQL : UPSERT_IMPORTED_STATS_SQL);
+                     PreparedStatement checkpointStmt = conn.prepareStatement(UPSERT_CHECKPOINT_SQL)) {
+
+                    String[] header = null;
+                    if (format.hasHeader()) {
+                        String headerLine = reader.readLine();
+                        if (headerLine == null) {
+                            throw new IllegalArgumentException(file.getName() + " is empty");
+                        }
+                        header = headerLine.replace("\uFEFF", "").trim().split(",");
+                    }
+
+                    int pending = 0;
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        lineNumber++;
+                        if (lineNumber <= skip || line.isBlank()) {
+                            continue;
+                        }
+
+                        String[] values;
+                        try {
+                            values = format.parseRow(line, columns, header);
+                            bindRow(insertStmt, columns, values);
+                        } catch (RuntimeException e) {
+                            throw new IllegalArgumentException("Invalid record on line " + lineNumber + ": " + e.getMessage(), e);
+                        }
+                        insertStmt.addBatch();
+                        if (table == TransferTable.RANKINGS) {
+                            bindPersonalBest(derivedStmt, columns, values);
+                        } else {
+                            bindPlayerStats(derivedStmt, columns, values);
+                        }
+                        derivedStmt.addBatch();
+
+                        if (++pending >= batchSize) {
+                            commitBatch(conn, insertStmt, derivedStmt, checkpointStmt, source, fileSize, lineNumber, false);
+                            reporter.advance(pending);
+                            pending = 0;
+                        }
+                    }
+
+                    commitBatch(conn, insertStmt, derivedStmt, checkpointStmt, source, fileSize, lineNumber, true);
+                    reporter.advance(pending);
+                } catch (SQLException | IOException | RuntimeException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+
+                if (reporter.rows > 0) {
+                    repository.notifyRankingsReplaced();
+                }
+
+                TransferProgress result = reporter.finish();
+                logger.info("Finished " + result.format() + " <- " + file.getName());
+                return result;
+            } catch (SQLException | IOException e) {
+                logger.log(Level.WARNING, "Failed to " + description + " at line " + lineNumber
+                        + "; run the import again to resume from the last committed batch", e);
+                throw new CompletionException(e);
+            } catch (RuntimeException e) {
+                logger.warning("Failed to " + description + ": " + e.getMessage());
+                throw e;
+            } finally {
+                running.set(false);
+            }
+        }, databaseManager.getBulkExecutor());
+    }
+
+    // derivedStmt keeps the personal bests (rankings) or the player stats (history) in step with the rows
+    private void commitBatch(Connection conn, PreparedStatement insertStmt, PreparedStatement derivedStmt,
+                             PreparedStatement checkpointStmt, String source,
+                             long fileSize, long linesDone, boolean completed) throws SQLException {
+        insertStmt.executeBatch();
+        derivedStmt.executeBatch();
+
+        checkpointStmt.setString(1, source);
+        checkpointStmt.setLong(2, fileSize);
+        checkpointStmt.setLong(3, linesDone);
+        checkpointStmt.setBoolean(4, completed);
+        checkpointStmt.executeUpdate();
+
+        conn.commit();
+    }
+
+    private Connection getExportConnection() throws SQLException {
+        // Exports are long reads - keep them off the primary when a replica is available
+        if (databaseManager.hasReplica()) {
+            try {
+                return databaseManager.getReadConnection();
+            } catch (SQLException e) {
+                logger.log(Level.FINE, "Replica unavailable for export, using primary", e);
+            }
+        }
+        return databaseManager.getConnection();
+    }
+
+    private Checkpoint loadCheckpoint(Connection conn, String source) throws SQLException {
+        String sql = "SELECT file_size, lines_done, completed FROM data_import_checkpoints WHERE source = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, source);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Checkpoint(rs.getLong("file_size"), rs.getLong("lines_done"), rs.getBoolean("completed"));
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String readValue(ResultSet rs, TransferTable.Column column) throws SQLException {
+        switch (column.getType()) {
+            case LONG: {
+                long value = rs.getLong(column.getName());
+                return rs.wasNull() ? null : String.valueOf(value);
+            }
+            case TIMESTAMP: {
+                Timestamp value = rs.getTimestamp(column.getName());
+                return value != null ? value.toLocalDateTime().toString() : null;
+            }
+            default:
+                return rs.getString(column.getName());
+        }
+    }
+
+    private static void bindRow(PreparedStatement stmt, List<TransferTable.Column> columns, String[] values) throws SQLException {
+        for (int i = 0; i < columns.size(); i++) {
+            TransferTable.Column column = columns.get(i);
+            String value = values[i];
+            switch (column.getType()) {
+                case LONG:
+                    if (value == null) {
+                        throw new IllegalArgumentException("missing " + column.getName());
+                    }
+                    stmt.setLong(i + 1, Long.parseLong(value.trim()));
+                    break;
+                case TIMESTAMP:
+                    stmt.setTimestamp(i + 1, parseTimestamp(value));
+                    break;
+                default:
+                    if (value == null) {
+                        throw new IllegalArgumentException("missing " + column.getName());
+                    }
+                    stmt.setString(i + 1, value);
+                    break;
+            }
+        }
+    }
+
+    private static void bindPersonalBest(PreparedStatement stmt, List<TransferTable.Column> columns, String[] values) throws SQLException {
+        stmt.setString(1, values[indexOf(columns, "boss_id")]);
+        stmt.setString(2, values[indexOf(columns, "player_uuid")]);
+        stmt.setString(3, values[indexOf(columns, "player_name")]);
+        stmt.setLong(4, Long.parseLong(values[indexOf(columns, "clear_time_ms")].trim()));
+        stmt.setTimestamp(5, parseTimestamp(values[indexOf(columns, "recorded_at")]));
+    }
+
+    private static void bindPlayerStats(PreparedStatement stmt, List<TransferTable.Column> columns, String[] values) throws SQLException {
+        String result = values[indexOf(columns, "result")];
+        long durationMs = Long.parseLong(values[indexOf(columns, "duration_ms")].trim());
+        boolean victory = PlayerBossStats.isVictory(result);
+        stmt.setString(1, values[indexOf(columns, "player_uuid")]);
+        stmt.setString(2, values[indexOf(columns, "boss_id")]);
+        stmt.setString(3, values[indexOf(columns, "player_name")]);
+        stmt.setInt(4, victory ? 1 : 0);
+        stmt.setInt(5, "DEFEAT".equals(result) ? 1 : 0);
+        stmt.setInt(6, "TIMEOUT".equals(result) ? 1 : 0);
+        stmt.setInt(7, "LOGOUT".equals(result) ? 1 : 0);
+        stmt.setLong(8, durationMs);
+        stmt.setLong(9, victory ? durationMs : 0);
+    }
+
+    private static Timestamp parseTimestamp(String value) {
+        if (value == null || value.isBlank()) {
+            return Timestamp.valueOf(LocalDateTime.now());
+        }
+        try {
+            return Timestamp.valueOf(LocalDateTime.parse(value.trim().replace(' ', 'T')));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("invalid timestamp " + value);
+        }
+    }
+
+    private static int indexOf(List<TransferTable.Column> columns, String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).getName().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown column " + name);
+    }
+
+    private static class Checkpoint {
+        final long fileSize;
+        final long linesDone;
+        final boolean completed;
+
+        Checkpoint(long fileSize, long linesDone, boolean completed) {
+            this.fileSize = fileSize;
+            this.linesDone = linesDone;
+            this.completed = completed;
+        }
+    }
+
+    private class ProgressReporter {
+        final String description;
+        final Consumer<TransferProgress> listener;
+        final long startedAt;
+        long estimatedTotal = -1;
+        long rows;
+        long lastReport;
+
+        ProgressReporter(String description, Consumer<TransferProgress> listener) {
+            this.description = description;
+            this.listener = listener;
+            this.startedAt = System.currentTimeMillis();
+            this.lastReport = startedAt;
+        }
+
+        void advance(long count) {
+            rows += count;
+            long now = System.currentTimeMillis();
+            if (now - lastReport >= configManager.getTransferProgressIntervalMs()) {
+                lastReport = now;
+                listener.accept(new TransferProgress(description, rows, estimatedTotal, now - startedAt, false));
+            }
+        }
+
+        TransferProgress finish() {
+            return new TransferProgress(description, rows, estimatedTotal, System.currentTimeMillis() - startedAt, true);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package net.mofucraft.bossbattle.database.transfer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Line-oriented file formats. Every record is exactly one line so files can be streamed,
+ * and resumed by line number, without holding more than one record in memory.
+ * Values are passed as strings; null means SQL NULL.
+ */
+public enum TransferFormat {
+
+    CSV("csv") {
+        @Override
+        public String formatHeader(List<TransferTable.Column> columns) {
+            return String.join(",", columns.stream().map(TransferTable.Column::getName).toList());
+        }
+
+        @Override
+        public String formatRow(List<TransferTable.Column> columns, String[] values) {
+            StringBuilder line = new StringBuilder();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    line.append(',');
+                }
+                String value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                if (value.isEmpty() || value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                        || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                    // Quote empty strings too, so they stay distinguishable from NULL
+                    line.append('"').append(value.replace("\"", "\"\"")
+                            .replace("\r", " ").replace("\n", " ")).append('"');
+                } else {
+                    line.append(value);
+                }
+            }
+            return line.toString();
+        }
+
+        @Override
+        public String[] parseRow(String line, List<TransferTable.Column> columns, String[] header) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (c == ',') {
+                    fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else {
+                    field.append(c);
+                }
+            }
+            if (quoted) {
+                throw new IllegalArgumentException("Unterminated quoted field");
+            }
+            fields.add(field.length() == 0 && !wasQuoted ? null : field.toString());
+
+            String[] values = new String[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                int index = indexOf(header, columns.get(i).getName());
+                values[i] = index >= 0 && index < fields.size() ? fields.get(index) : null;
+            }
+            return values;
+        }
+    },
+
+    NDJSON("ndjson") {
+        @Override
+        public String formatHeader(List<TransferTable.Column> columns) {
+            return null;
+        }
+
+        @Override
+        public String formatRow(List<TransferTable.Column> columns, String[] values) {
+            JsonObject object = new JsonObject();
+            for (int i = 0; i < columns.size(); i++) {
+                TransferTable.Column column = columns.get(i);
+                String value = values[i];
+                if (value == null) {
+                    object.add(column.getName(), JsonNull.INSTANCE);
+                } else if (column.getType() == TransferTable.ColumnType.LONG) {
+                    object.addProperty(column.getName(), Long.parseLong(value));
+                } else {
+                    object.addProperty(column.getName(), value);
+                }
+            }
+            return object.toString();
+        }
+
+        @Override
+        public String[] parseRow(String line, List<TransferTable.Column> columns, String[] header) {
+            JsonElement element = JsonParser.parseString(line);
+            if (!element.isJsonObject()) {
+                throw new IllegalArgumentException("Expected a JSON object per line");
+            }
+
+            JsonObject object = element.getAsJsonObject();
+            String[] values = new String[columns.size()];
+            for (int i = 0; i < columns.size(); i++) {
+                JsonElement value = object.get(columns.get(i).getName());
+                values[i] = value == null || value.isJsonNull() ? null : value.getAsString();
+            }
+            return values;
+        }
+    };
+
+    private final String extension;
+
+    TransferFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public static TransferFormat fromName(String name) {
+        for (TransferFormat format : values()) {
+            if (format.extension.equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    public static TransferFormat fromFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fromName(fileName.substring(dot + 1)) : null;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Header line written before the first record, or null if the format has none
+     */
+    public abstract String formatHeader(List<TransferTable.Column> columns);
+
+    public abstract String formatRow(List<TransferTable.Column> columns, String[] values);
+
+    /**
+     * Values of {@code columns} in order. {@code header} holds the column names of the
+     * file's header line, for formats that have one.
+     */
+    public abstract String[] parseRow(String line, List<TransferTable.Column> columns, String[] header);
+
+    public boolean hasHeader() {
+        return formatHeader(List.of()) != null;
+    }
+
+    private static int indexOf(String[] header, String name) {
+        if (header == null) {
+            return -1;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
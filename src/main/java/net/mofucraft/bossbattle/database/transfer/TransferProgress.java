@@ -0,0 +1,58 @@
+package net.mofucraft.bossbattle.database.transfer;
+
+/**
+ * Snapshot of a running or finished export/import
+ */
+public class TransferProgress {
+
+    private final String description;
+    private final long rows;
+    private final long estimatedTotal;
+    private final long elapsedMillis;
+    private final boolean finished;
+
+    public TransferProgress(String description, long rows, long estimatedTotal, long elapsedMillis, boolean finished) {
+        this.description = description;
+        this.rows = rows;
+        this.estimatedTotal = estimatedTotal;
+        this.elapsedMillis = elapsedMillis;
+        this.finished = finished;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Estimated total row count, or -1 when unknown
+     */
+    public long getEstimatedTotal() {
+        return estimatedTotal;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rows * 1000 / elapsedMillis : rows;
+    }
+
+    public String format() {
+        StringBuilder text = new StringBuilder(description).append(": ").append(rows);
+        if (estimatedTotal > 0) {
+            text.append("/~").append(estimatedTotal)
+                    .append(" (").append(Math.min(100, rows * 100 / estimatedTotal)).append("%)");
+        }
+        text.append(" rows, ").append(getRowsPerSecond()).append(" rows/s");
+        return text.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package net.mofucraft.bossbattle.database.transfer;
+
+import java.util.List;
+
+/**
+ * Tables that can be exported and imported. The id column is exported for reference but
+ * never imported, so files can be loaded into a database that already has rows.
+ */
+public enum TransferTable {
+
+    RANKINGS("rankings", "boss_rankings", List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("player_uuid", ColumnType.STRING),
+            new Column("player_name", ColumnType.STRING),
+            new Column("boss_id", ColumnType.STRING),
+            new Column("clear_time_ms", ColumnType.LONG),
+            new Column("recorded_at", ColumnType.TIMESTAMP))),
+
+    HISTORY("history", "battle_history", List.of(
+            new Column("id", ColumnType.LONG),
+            new Column("player_uuid", ColumnType.STRING),
+            new Column("player_name", ColumnType.STRING),
+            new Column("boss_id", ColumnType.STRING),
+            new Column("result", ColumnType.STRING),
+            new Column("duration_ms", ColumnType.LONG),
+            new Column("recorded_at", ColumnType.TIMESTAMP)));
+
+    private final String name;
+    private final String tableName;
+    private final List<Column> columns;
+
+    TransferTable(String name, String tableName, List<Column> columns) {
+        this.name = name;
+        this.tableName = tableName;
+        this.columns = columns;
+    }
+
+    public static TransferTable fromName(String name) {
+        for (TransferTable table : values()) {
+            if (table.name.equalsIgnoreCase(name)) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public List<Column> getImportColumns() {
+        return columns.stream().filter(column -> !column.getName().equals("id")).toList();
+    }
+
+    public enum ColumnType {
+        STRING, LONG, TIMESTAMP
+    }
+
+    public static class Column {
+        private final String name;
+        private final ColumnType type;
+
+        public Column(String name, ColumnType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public ColumnType getType() {
+            return type;
+        }
+    }
+}
@@ -3,18 +3,35 @@ package net.mofucraft.bossbattle.hook;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import net.mofucraft.bossbattle.MofuBossBattle;
 import net.mofucraft.bossbattle.battle.BattleSession;
+import net.mofucraft.bossbattle.config.BossConfig;
+import net.mofucraft.bossbattle.database.PlayerBossStats;
+import net.mofucraft.bossbattle.database.PlayerStanding;
 import net.mofucraft.bossbattle.database.RankingEntry;
+import net.mofucraft.bossbattle.database.RankingPeriod;
+import net.mofucraft.bossbattle.ranking.ClearTimeDistribution;
+import net.mofucraft.bossbattle.ranking.ClearedPlayerIndex;
+import net.mofucraft.bossbattle.ranking.LeaderboardIndex;
 import net.mofucraft.bossbattle.util.TimeUtil;
 import org.bukkit.OfflinePlayer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class PlaceholderAPIHook extends PlaceholderExpansion {
 
+    private static final Set<String> DATABASE_PLACEHOLDERS = Set.of(
+            "ranking", "myrank", "mybest", "percentile", "daily", "weekly", "monthly", "total", "stats", "cleared",
+            "rival", "around"
+    );
+
+    // Furthest place above or below the player served by the around placeholder
+    private static final int MAX_AROUND_OFFSET = 10;
+
     private final MofuBossBattle plugin;
     private final ConcurrentHashMap<String, CachedValue<?>> cache;
 
@@ -51,6 +68,11 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
             return null;
         }
 
+        // Rankings and records are not served until the database has started
+        if (DATABASE_PLACEHOLDERS.contains(parts[0]) && !plugin.isReady()) {
+            return plugin.getConfigManager().getMessageConfig().getPlaceholderWarmingUp();
+        }
+
         switch (parts[0]) {
             case "ranking":
                 return handleRankingPlaceholder(parts);
@@ -58,6 +80,14 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
                 return handleMyRankPlaceholder(player, parts);
             case "mybest":
                 return handleMyBestPlaceholder(player, parts);
+            case "percentile":
+                return handlePercentilePlaceholder(player, parts);
+            case "stats":
+                return handleStatsPlaceholder(player, parts);
+            case "daily":
+            case "weekly":
+            case "monthly":
+                return handlePeriodPlaceholder(player, RankingPeriod.fromKey(parts[0]), parts);
             case "in":
                 if (parts.length > 1 && parts[1].equals("battle")) {
                     return handleInBattlePlaceholder(player);
@@ -72,6 +102,12 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
                 return handleTimePlaceholder(player, parts);
             case "total":
                 return handleTotalPlaceholder(parts);
+            case "cleared":
+                return handleClearedPlaceholder(player, parts);
+            case "rival":
+                return handleRivalPlaceholder(player, parts);
+            case "around":
+                return handleAroundPlaceholder(player, parts);
         }
 
         return null;
@@ -130,16 +166,26 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
         }
 
         String bossId = parts[1];
+
+        // Online players are served from the standings prefetched at login
+        PlayerStanding standing = plugin.getPlayerStandingCache().get(player.getUniqueId(), bossId);
+        if (standing != null) {
+            return standing.isRanked() ? String.valueOf(standing.getRank()) : "-";
+        }
+
         String cacheKey = "myrank_" + player.getUniqueId() + "_" + bossId;
 
         CachedValue<Integer> cached = getCached(cacheKey, Integer.class);
-        if (cached == null || cached.isExpired()) {
-            plugin.getRankingRepository().getPlayerRank(player.getUniqueId(), bossId)
-                    .thenAccept(rank -> cache.put(cacheKey, new CachedValue<>(rank)));
-            return cached != null ? String.valueOf(cached.value) : "-";
+        if ((cached == null || cached.isExpired()) && canRefresh()) {
+            plugin.getRankingStore().getPlayerRank(player.getUniqueId(), bossId)
+                    .thenAccept(rank -> {
+                        if (rank != null) {
+                            store(cacheKey, rank);
+                        }
+                    });
         }
 
-        return cached.value > 0 ? String.valueOf(cached.value) : "-";
+        return cached != null && cached.value > 0 ? String.valueOf(cached.value) : "-";
     }
 
     // %mofubossbattle_mybest_<boss>%
@@ -151,23 +197,105 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
 
         String bossId = parts[1];
         boolean raw = parts.length > 2 && parts[2].equals("raw");
-        String cacheKey = "mybest_" + player.getUniqueId() + "_" + bossId;
 
-        CachedValue<Long> cached = getCached(cacheKey, Long.class);
-        if (cached == null || cached.isExpired()) {
-            plugin.getRankingRepository().getPlayerBestTime(player.getUniqueId(), bossId)
-                    .thenAccept(time -> cache.put(cacheKey, new CachedValue<>(time)));
-            if (cached != null && cached.value >= 0) {
-                return raw ? String.valueOf(cached.value) : TimeUtil.formatTime(cached.value);
-            }
+        long best = getBestTime(player, bossId);
+        if (best < 0) {
             return "-";
         }
 
-        if (cached.value < 0) {
+        return raw ? String.valueOf(best) : TimeUtil.formatTime(best);
+    }
+
+    // %mofubossbattle_<daily|weekly|monthly>_<boss>_<rank>_name%
+    // %mofubossbattle_<daily|weekly|monthly>_<boss>_<rank>_time%
+    // %mofubossbattle_<daily|weekly|monthly>_<boss>_mybest%
+    private String handlePeriodPlaceholder(OfflinePlayer player, RankingPeriod period, String[] parts) {
+        if (parts.length < 3) {
+            return null;
+        }
+
+        String bossId = parts[1];
+        // The period start is part of every key so values never leak across a boundary
+        String periodKey = period.getKey() + "_" + plugin.getRankingStore().getCurrentPeriodStart(period);
+
+        if (parts[2].equals("mybest")) {
+            if (player == null) {
+                return null;
+            }
+            String cacheKey = periodKey + "_mybest_" + player.getUniqueId() + "_" + bossId;
+            CachedValue<Long> cached = getCached(cacheKey, Long.class);
+            if ((cached == null || cached.isExpired()) && canRefresh()) {
+                plugin.getRankingStore().getPeriodBestTime(player.getUniqueId(), period, bossId)
+                        .thenAccept(best -> store(cacheKey, best));
+            }
+            return cached != null && cached.value >= 0 ? TimeUtil.formatTime(cached.value) : "-";
+        }
+
+        if (parts.length < 4) {
+            return null;
+        }
+
+        int rank;
+        if (parts[2].equalsIgnoreCase("top")) {
+            rank = 1;
+        } else {
+            try {
+                rank = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        String cacheKey = periodKey + "_rankings_" + bossId;
+        CachedValue<?> cached = cache.get(cacheKey);
+        if ((cached == null || cached.isExpired()) && canRefresh()) {
+            plugin.getRankingStore().getPeriodRankingsAfter(period, bossId, null, Math.max(rank, 10))
+                    .thenAccept(rankings -> {
+                        if (rankings != null) {
+                            store(cacheKey, rankings);
+                        }
+                    });
+        }
+        if (cached == null || !(cached.value instanceof List<?> rankings) || rank < 1 || rank > rankings.size()) {
             return "-";
         }
 
-        return raw ? String.valueOf(cached.value) : TimeUtil.formatTime(cached.value);
+        RankingEntry entry = (RankingEntry) rankings.get(rank - 1);
+        return switch (parts[3]) {
+            case "name" -> entry.getPlayerName();
+            case "time" -> TimeUtil.formatTime(entry.getClearTimeMillis());
+            case "raw" -> String.valueOf(entry.getClearTimeMillis());
+            default -> null;
+        };
+    }
+
+    // %mofubossbattle_percentile_<boss>% - top X% of the player's best time
+    // %mofubossbattle_percentile_<boss>_<n>% - clear time at the n-th percentile
+    private String handlePercentilePlaceholder(OfflinePlayer player, String[] parts) {
+        if (parts.length < 2) {
+            return null;
+        }
+
+        String bossId = parts[1];
+        ClearTimeDistribution distribution = plugin.getClearTimeDistribution();
+
+        if (parts.length > 2) {
+            double percentile;
+            try {
+                percentile = Double.parseDouble(parts[2]);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            long time = distribution.getTimeAtPercentile(bossId, Math.max(0, Math.min(100, percentile)));
+            return time >= 0 ? TimeUtil.formatTime(time) : "-";
+        }
+
+        if (player == null) {
+            return null;
+        }
+
+        double topPercent = distribution.getTopPercent(bossId, getBestTime(player, bossId));
+        return topPercent >= 0 ? String.format("%.1f", topPercent) : "-";
     }
 
     // %mofubossbattle_in_battle%
@@ -212,23 +340,200 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
         };
     }
 
+    // %mofubossbattle_stats_<boss>_<attempts|victories|defeats|timeouts|logouts|winrate|avgtime|avgduration>%
+    private String handleStatsPlaceholder(OfflinePlayer player, String[] parts) {
+        if (player == null || parts.length < 3) {
+            return null;
+        }
+
+        String bossId = parts[1];
+        PlayerBossStats stats = getStats(player, bossId);
+        if (stats == null) {
+            return "-";
+        }
+
+        return switch (parts[2]) {
+            case "attempts" -> String.valueOf(stats.getAttempts());
+            case "victories" -> String.valueOf(stats.getVictories());
+            case "defeats" -> String.valueOf(stats.getDefeats());
+            case "timeouts" -> String.valueOf(stats.getTimeouts());
+            case "logouts" -> String.valueOf(stats.getLogouts());
+            case "winrate" -> String.format("%.1f", stats.getWinRate());
+            case "avgtime" -> stats.getAverageClearTimeMillis() >= 0 ? TimeUtil.formatTime(stats.getAverageClearTimeMillis()) : "-";
+            case "avgduration" -> stats.getAverageDurationMillis() >= 0 ? TimeUtil.formatTime(stats.getAverageDurationMillis()) : "-";
+            default -> null;
+        };
+    }
+
+    // Stats from the login cache for online players, otherwise from the TTL cache (null if unknown)
+    @SuppressWarnings("unchecked")
+    private PlayerBossStats getStats(OfflinePlayer player, String bossId) {
+        PlayerBossStats stats = plugin.getPlayerStatsCache().get(player.getUniqueId(), bossId);
+        if (stats != null) {
+            return stats;
+        }
+
+        String cacheKey = "stats_" + player.getUniqueId();
+        CachedValue<?> cached = cache.get(cacheKey);
+        if ((cached == null || cached.isExpired()) && canRefresh()) {
+            plugin.getRankingStore().getPlayerStats(player.getUniqueId())
+                    .thenAccept(loaded -> {
+                        if (loaded != null) {
+                            store(cacheKey, loaded);
+                        }
+                    });
+        }
+
+        if (cached == null || !(cached.value instanceof Map)) {
+            return null;
+        }
+        Map<String, PlayerBossStats> playerStats = (Map<String, PlayerBossStats>) cached.value;
+        return playerStats.getOrDefault(bossId, PlayerBossStats.empty(player.getUniqueId(), bossId));
+    }
+
     // %mofubossbattle_total_clears_<boss>%
+    // %mofubossbattle_total_allclears%
+    // %mofubossbattle_total_players%
     private String handleTotalPlaceholder(String[] parts) {
+        ClearedPlayerIndex clearIndex = plugin.getClearedPlayerIndex();
+        if (parts.length == 2) {
+            return switch (parts[1]) {
+                case "allclears" -> clearIndex.isLoaded()
+                        ? String.valueOf(clearIndex.getClearedAllCount(plugin.getConfigManager().getAllBossConfigs().stream()
+                                .map(BossConfig::getId)
+                                .toList()))
+                        : "0";
+                case "players" -> clearIndex.isLoaded() ? String.valueOf(clearIndex.getPlayerCount()) : "0";
+                default -> null;
+            };
+        }
         if (parts.length < 3 || !parts[1].equals("clears")) {
             return null;
         }
 
         String bossId = parts[2];
-        String cacheKey = "total_clears_" + bossId;
+        if (clearIndex.isLoaded()) {
+            return String.valueOf(clearIndex.getClearCount(bossId));
+        }
 
+        // Counted in the database until the index has loaded
+        String cacheKey = "total_clears_" + bossId;
         CachedValue<Integer> cached = getCached(cacheKey, Integer.class);
-        if (cached == null || cached.isExpired()) {
-            plugin.getRankingRepository().getTotalClears(bossId)
-                    .thenAccept(total -> cache.put(cacheKey, new CachedValue<>(total)));
-            return cached != null ? String.valueOf(cached.value) : "0";
+        if ((cached == null || cached.isExpired()) && canRefresh()) {
+            plugin.getRankingStore().getTotalClears(bossId)
+                    .thenAccept(total -> store(cacheKey, total));
+        }
+
+        return cached != null ? String.valueOf(cached.value) : "0";
+    }
+
+    // %mofubossbattle_cleared_<boss>%
+    private String handleClearedPlaceholder(OfflinePlayer player, String[] parts) {
+        if (player == null || parts.length < 2) {
+            return null;
+        }
+
+        ClearedPlayerIndex clearIndex = plugin.getClearedPlayerIndex();
+        if (clearIndex.isLoaded()) {
+            return String.valueOf(clearIndex.hasCleared(player.getUniqueId(), parts[1]));
+        }
+        return String.valueOf(getBestTime(player, parts[1]) >= 0);
+    }
+
+    // %mofubossbattle_rival_<boss>_<name|time|raw|gap|rank>% - the player directly above
+    private String handleRivalPlaceholder(OfflinePlayer player, String[] parts) {
+        if (player == null || parts.length < 3) {
+            return null;
+        }
+
+        LeaderboardIndex leaderboard = plugin.getLeaderboardIndex();
+        if (!leaderboard.isLoaded()) {
+            return "-";
+        }
+
+        String bossId = parts[1];
+        RankingEntry self = leaderboard.getNeighbor(player.getUniqueId(), bossId, 0);
+        RankingEntry rival = leaderboard.getRival(player.getUniqueId(), bossId);
+        return formatNeighbor(self, rival, parts[2]);
+    }
+
+    // %mofubossbattle_around_<boss>_<offset>_<name|time|raw|gap|rank>% - the player <offset>
+    // places away, e.g. -1 directly above and 1 directly below
+    private String handleAroundPlaceholder(OfflinePlayer player, String[] parts) {
+        if (player == null || parts.length < 4) {
+            return null;
+        }
+
+        int offset;
+        try {
+            offset = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (Math.abs(offset) > MAX_AROUND_OFFSET) {
+            return null;
+        }
+
+        LeaderboardIndex leaderboard = plugin.getLeaderboardIndex();
+        if (!leaderboard.isLoaded()) {
+            return "-";
+        }
+
+        String bossId = parts[1];
+        RankingEntry self = leaderboard.getNeighbor(player.getUniqueId(), bossId, 0);
+        RankingEntry other = leaderboard.getNeighbor(player.getUniqueId(), bossId, offset);
+        return formatNeighbor(self, other, parts[3]);
+    }
+
+    private String formatNeighbor(RankingEntry self, RankingEntry other, String field) {
+        if (other == null) {
+            return switch (field) {
+                case "name", "time", "raw", "gap", "rank" -> "-";
+                default -> null;
+            };
+        }
+
+        return switch (field) {
+            case "name" -> other.getPlayerName();
+            case "time" -> TimeUtil.formatTime(other.getClearTimeMillis());
+            case "raw" -> String.valueOf(other.getClearTimeMillis());
+            case "gap" -> TimeUtil.formatTime(Math.abs(self.getClearTimeMillis() - other.getClearTimeMillis()));
+            case "rank" -> String.valueOf(other.getRank());
+            default -> null;
+        };
+    }
+
+    // Best time from the login prefetch for online players, otherwise from the TTL cache (-1 if unknown)
+    private long getBestTime(OfflinePlayer player, String bossId) {
+        PlayerStanding standing = plugin.getPlayerStandingCache().get(player.getUniqueId(), bossId);
+        if (standing != null) {
+            return standing.getBestTimeMillis();
+        }
+
+        String cacheKey = "mybest_" + player.getUniqueId() + "_" + bossId;
+        CachedValue<Long> cached = getCached(cacheKey, Long.class);
+        if ((cached == null || cached.isExpired()) && canRefresh()) {
+            plugin.getRankingStore().getPlayerBestTime(player.getUniqueId(), bossId)
+                    .thenAccept(time -> {
+                        if (time != null) {
+                            store(cacheKey, time);
+                        }
+                    });
         }
 
-        return String.valueOf(cached.value);
+        return cached != null ? cached.value : -1;
+    }
+
+    // While the circuit breaker is open, cached values are served as they are instead of queueing queries
+    private boolean canRefresh() {
+        return !plugin.getDatabaseManager().getCircuitBreaker().isOpen();
+    }
+
+    // A result read while queries are failing may be a fallback, so it does not replace a cached value
+    private void store(String key, Object value) {
+        if (plugin.getDatabaseManager().getCircuitBreaker().isHealthy() || !cache.containsKey(key)) {
+            cache.put(key, new CachedValue<>(value));
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -245,17 +550,16 @@ public class PlaceholderAPIHook extends PlaceholderExpansion {
         String cacheKey = "rankings_" + bossId;
         CachedValue<?> cached = cache.get(cacheKey);
 
-        if (cached == null || cached.isExpired()) {
-            plugin.getRankingRepository().getTopRankings(bossId, Math.max(maxRank, 10))
-                    .thenAccept(rankings -> cache.put(cacheKey, new CachedValue<>(rankings)));
-
-            if (cached != null && cached.value instanceof List) {
-                return (CachedValue<List<RankingEntry>>) cached;
-            }
-            return null;
+        if ((cached == null || cached.isExpired()) && canRefresh()) {
+            plugin.getRankingStore().getTopRankings(bossId, Math.max(maxRank, 10))
+                    .thenAccept(rankings -> {
+                        if (rankings != null) {
+                            store(cacheKey, rankings);
+                        }
+                    });
         }
 
-        if (cached.value instanceof List) {
+        if (cached != null && cached.value instanceof List) {
             return (CachedValue<List<RankingEntry>>) cached;
         }
         return null;
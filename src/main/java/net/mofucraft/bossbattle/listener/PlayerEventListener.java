@@ -8,7 +8,9 @@ import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 
@@ -28,6 +30,27 @@ public class PlayerEventListener implements Listener {
         this.logoutTeleportLocations = new HashMap<>();
     }
 
+    // Prefetch standings and stats before the player joins so placeholders are correct from the first frame
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPreLogin(AsyncPlayerPreLoginEvent event) {
+        // While the database is starting, online players are loaded once it is ready
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || !plugin.isReady()) {
+            return;
+        }
+
+        plugin.getPlayerStandingCache().load(event.getUniqueId());
+        plugin.getPlayerStatsCache().load(event.getUniqueId());
+    }
+
+    // A login denied after pre-login (whitelist, ban, full) never fires a quit event
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            plugin.getPlayerStandingCache().evict(event.getPlayer().getUniqueId());
+            plugin.getPlayerStatsCache().evict(event.getPlayer().getUniqueId());
+        }
+    }
+
     @EventHandler(priority = EventPriority.HIGHEST)
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
@@ -45,6 +68,9 @@ public class PlayerEventListener implements Listener {
 
             plugin.getBattleManager().onPlayerLogout(playerId);
         }
+
+        plugin.getPlayerStandingCache().evict(playerId);
+        plugin.getPlayerStatsCache().evict(playerId);
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
@@ -52,6 +78,9 @@ public class PlayerEventListener implements Listener {
         Player player = event.getPlayer();
         UUID playerId = player.getUniqueId();
 
+        // A name that changed hands now belongs to whoever joined with it
+        plugin.getPlayerNameResolver().remember(playerId, player.getName());
+
         // Teleport to exit location if logged out during battle
         Location exitLoc = logoutTeleportLocations.remove(playerId);
         if (exitLoc != null) {
@@ -0,0 +1,121 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+import net.mofucraft.bossbattle.util.LogHistogram;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-boss histogram of personal best times. Built once from the database and then kept
+ * current from {@link RankingListener} events, so percentiles never need aggregate SQL.
+ */
+public class ClearTimeDistribution implements RankingListener {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final RankingStore repository;
+    private final Map<String, LogHistogram> histograms;
+
+    // Bumped on every ranking write so a rebuild that raced with one can be retried
+    private final AtomicLong generation;
+    private volatile boolean loaded;
+
+    public ClearTimeDistribution(RankingStore repository) {
+        this.repository = repository;
+        this.histograms = new ConcurrentHashMap<>();
+        this.generation = new AtomicLong();
+    }
+
+    public CompletableFuture<Void> rebuild() {
+        return rebuild(1);
+    }
+
+    private CompletableFuture<Void> rebuild(int attempt) {
+        long before = generation.get();
+        return repository.loadBestTimeHistograms().thenCompose(loadedHistograms -> {
+            if (loadedHistograms == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (generation.get() != before && attempt < MAX_REBUILD_ATTEMPTS) {
+                return rebuild(attempt + 1);
+            }
+
+            synchronized (this) {
+                histograms.clear();
+                histograms.putAll(loadedHistograms);
+                loaded = true;
+            }
+            MofuBossBattle.getInstance().getLogger().info("Loaded clear time distributions for " + loadedHistograms.size() + " boss(es).");
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public LogHistogram getHistogram(String bossId) {
+        return histograms.get(bossId);
+    }
+
+    /**
+     * Share of ranked players at least as fast as {@code bestTimeMs}, in percent (the "top X%"),
+     * or -1 when there is no data for the boss yet
+     */
+    public double getTopPercent(String bossId, long bestTimeMs) {
+        LogHistogram histogram = histograms.get(bossId);
+        if (histogram == null || bestTimeMs < 0) {
+            return -1;
+        }
+
+        long total = histogram.getCount();
+        if (total == 0) {
+            return -1;
+        }
+
+        double faster = histogram.estimateCountBelow(bestTimeMs);
+        return Math.min(100.0, (faster + 1) * 100.0 / total);
+    }
+
+    /**
+     * Clear time at the given percentile (0-100), bucket precision, or -1 when empty
+     */
+    public long getTimeAtPercentile(String bossId, double percentile) {
+        LogHistogram histogram = histograms.get(bossId);
+        return histogram != null ? histogram.getPercentile(percentile) : -1;
+    }
+
+    @Override
+    public synchronized void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+        generation.incrementAndGet();
+
+        if (previousBestMs >= 0 && clearTimeMs >= previousBestMs) {
+            return;
+        }
+
+        LogHistogram histogram = histograms.computeIfAbsent(bossId, k -> new LogHistogram());
+        if (previousBestMs >= 0) {
+            histogram.remove(previousBestMs);
+        }
+        histogram.record(clearTimeMs);
+    }
+
+    @Override
+    public void onRankingsReset(String bossId, UUID playerId) {
+        generation.incrementAndGet();
+
+        if (playerId == null && bossId != null) {
+            histograms.remove(bossId);
+            return;
+        }
+
+        // The deleted times are not known here; resets are rare, so just reload
+        rebuild();
+    }
+}
@@ -0,0 +1,174 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Which players have cleared which boss, as one bitmap per boss over a dense player index.
+ * Built once from the personal bests and then kept current from {@link RankingListener}
+ * events, so clear counts and "cleared all of these bosses" are bit operations instead of
+ * COUNT(DISTINCT) queries.
+ */
+public class ClearedPlayerIndex implements RankingListener {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private final RankingStore repository;
+
+    // Player UUID -> bit position; positions are handed out in order and never reused
+    private final Map<UUID, Integer> playerIndex;
+    private final Map<String, BitSet> clears;
+
+    // Bumped on every ranking write so a rebuild that raced with one can be retried
+    private final AtomicLong generation;
+    private volatile boolean loaded;
+
+    public ClearedPlayerIndex(RankingStore repository) {
+        this.repository = repository;
+        this.playerIndex = new HashMap<>();
+        this.clears = new HashMap<>();
+        this.generation = new AtomicLong();
+    }
+
+    public CompletableFuture<Void> rebuild() {
+        return rebuild(1);
+    }
+
+    private CompletableFuture<Void> rebuild(int attempt) {
+        long before = generation.get();
+        return repository.loadClearedPlayers().thenCompose(loadedClears -> {
+            if (loadedClears == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (generation.get() != before && attempt < MAX_REBUILD_ATTEMPTS) {
+                return rebuild(attempt + 1);
+            }
+
+            int players;
+            synchronized (this) {
+                playerIndex.clear();
+                clears.clear();
+                for (Map.Entry<String, List<UUID>> entry : loadedClears.entrySet()) {
+                    BitSet bossPlayers = new BitSet();
+                    for (UUID playerId : entry.getValue()) {
+                        bossPlayers.set(indexOf(playerId));
+                    }
+                    clears.put(entry.getKey(), bossPlayers);
+                }
+                loaded = true;
+                players = playerIndex.size();
+            }
+            MofuBossBattle.getInstance().getLogger().info("Indexed clears of " + players
+                    + " player(s) for " + loadedClears.size() + " boss(es).");
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Number of players who cleared the boss
+     */
+    public synchronized int getClearCount(String bossId) {
+        BitSet players = clears.get(bossId);
+        return players != null ? players.cardinality() : 0;
+    }
+
+    /**
+     * Number of players who cleared every one of the given bosses (0 for an empty list)
+     */
+    public synchronized int getClearedAllCount(Collection<String> bossIds) {
+        BitSet players = intersect(bossIds);
+        return players != null ? players.cardinality() : 0;
+    }
+
+    public synchronized boolean hasCleared(UUID playerId, String bossId) {
+        Integer index = playerIndex.get(playerId);
+        BitSet players = clears.get(bossId);
+        return index != null && players != null && players.get(index);
+    }
+
+    /**
+     * Number of players with at least one clear
+     */
+    public synchronized int getPlayerCount() {
+        BitSet players = new BitSet();
+        for (BitSet bossPlayers : clears.values()) {
+            players.or(bossPlayers);
+        }
+        return players.cardinality();
+    }
+
+    @Override
+    public synchronized void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+        generation.incrementAndGet();
+
+        // Only a first clear changes who has cleared the boss
+        if (previousBestMs < 0) {
+            clears.computeIfAbsent(bossId, k -> new BitSet()).set(indexOf(playerId));
+        }
+    }
+
+    @Override
+    public synchronized void onRankingsReset(String bossId, UUID playerId) {
+        generation.incrementAndGet();
+
+        if (bossId != null && playerId == null) {
+            clears.remove(bossId);
+            return;
+        }
+        if (bossId != null) {
+            Integer index = playerIndex.get(playerId);
+            BitSet players = clears.get(bossId);
+            if (index != null && players != null) {
+                players.clear(index);
+            }
+            return;
+        }
+        if (playerId != null) {
+            Integer index = playerIndex.get(playerId);
+            if (index != null) {
+                for (BitSet players : clears.values()) {
+                    players.clear(index);
+                }
+            }
+            return;
+        }
+
+        // Imports and season archives replace everything
+        rebuild();
+    }
+
+    private int indexOf(UUID playerId) {
+        return playerIndex.computeIfAbsent(playerId, k -> playerIndex.size());
+    }
+
+    // Copy of the players who cleared all given bosses, or null for an empty list
+    private BitSet intersect(Collection<String> bossIds) {
+        BitSet result = null;
+        for (String bossId : bossIds) {
+            BitSet players = clears.get(bossId);
+            if (players == null) {
+                return new BitSet();
+            }
+            if (result == null) {
+                result = (BitSet) players.clone();
+            } else {
+                result.and(players);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,141 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.database.HistoryEntry;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches /boss history pages per player (and boss filter). Like {@link RankingPageCache}, the
+ * last battle of a cached page is the keyset anchor for the next one, so paging through a
+ * long history is one index seek per page. A page is only ever reached that way: a jump
+ * steps forward from the nearest cached page, caching each page on the way.
+ */
+public class HistoryPageCache implements RankingListener {
+
+    public static final int PAGE_SIZE = 10;
+
+    private static final long CACHE_DURATION = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_PAGES_PER_LISTING = 64;
+    private static final int MAX_LISTINGS = 512;
+
+    // Furthest a requested page may be from the nearest cached one
+    private static final int MAX_PAGE_WALK = 10;
+
+    private final RankingStore repository;
+    private final Map<String, ConcurrentSkipListMap<Integer, CachedPage>> pages;
+
+    public HistoryPageCache(RankingStore repository) {
+        this.repository = repository;
+        this.pages = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Page of a player's battles, newest first, of one boss or of all when {@code bossId} is null
+     */
+    public CompletableFuture<List<HistoryEntry>> getPage(UUID playerId, String bossId, int page) {
+        String key = playerId + ":" + (bossId != null ? bossId : "");
+        ConcurrentSkipListMap<Integer, CachedPage> listing = pages.get(key);
+
+        CachedPage cached = listing != null ? listing.get(page) : null;
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached.entries);
+        }
+
+        // Nearest cached full page before the requested one gives us the keyset anchor
+        HistoryEntry anchor = null;
+        int anchorPage = 0;
+        if (listing != null) {
+            for (Map.Entry<Integer, CachedPage> entry : listing.headMap(page, false).descendingMap().entrySet()) {
+                CachedPage candidate = entry.getValue();
+                if (!candidate.isExpired() && candidate.entries.size() == PAGE_SIZE) {
+                    anchor = candidate.entries.get(PAGE_SIZE - 1);
+                    anchorPage = entry.getKey();
+                    break;
+                }
+            }
+        }
+
+        if (page - anchorPage > MAX_PAGE_WALK) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return walk(key, playerId, bossId, anchorPage + 1, page, anchor);
+    }
+
+    public void invalidate(UUID playerId) {
+        String prefix = playerId + ":";
+        pages.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    public void invalidateAll() {
+        pages.clear();
+    }
+
+    @Override
+    public void onBattleRecorded(UUID playerId, String bossId, String result, long durationMs) {
+        invalidate(playerId);
+    }
+
+    @Override
+    public void onRankingsReset(String bossId, UUID playerId) {
+        // Only a history import changes past battles
+        if (bossId == null && playerId == null) {
+            invalidateAll();
+        }
+    }
+
+    // Keyset steps from one page to the next until the target or the last page
+    private CompletableFuture<List<HistoryEntry>> walk(String key, UUID playerId, String bossId, int page, int target,
+                                                       HistoryEntry after) {
+        return fetch(key, playerId, bossId, page, after).thenCompose(entries -> {
+            if (page == target) {
+                return CompletableFuture.completedFuture(entries);
+            }
+            if (entries.size() < PAGE_SIZE) {
+                return CompletableFuture.completedFuture(List.<HistoryEntry>of());
+            }
+            return walk(key, playerId, bossId, page + 1, target, entries.get(PAGE_SIZE - 1));
+        });
+    }
+
+    private CompletableFuture<List<HistoryEntry>> fetch(String key, UUID playerId, String bossId, int page, HistoryEntry after) {
+        return repository.getHistoryAfter(playerId, bossId, after, PAGE_SIZE).thenApply(entries -> {
+            if (pages.size() >= MAX_LISTINGS) {
+                pages.values().removeIf(listing -> listing.values().stream().allMatch(CachedPage::isExpired));
+            }
+            if (pages.size() >= MAX_LISTINGS && !pages.containsKey(key)) {
+                return entries;
+            }
+
+            ConcurrentSkipListMap<Integer, CachedPage> listing = pages.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+            if (listing.size() >= MAX_PAGES_PER_LISTING) {
+                listing.values().removeIf(CachedPage::isExpired);
+            }
+            if (listing.size() < MAX_PAGES_PER_LISTING) {
+                listing.put(page, new CachedPage(entries));
+            }
+            return entries;
+        });
+    }
+
+    private static class CachedPage {
+        final List<HistoryEntry> entries;
+        final long timestamp;
+
+        CachedPage(List<HistoryEntry> entries) {
+            this.entries = entries;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - timestamp > CACHE_DURATION;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.config.BossConfig;
+import net.mofucraft.bossbattle.config.MessageConfig;
+import net.mofucraft.bossbattle.database.RankingEntry;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+import net.mofucraft.bossbattle.util.MessageUtil;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every boss's all-time leaderboard in memory, as a list sorted like the SQL leaderboard (best
+ * time, then player UUID). Ranks and the players around someone are binary searches and list
+ * offsets instead of COUNT or OFFSET queries. Built once from the personal bests and kept
+ * current from {@link RankingListener} events, which also tell a player when a clear moved
+ * them up.
+ */
+public class LeaderboardIndex implements RankingListener {
+
+    private static final int MAX_REBUILD_ATTEMPTS = 3;
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry>comparingLong(entry -> entry.time)
+            .thenComparing(entry -> entry.sortKey);
+
+    private final RankingStore repository;
+    private final Map<String, Board> boards;
+
+    // Bumped on every ranking write so a rebuild that raced with one can be retried
+    private final AtomicLong generation;
+    private volatile boolean loaded;
+
+    public LeaderboardIndex(RankingStore repository) {
+        this.repository = repository;
+        this.boards = new HashMap<>();
+        this.generation = new AtomicLong();
+    }
+
+    public CompletableFuture<Void> rebuild() {
+        return rebuild(1);
+    }
+
+    private CompletableFuture<Void> rebuild(int attempt) {
+        long before = generation.get();
+        return repository.loadLeaderboards().thenCompose(leaderboards -> {
+            if (leaderboards == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (generation.get() != before && attempt < MAX_REBUILD_ATTEMPTS) {
+                return rebuild(attempt + 1);
+            }
+
+            int entries = 0;
+            synchronized (this) {
+                boards.clear();
+                // Already in leaderboard order, so the lists are filled without sorting
+                for (Map.Entry<String, List<RankingEntry>> leaderboard : leaderboards.entrySet()) {
+                    Board board = new Board();
+                    for (RankingEntry ranked : leaderboard.getValue()) {
+                        Entry entry = new Entry(ranked.getPlayerId(), ranked.getPlayerName(),
+                                ranked.getClearTimeMillis(), ranked.getRecordedAt());
+                        board.entries.add(entry);
+                        board.byPlayer.put(entry.playerId, entry);
+                    }
+                    boards.put(leaderboard.getKey(), board);
+                    entries += board.entries.size();
+                }
+                loaded = true;
+            }
+            MofuBossBattle.getInstance().getLogger().info("Indexed " + entries + " personal best(s) for "
+                    + leaderboards.size() + " leaderboard(s).");
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * The player's rank (ties share one), or -1 if they have no record
+     */
+    public synchronized int getRank(UUID playerId, String bossId) {
+        Board board = boards.get(bossId);
+        Entry entry = board != null ? board.byPlayer.get(playerId) : null;
+        return entry != null ? board.rankOf(entry.time) : -1;
+    }
+
+    public synchronized int getTotal(String bossId) {
+        Board board = boards.get(bossId);
+        return board != null ? board.entries.size() : 0;
+    }
+
+    /**
+     * The player directly above: the slowest of those with a better time (a tie is not above).
+     * Null for an unranked player or the leader.
+     */
+    public synchronized RankingEntry getRival(UUID playerId, String bossId) {
+        Board board = boards.get(bossId);
+        Entry entry = board != null ? board.byPlayer.get(playerId) : null;
+        if (entry == null) {
+            return null;
+        }
+
+        int firstTied = board.firstIndexOf(entry.time);
+        return firstTied > 0 ? board.toRankingEntry(firstTied - 1, bossId) : null;
+    }
+
+    /**
+     * Players from {@code radius} places above to {@code radius} places below the player,
+     * including the player, in leaderboard order. Empty for an unranked player.
+     */
+    public synchronized List<RankingEntry> getNeighborhood(UUID playerId, String bossId, int radius) {
+        Board board = boards.get(bossId);
+        Entry entry = board != null ? board.byPlayer.get(playerId) : null;
+        if (entry == null) {
+            return List.of();
+        }
+
+        int index = board.indexOf(entry);
+        int from = Math.max(0, index - radius);
+        int to = Math.min(board.entries.size(), index + radius + 1);
+        List<RankingEntry> neighborhood = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            neighborhood.add(board.toRankingEntry(i, bossId));
+        }
+        return neighborhood;
+    }
+
+    /**
+     * The player {@code offset} places from this one (negative is above), or null if there is none
+     */
+    public synchronized RankingEntry getNeighbor(UUID playerId, String bossId, int offset) {
+        Board board = boards.get(bossId);
+        Entry entry = board != null ? board.byPlayer.get(playerId) : null;
+        if (entry == null) {
+            return null;
+        }
+
+        int index = board.indexOf(entry) + offset;
+        return index >= 0 && index < board.entries.size() ? board.toRankingEntry(index, bossId) : null;
+    }
+
+    /**
+     * Entry at this 0-based position in leaderboard order, or null past the end
+     */
+    public synchronized RankingEntry getEntryAt(String bossId, int position) {
+        Board board = boards.get(bossId);
+        return board != null && position >= 0 && position < board.entries.size()
+                ? board.toRankingEntry(position, bossId)
+                : null;
+    }
+
+    @Override
+    public void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+        int previousRank;
+        int rank;
+        int total;
+        synchronized (this) {
+            generation.incrementAndGet();
+
+            Board board = boards.computeIfAbsent(bossId, k -> new Board());
+            Entry previous = board.byPlayer.get(playerId);
+            if (previous != null && previous.time <= clearTimeMs) {
+                return;
+            }
+
+            previousRank = previous != null ? board.rankOf(previous.time) : -1;
+            if (previous != null) {
+                board.entries.remove(board.indexOf(previous));
+            }
+            Entry entry = new Entry(playerId, playerName, clearTimeMs, LocalDateTime.now());
+            board.entries.add(-board.indexOf(entry) - 1, entry);
+            board.byPlayer.put(playerId, entry);
+
+            rank = board.rankOf(clearTimeMs);
+            total = board.entries.size();
+        }
+
+        // Before the first build the ranks are only those of records saved since startup
+        if (loaded && (previousRank < 0 || rank < previousRank)) {
+            announceRankUp(playerId, bossId, previousRank, rank, total);
+        }
+    }
+
+    @Override
+    public synchronized void onRankingsReset(String bossId, UUID playerId) {
+        generation.incrementAndGet();
+
+        if (bossId != null && playerId == null) {
+            boards.remove(bossId);
+            return;
+        }
+        if (bossId != null) {
+            Board board = boards.get(bossId);
+            if (board != null) {
+                board.remove(playerId);
+            }
+            return;
+        }
+        if (playerId != null) {
+            for (Board board : boards.values()) {
+                board.remove(playerId);
+            }
+            return;
+        }
+
+        // Imports and season archives replace everything
+        rebuild();
+    }
+
+    private void announceRankUp(UUID playerId, String bossId, int previousRank, int rank, int total) {
+        MofuBossBattle plugin = MofuBossBattle.getInstance();
+        if (!plugin.getConfigManager().isRankUpNotifications()) {
+            return;
+        }
+
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            Player player = Bukkit.getPlayer(playerId);
+            BossConfig bossConfig = plugin.getConfigManager().getBossConfig(bossId);
+            if (player == null || bossConfig == null) {
+                return;
+            }
+
+            MessageConfig messages = plugin.getConfigManager().getMessageConfig();
+            Map<String, String> placeholders = new HashMap<>();
+            placeholders.put("boss_name", bossConfig.getDisplayName());
+            placeholders.put("boss_name_plain", MessageUtil.stripColors(bossConfig.getDisplayName()));
+            placeholders.put("rank", String.valueOf(rank));
+            placeholders.put("previous_rank", String.valueOf(previousRank));
+            placeholders.put("total", String.valueOf(total));
+            MessageUtil.sendMessage(player, messages.withPrefix(previousRank < 0
+                    ? messages.getRankingNewEntry()
+                    : messages.getRankingRankUp()), placeholders);
+        });
+    }
+
+    private static class Board {
+        final List<Entry> entries = new ArrayList<>();
+        final Map<UUID, Entry> byPlayer = new HashMap<>();
+
+        // Position of the entry, or (-insertion point - 1) if it is not in the list
+        int indexOf(Entry entry) {
+            return Collections.binarySearch(entries, entry, ORDER);
+        }
+
+        // Index of the first entry with this time or slower
+        int firstIndexOf(long time) {
+            int low = 0;
+            int high = entries.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (entries.get(mid).time < time) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Players with a strictly better time, plus one
+        int rankOf(long time) {
+            return firstIndexOf(time) + 1;
+        }
+
+        void remove(UUID playerId) {
+            Entry entry = byPlayer.remove(playerId);
+            if (entry != null) {
+                entries.remove(indexOf(entry));
+            }
+        }
+
+        RankingEntry toRankingEntry(int index, String bossId) {
+            Entry entry = entries.get(index);
+            return new RankingEntry(rankOf(entry.time), index + 1, entry.playerId, entry.name, bossId, entry.time,
+                    entry.recordedAt);
+        }
+    }
+
+    private static class Entry {
+        final UUID playerId;
+        final String name;
+        final long time;
+        final LocalDateTime recordedAt;
+
+        // player_uuid compares as a string in SQL, which is not UUID.compareTo order
+        final String sortKey;
+
+        Entry(UUID playerId, String name, long time, LocalDateTime recordedAt) {
+            this.playerId = playerId;
+            this.name = name;
+            this.time = time;
+            this.recordedAt = recordedAt;
+            this.sortKey = playerId.toString();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.database.KnownPlayer;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves player names for commands targeting offline players without the blocking profile
+ * lookup of {@code Bukkit.getOfflinePlayer(String)}. Online players and the server's user cache
+ * answer at once; anyone else is looked up in the ranking tables off the main thread, and the
+ * answer is cached.
+ */
+public class PlayerNameResolver implements RankingListener {
+
+    private static final long CACHE_DURATION = TimeUnit.MINUTES.toMillis(30);
+    private static final int MAX_CACHED_NAMES = 1024;
+    private static final int MAX_NAME_LENGTH = 16;
+
+    private final RankingStore repository;
+
+    // Lower-cased name -> player
+    private final Map<String, CachedPlayer> names;
+
+    // Lookups in flight, so repeated commands for the same name share one query
+    private final Map<String, CompletableFuture<KnownPlayer>> pending;
+
+    public PlayerNameResolver(RankingStore repository) {
+        this.repository = repository;
+        this.names = new ConcurrentHashMap<>();
+        this.pending = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Player known under this name, or null if nobody is. Call on the main thread; the future
+     * may complete on another one.
+     */
+    public CompletableFuture<KnownPlayer> resolve(String name) {
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        Player online = Bukkit.getPlayerExact(name);
+        if (online != null) {
+            return CompletableFuture.completedFuture(remember(online.getUniqueId(), online.getName()));
+        }
+
+        String key = name.toLowerCase(Locale.ROOT);
+        CachedPlayer cached = names.get(key);
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached.player);
+        }
+
+        // Players who joined recently but never fought are only in the server's user cache
+        OfflinePlayer offline = Bukkit.getOfflinePlayerIfCached(name);
+        if (offline != null && offline.getName() != null) {
+            return CompletableFuture.completedFuture(remember(offline.getUniqueId(), offline.getName()));
+        }
+
+        return pending.computeIfAbsent(key, k -> repository.findPlayerByName(name).whenComplete((player, error) -> {
+            pending.remove(k);
+            if (player != null) {
+                remember(player.getPlayerId(), player.getName());
+            }
+        }));
+    }
+
+    /**
+     * Record who uses a name now, e.g. when a player joins
+     */
+    public KnownPlayer remember(UUID playerId, String name) {
+        KnownPlayer player = new KnownPlayer(playerId, name);
+        if (names.size() >= MAX_CACHED_NAMES) {
+            names.values().removeIf(CachedPlayer::isExpired);
+        }
+        if (names.size() < MAX_CACHED_NAMES) {
+            names.put(name.toLowerCase(Locale.ROOT), new CachedPlayer(player));
+        }
+        return player;
+    }
+
+    @Override
+    public void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+        remember(playerId, playerName);
+    }
+
+    private static class CachedPlayer {
+        final KnownPlayer player;
+        final long timestamp;
+
+        CachedPlayer(KnownPlayer player) {
+            this.player = player;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - timestamp > CACHE_DURATION;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.PlayerStanding;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Standings of online players for every boss, loaded once at login and kept current from
+ * {@link RankingListener} events so placeholders never have to hit the database.
+ */
+public class PlayerStandingCache implements RankingListener {
+
+    // A load that overlaps this many writes in a row is kept anyway rather than retried forever
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final RankingStore repository;
+    private final Supplier<Collection<String>> bossIds;
+    private final Map<UUID, Map<String, PlayerStanding>> standings;
+
+    // Bumped on every ranking write so a load that raced with one can be retried
+    private final AtomicLong generation;
+
+    public PlayerStandingCache(RankingStore repository, Supplier<Collection<String>> bossIds) {
+        this.repository = repository;
+        this.bossIds = bossIds;
+        this.standings = new ConcurrentHashMap<>();
+        this.generation = new AtomicLong();
+    }
+
+    /**
+     * Load all standings for a player in one query. Blocks, so only call off the main thread
+     * (e.g. from AsyncPlayerPreLoginEvent). If they cannot be read, nothing is cached and lookups
+     * for the player go to the database as for offline players.
+     */
+    public void load(UUID playerId) {
+        Collection<String> ids = List.copyOf(bossIds.get());
+
+        try {
+            for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+                long before = generation.get();
+                Map<String, PlayerStanding> loaded = repository.getPlayerStandings(playerId, ids).join();
+                if (loaded == null) {
+                    return;
+                }
+                if (generation.get() == before || attempt == MAX_LOAD_ATTEMPTS) {
+                    standings.put(playerId, new ConcurrentHashMap<>(loaded));
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to prefetch standings for " + playerId, e);
+        }
+    }
+
+    /**
+     * Load (or reload) a player in the background. Results for a player evicted in the meantime
+     * are dropped, and a failed read keeps whatever was cached before.
+     */
+    public void loadAsync(UUID playerId) {
+        standings.putIfAbsent(playerId, new ConcurrentHashMap<>());
+        repository.getPlayerStandings(playerId, List.copyOf(bossIds.get()))
+                .thenAccept(loaded -> {
+                    if (loaded != null) {
+                        standings.computeIfPresent(playerId, (id, old) -> new ConcurrentHashMap<>(loaded));
+                    }
+                });
+    }
+
+    public void evict(UUID playerId) {
+        standings.remove(playerId);
+    }
+
+    /**
+     * Cached standing, or null if the player is not online or the boss was added after they logged in
+     */
+    public PlayerStanding get(UUID playerId, String bossId) {
+        Map<String, PlayerStanding> playerStandings = standings.get(playerId);
+        return playerStandings != null ? playerStandings.get(bossId) : null;
+    }
+
+    public int size() {
+        return standings.size();
+    }
+
+    @Override
+    public synchronized void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+        generation.incrementAndGet();
+
+        boolean wasRanked = previousBestMs >= 0;
+        long oldBest = wasRanked ? previousBestMs : Long.MAX_VALUE;
+        if (clearTimeMs >= oldBest) {
+            return;
+        }
+
+        // Ranks count strictly faster players, so only those with oldBest >= best > clearTime move down
+        List<UUID> stale = new ArrayList<>();
+        for (Map.Entry<UUID, Map<String, PlayerStanding>> entry : standings.entrySet()) {
+            UUID otherId = entry.getKey();
+            PlayerStanding other = entry.getValue().get(bossId);
+            if (otherId.equals(playerId) || other == null) {
+                continue;
+            }
+
+            int total = other.getTotalRanked() + (wasRanked ? 0 : 1);
+            if (!other.isRanked()) {
+                entry.getValue().put(bossId, new PlayerStanding(otherId, bossId, other.getRank(),
+                        other.getBestTimeMillis(), total, other.getNextRankTimeMillis()));
+                continue;
+            }
+
+            long best = other.getBestTimeMillis();
+            int rank = other.getRank();
+            long next = other.getNextRankTimeMillis();
+            if (clearTimeMs < best && best <= oldBest) {
+                rank++;
+                next = Math.max(next, clearTimeMs);
+            } else if (oldBest < best && next == oldBest) {
+                // The player directly ahead moved further up; the new neighbour is unknown
+                stale.add(otherId);
+            }
+            entry.getValue().put(bossId, new PlayerStanding(otherId, bossId, rank, best, total, next));
+        }
+
+        // Keep the new best visible right away; rank and neighbour come from the refresh
+        Map<String, PlayerStanding> own = standings.get(playerId);
+        PlayerStanding previous = own != null ? own.get(bossId) : null;
+        if (previous != null) {
+            own.put(bossId, new PlayerStanding(playerId, bossId, previous.getRank(),
+                    clearTimeMs, previous.getTotalRanked() + (wasRanked ? 0 : 1), previous.getNextRankTimeMillis()));
+        }
+        stale.add(playerId);
+        refresh(stale, bossId);
+    }
+
+    @Override
+    public synchronized void onRankingsReset(String bossId, UUID playerId) {
+        generation.incrementAndGet();
+
+        // Resets are rare admin actions; simply re-read whatever is affected
+        if (playerId == null && bossId != null) {
+            for (Map.Entry<UUID, Map<String, PlayerStanding>> entry : standings.entrySet()) {
+                entry.getValue().put(bossId, PlayerStanding.unranked(entry.getKey(), bossId));
+            }
+            return;
+        }
+
+        for (UUID onlineId : new ArrayList<>(standings.keySet())) {
+            loadAsync(onlineId);
+        }
+    }
+
+    private void refresh(Collection<UUID> playerIds, String bossId) {
+        for (UUID playerId : playerIds) {
+            repository.getPlayerStanding(playerId, bossId).thenAccept(standing -> {
+                if (standing != null) {
+                    standings.computeIfPresent(playerId, (id, playerStandings) -> {
+                        playerStandings.put(bossId, standing);
+                        return playerStandings;
+                    });
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.PlayerBossStats;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingStore;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Battle stats of online players, loaded at login and counted up from {@link RankingListener}
+ * events, so /boss stats and the stats placeholders never read the database for them.
+ */
+public class PlayerStatsCache implements RankingListener {
+
+    // A load that overlaps this many battles in a row is kept anyway rather than retried forever
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private final RankingStore repository;
+    private final Map<UUID, Map<String, PlayerBossStats>> stats;
+
+    // Bumped on every recorded battle so a load that raced with one can be retried
+    private final AtomicLong generation;
+
+    public PlayerStatsCache(RankingStore repository) {
+        this.repository = repository;
+        this.stats = new ConcurrentHashMap<>();
+        this.generation = new AtomicLong();
+    }
+
+    /**
+     * Load a player's stats. Blocks, so only call off the main thread (e.g. from AsyncPlayerPreLoginEvent).
+     */
+    public void load(UUID playerId) {
+        try {
+            for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+                long before = generation.get();
+                Map<String, PlayerBossStats> loaded = repository.getPlayerStats(playerId).join();
+                if (loaded == null) {
+                    return;
+                }
+                if (generation.get() == before || attempt == MAX_LOAD_ATTEMPTS) {
+                    stats.put(playerId, new ConcurrentHashMap<>(loaded));
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            MofuBossBattle.getInstance().getLogger().log(Level.WARNING, "Failed to prefetch stats for " + playerId, e);
+        }
+    }
+
+    /**
+     * Load (or reload) a player in the background. Results for a player evicted in the meantime are dropped.
+     */
+    public void loadAsync(UUID playerId) {
+        stats.putIfAbsent(playerId, new ConcurrentHashMap<>());
+        repository.getPlayerStats(playerId).thenAccept(loaded -> {
+            if (loaded != null) {
+                stats.computeIfPresent(playerId, (id, old) -> new ConcurrentHashMap<>(loaded));
+            }
+        });
+    }
+
+    public void evict(UUID playerId) {
+        stats.remove(playerId);
+    }
+
+    /**
+     * Cached stats, or null if the player's stats are not loaded. A loaded player who never
+     * fought the boss gets empty stats.
+     */
+    public PlayerBossStats get(UUID playerId, String bossId) {
+        Map<String, PlayerBossStats> playerStats = stats.get(playerId);
+        if (playerStats == null) {
+            return null;
+        }
+        return playerStats.getOrDefault(bossId, PlayerBossStats.empty(playerId, bossId));
+    }
+
+    /**
+     * Every boss the player has fought, or null if the player's stats are not loaded
+     */
+    public Map<String, PlayerBossStats> getAll(UUID playerId) {
+        Map<String, PlayerBossStats> playerStats = stats.get(playerId);
+        return playerStats != null ? Map.copyOf(playerStats) : null;
+    }
+
+    @Override
+    public void onBattleRecorded(UUID playerId, String bossId, String result, long durationMs) {
+        generation.incrementAndGet();
+        stats.computeIfPresent(playerId, (id, playerStats) -> {
+            playerStats.merge(bossId, PlayerBossStats.empty(playerId, bossId).withBattle(result, durationMs),
+                    (old, added) -> old.withBattle(result, durationMs));
+            return playerStats;
+        });
+    }
+
+    @Override
+    public void onRankingsReset(String bossId, UUID playerId) {
+        // Stats come from the history, which only changes in bulk on an import
+        if (bossId == null && playerId == null) {
+            generation.incrementAndGet();
+            for (UUID onlineId : new ArrayList<>(stats.keySet())) {
+                loadAsync(onlineId);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package net.mofucraft.bossbattle.ranking;
+
+import net.mofucraft.bossbattle.database.RankingEntry;
+import net.mofucraft.bossbattle.database.RankingListener;
+import net.mofucraft.bossbattle.database.RankingPeriod;
+import net.mofucraft.bossbattle.database.RankingStore;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caches leaderboard pages per boss. The last entry of every cached page doubles as the
+ * keyset anchor for the following page, so browsing forward from any cached page is a
+ * single index seek no matter how deep it is. A jump to an uncached page of the active
+ * rankings takes its anchor from the {@link LeaderboardIndex}; archived seasons and periods
+ * have no such index and step forward page by page from the nearest cached one instead.
+ * Archived seasons are cached under their own key, which new records never invalidate.
+ * Daily/weekly/monthly pages are keyed by period.
+ */
+public class RankingPageCache implements RankingListener {
+
+    public static final int PAGE_SIZE = 10;
+
+    private static final long CACHE_DURATION = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_PAGES_PER_BOSS = 256;
+
+    // Furthest a season or period page may be from the nearest cached one
+    private static final int MAX_PAGE_WALK = 10;
+
+    private final RankingStore repository;
+    private final LeaderboardIndex leaderboardIndex;
+    private final Map<String, ConcurrentSkipListMap<Integer, CachedPage>> pages;
+
+    public RankingPageCache(RankingStore repository, LeaderboardIndex leaderboardIndex) {
+        this.repository = repository;
+        this.leaderboardIndex = leaderboardIndex;
+        this.pages = new ConcurrentHashMap<>();
+    }
+
+    public CompletableFuture<List<RankingEntry>> getPage(String bossId, int page) {
+        return getPage(bossId, null, page);
+    }
+
+    /**
+     * Page of an archived season, or of the active rankings when {@code season} is null
+     */
+    public CompletableFuture<List<RankingEntry>> getPage(String bossId, String season, int page) {
+        return getPage(season == null ? bossId : bossId + "@" + season, page, new PageSource() {
+            @Override
+            public CompletableFuture<List<RankingEntry>> fetch(RankingEntry after) {
+                return repository.getRankingsAfter(season, bossId, after, PAGE_SIZE);
+            }
+
+            @Override
+            public boolean isIndexed() {
+                return season == null && leaderboardIndex.isLoaded();
+            }
+
+            @Override
+            public RankingEntry getEntryAt(int position) {
+                return leaderboardIndex.getEntryAt(bossId, position);
+            }
+        });
+    }
+
+    /**
+     * Page of the current daily/weekly/monthly leaderboard. The period start is part of the
+     * key, so pages of a finished period are never served after the boundary.
+     */
+    public CompletableFuture<List<RankingEntry>> getPeriodPage(String bossId, RankingPeriod period, int page) {
+        String key = bossId + "#" + period.getKey() + ":" + repository.getCurrentPeriodStart(period);
+        return getPage(key, page, new PageSource() {
+            @Override
+            public CompletableFuture<List<RankingEntry>> fetch(RankingEntry after) {
+                return repository.getPeriodRankingsAfter(period, bossId, after, PAGE_SIZE);
+            }
+
+        });
+    }
+
+    /**
+     * Drop the active and period pages of a boss. Archived seasons are left alone.
+     */
+    public void invalidate(String bossId) {
+        pages.remove(bossId);
+        String periodPrefix = bossId + "#";
+        pages.keySet().removeIf(key -> key.startsWith(periodPrefix));
+    }
+
+    public void invalidateAll() {
+        pages.clear();
+    }
+
+    @Override
+    public void onRecordSaved(UUID playerId, String playerName, String bossId, long clearTimeMs, long previousBestMs) {
+        invalidate(bossId);
+    }
+
+    @Override
+    public void onRankingsReset(String bossId, UUID playerId) {
+        if (bossId == null) {
+            invalidateAll();
+        } else {
+            invalidate(bossId);
+        }
+    }
+
+    private CompletableFuture<List<RankingEntry>> getPage(String key, int page, PageSource source) {
+        ConcurrentSkipListMap<Integer, CachedPage> bossPages = pages.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+
+        CachedPage cached = bossPages.get(page);
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(cached.entries);
+        }
+
+        // Nearest cached full page before the requested one gives us the keyset anchor
+        RankingEntry anchor = null;
+        int anchorPage = 0;
+        for (Map.Entry<Integer, CachedPage> entry : bossPages.headMap(page, false).descendingMap().entrySet()) {
+            CachedPage candidate = entry.getValue();
+            if (!candidate.isExpired() && candidate.entries.size() == PAGE_SIZE) {
+                anchor = candidate.entries.get(PAGE_SIZE - 1);
+                anchorPage = entry.getKey();
+                break;
+            }
+        }
+
+        if (anchorPage == page - 1) {
+            return fetch(key, page, source, anchor);
+        }
+
+        // Cold jump: the in-memory leaderboard knows the row before the page, so no OFFSET scan
+        if (source.isIndexed()) {
+            RankingEntry start = source.getEntryAt((page - 1) * PAGE_SIZE - 1);
+            if (start == null) {
+                return CompletableFuture.completedFuture(List.of());
+            }
+            return fetch(key, page, source, start);
+        }
+
+        if (page - anchorPage > MAX_PAGE_WALK) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        return walk(key, anchorPage + 1, page, source, anchor);
+    }
+
+    // Keyset steps from one page to the next, caching each, until the target or the last page
+    private CompletableFuture<List<RankingEntry>> walk(String key, int page, int target, PageSource source, RankingEntry after) {
+        return fetch(key, page, source, after).thenCompose(entries -> {
+            if (page == target) {
+                return CompletableFuture.completedFuture(entries);
+            }
+            if (entries.size() < PAGE_SIZE) {
+                return CompletableFuture.completedFuture(List.<RankingEntry>of());
+            }
+            return walk(key, page + 1, target, source, entries.get(PAGE_SIZE - 1));
+        });
+    }
+
+    private CompletableFuture<List<RankingEntry>> fetch(String key, int page, PageSource source, RankingEntry after) {
+        return source.fetch(after).thenApply(entries -> {
+            // A failed read is shown as empty but not cached, so the next request tries again
+            if (entries == null) {
+                return List.<RankingEntry>of();
+            }
+
+            ConcurrentSkipListMap<Integer, CachedPage> bossPages = pages.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>());
+            if (bossPages.size() >= MAX_PAGES_PER_BOSS) {
+                bossPages.values().removeIf(CachedPage::isExpired);
+            }
+            if (bossPages.size() < MAX_PAGES_PER_BOSS) {
+                bossPages.put(page, new CachedPage(entries));
+            }
+            return entries;
+        });
+    }
+
+    // One leaderboard: the active rankings, an archived season or a period
+    private interface PageSource {
+        CompletableFuture<List<RankingEntry>> fetch(RankingEntry after);
+
+        // Whether getEntryAt can answer, i.e. the leaderboard is held in memory
+        default boolean isIndexed() {
+            return false;
+        }
+
+        default RankingEntry getEntryAt(int position) {
+            return null;
+        }
+    }
+
+    private static class CachedPage {
+        final List<RankingEntry> entries;
+        final long timestamp;
+
+        CachedPage(List<RankingEntry> entries) {
+            this.entries = entries;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() - timestamp > CACHE_DURATION;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package net.mofucraft.bossbattle.task;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.config.ConfigManager;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.time.LocalDate;
+
+/**
+ * Periodic attempt compaction and purge of expired period bests. Must be scheduled
+ * asynchronously - a pass can take minutes on a large table.
+ */
+public class CompactionTask extends BukkitRunnable {
+
+    // boss_personal_bests must exist before attempts can be trimmed against it
+    private static final int REQUIRED_SCHEMA_VERSION = 2;
+    private static final int PERIOD_BESTS_SCHEMA_VERSION = 5;
+
+    private final MofuBossBattle plugin;
+
+    public CompactionTask(MofuBossBattle plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isCompactionEnabled() || plugin.getDatabaseManager().getSchemaVersion() < REQUIRED_SCHEMA_VERSION) {
+            return;
+        }
+
+        plugin.getAttemptCompactor().compact(
+                config.getCompactionKeepRecentAttempts(),
+                config.getCompactionChunkSize(),
+                config.getCompactionChunkPauseMs());
+
+        if (plugin.getDatabaseManager().getSchemaVersion() >= PERIOD_BESTS_SCHEMA_VERSION) {
+            LocalDate cutoff = LocalDate.now(config.getPeriodTimezone()).minusDays(config.getPeriodRetentionDays());
+            int purged = plugin.getRankingStore().purgePeriodBests(cutoff,
+                    config.getCompactionChunkSize(), config.getCompactionChunkPauseMs());
+            if (purged > 0) {
+                plugin.getLogger().info("Purged " + purged + " period bests older than " + cutoff);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package net.mofucraft.bossbattle.task;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.config.ConfigManager;
+import net.mofucraft.bossbattle.database.HistoryArchiver;
+import org.bukkit.scheduler.BukkitRunnable;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Moves expired battle history to the archive during the configured low-load hours. Must be
+ * scheduled asynchronously; a pass stops at the end of the window and continues in the next.
+ */
+public class HistoryRetentionTask extends BukkitRunnable {
+
+    // battle_history_archive, and the rollup watermark that bounds what may be purged
+    private static final int REQUIRED_SCHEMA_VERSION = 9;
+
+    private final MofuBossBattle plugin;
+
+    public HistoryRetentionTask(MofuBossBattle plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isHistoryRetentionEnabled() || !plugin.isReady()
+                || plugin.getDatabaseManager().getSchemaVersion() < REQUIRED_SCHEMA_VERSION) {
+            return;
+        }
+
+        ZonedDateTime now = ZonedDateTime.now(config.getPeriodTimezone());
+        int start = config.getHistoryRetentionWindowStartHour();
+        int end = config.getHistoryRetentionWindowEndHour();
+        int hour = now.getHour();
+        boolean inWindow = start <= end ? hour >= start && hour < end : hour >= start || hour < end;
+        if (!inWindow) {
+            return;
+        }
+
+        Instant cutoff = getCutoff(plugin);
+        if (cutoff == null) {
+            return;
+        }
+
+        // Hours left until the window closes, counted from the top of the current hour
+        int hoursLeft = Math.floorMod(end - hour, 24);
+        long deadline = now.truncatedTo(ChronoUnit.HOURS).plusHours(hoursLeft == 0 ? 24 : hoursLeft)
+                .toInstant().toEpochMilli();
+        plugin.getHistoryArchiver().archive(cutoff, config.isHistoryArchiveEnabled(),
+                config.getHistoryRetentionChunkSize(), config.getHistoryRetentionChunkPauseMs(), deadline);
+    }
+
+    /**
+     * Where the retention may purge up to right now, or null if nothing may go yet. Blocks on
+     * reading the rollup watermark, so only call off the main thread.
+     */
+    public static Instant getCutoff(MofuBossBattle plugin) {
+        ConfigManager config = plugin.getConfigManager();
+        plugin.getHistoryRollup().loadWatermark().join();
+        return HistoryArchiver.getCutoff(config.getHistoryRetentionDays(),
+                plugin.getHistoryRollup().getSettledBefore(config.getRollupReprocessHours()));
+    }
+}
@@ -0,0 +1,32 @@
+package net.mofucraft.bossbattle.task;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.database.outbox.OutboxReplayer;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Periodically drains the outbox journal. Must be scheduled asynchronously - a pass blocks
+ * on the database for as long as it is unreachable.
+ */
+public class OutboxReplayTask extends BukkitRunnable {
+
+    // battle_id columns are needed to replay without duplicates
+    private static final int REQUIRED_SCHEMA_VERSION = 6;
+
+    private final MofuBossBattle plugin;
+
+    public OutboxReplayTask(MofuBossBattle plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        OutboxReplayer replayer = plugin.getOutboxReplayer();
+        if (replayer == null || !plugin.getOutboxJournal().hasPendingEntries()
+                || plugin.getDatabaseManager().getSchemaVersion() < REQUIRED_SCHEMA_VERSION) {
+            return;
+        }
+
+        replayer.replay();
+    }
+}
@@ -0,0 +1,35 @@
+package net.mofucraft.bossbattle.task;
+
+import net.mofucraft.bossbattle.MofuBossBattle;
+import net.mofucraft.bossbattle.config.ConfigManager;
+import org.bukkit.scheduler.BukkitRunnable;
+
+/**
+ * Periodic rollup of new battle history into hourly per-boss aggregates. Must be scheduled
+ * asynchronously - the first pass reads the whole history, one hour at a time.
+ */
+public class RollupTask extends BukkitRunnable {
+
+    // boss_hourly_rollups and rollup_watermarks
+    private static final int REQUIRED_SCHEMA_VERSION = 8;
+
+    private final MofuBossBattle plugin;
+
+    public RollupTask(MofuBossBattle plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        ConfigManager config = plugin.getConfigManager();
+        if (!config.isRollupsEnabled() || !plugin.isReady()
+                || plugin.getDatabaseManager().getSchemaVersion() < REQUIRED_SCHEMA_VERSION) {
+            return;
+        }
+
+        int hours = plugin.getHistoryRollup().run(config.getRollupLagMinutes(), config.getRollupReprocessHours());
+        if (hours > 0) {
+            plugin.getLogger().fine("Rolled up " + hours + " hour(s) of battle history");
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package net.mofucraft.bossbattle.util;
+
+/**
+ * Fixed log-scale histogram over non-negative longs. Each power of two is split into
+ * four sub-buckets, so any value is placed within 25% of its true magnitude while the
+ * whole range of a long fits in 248 primitive counters.
+ */
+public class LogHistogram {
+
+    public static final int BUCKET_COUNT = 248;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long total;
+
+    public static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Smallest value that falls into the given bucket
+     */
+    public static long bucketLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Largest value that falls into the given bucket
+     */
+    public static long bucketUpperBound(int index) {
+        if (index >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return bucketLowerBound(index + 1) - 1;
+    }
+
+    public synchronized void record(long value) {
+        counts[bucketIndex(value)]++;
+        total++;
+    }
+
+    public synchronized void remove(long value) {
+        int index = bucketIndex(value);
+        if (counts[index] > 0) {
+            counts[index]--;
+            total--;
+        }
+    }
+
+    public synchronized long getCount() {
+        return total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile (0-100), or -1 when empty
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (total == 0) {
+            return -1;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return bucketUpperBound(i);
+            }
+        }
+        return bucketUpperBound(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Number of recorded values in buckets strictly below the bucket of {@code value}
+     */
+    public synchronized long countBelow(long value) {
+        int index = bucketIndex(value);
+        long below = 0;
+        for (int i = 0; i < index; i++) {
+            below += counts[i];
+        }
+        return below;
+    }
+
+    /**
+     * Estimated number of recorded values below {@code value}, interpolating linearly inside its bucket
+     */
+    public synchronized double estimateCountBelow(long value) {
+        int index = bucketIndex(value);
+        long lower = bucketLowerBound(index);
+        long width = bucketUpperBound(index) - lower + 1;
+        double fraction = width > 0 ? (double) (Math.max(0, value) - lower) / width : 0;
+        return countBelow(value) + counts[index] * fraction;
+    }
+
+    public synchronized long[] snapshot() {
+        return counts.clone();
+    }
+
+    /**
+     * Add every value recorded in {@code other}
+     */
+    public void merge(LogHistogram other) {
+        long[] otherCounts = other.snapshot();
+        synchronized (this) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += otherCounts[i];
+                total += otherCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Compact encoding for storage: (bucket index, varint count) for each non-empty bucket
+     */
+    public synchronized byte[] toBytes() {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            out.write(i);
+            long value = counts[i];
+            while ((value & ~0x7FL) != 0) {
+                out.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            out.write((int) value);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Histogram encoded by {@link #toBytes()}; null or empty input gives an empty histogram
+     */
+    public static LogHistogram fromBytes(byte[] bytes) {
+        LogHistogram histogram = new LogHistogram();
+        if (bytes == null) {
+            return histogram;
+        }
+        int position = 0;
+        while (position < bytes.length) {
+            int index = bytes[position++] & 0xFF;
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (position >= bytes.length) {
+                    throw new IllegalArgumentException("Truncated histogram");
+                }
+                b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            if (index >= BUCKET_COUNT) {
+                throw new IllegalArgumentException("Invalid histogram bucket " + index);
+            }
+            histogram.counts[index] += value;
+            histogram.total += value;
+        }
+        return histogram;
+    }
+
+    public synchronized void reset() {
+        java.util.Arrays.fill(counts, 0);
+        total = 0;
+    }
+}
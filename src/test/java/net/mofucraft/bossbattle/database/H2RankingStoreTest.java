@@ -0,0 +1,16 @@
+package net.mofucraft.bossbattle.database;
+
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+class H2RankingStoreTest extends RankingStoreContractTest {
+
+    @TempDir
+    File dataFolder;
+
+    @Override
+    protected DatabaseManager openDatabase() {
+        return TestDatabases.h2(dataFolder);
+    }
+}
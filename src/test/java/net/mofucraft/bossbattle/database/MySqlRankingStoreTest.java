@@ -0,0 +1,18 @@
+package net.mofucraft.bossbattle.database;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+@EnabledIfEnvironmentVariable(named = TestDatabases.MYSQL_HOST_VARIABLE, matches = ".+")
+class MySqlRankingStoreTest extends RankingStoreContractTest {
+
+    @TempDir
+    File dataFolder;
+
+    @Override
+    protected DatabaseManager openDatabase() {
+        return TestDatabases.mysql(dataFolder);
+    }
+}
@@ -0,0 +1,142 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.util.LogHistogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The same seeded workload against each available backend, printing latency percentiles per
+ * operation. Run with {@code ./gradlew benchmark}; excluded from the regular test task.
+ */
+@Tag("benchmark")
+class RankingStoreBenchmark {
+
+    private static final int BOSSES = 4;
+    private static final int PLAYERS = 2_000;
+    private static final int CLEARS_PER_PLAYER = 3;
+    private static final int DEFEATS_PER_PLAYER = 2;
+    private static final int WRITES_IN_FLIGHT = 32;
+    private static final int READS = 500;
+    private static final int PAGE_SIZE = 10;
+
+    @TempDir
+    File dataFolder;
+
+    @Test
+    void h2() {
+        run("h2", TestDatabases.h2(dataFolder));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = TestDatabases.MYSQL_HOST_VARIABLE, matches = ".+")
+    void mysql() {
+        run("mysql", TestDatabases.mysql(dataFolder));
+    }
+
+    private void run(String backend, DatabaseManager databaseManager) {
+        try {
+            RankingStore store = new RankingRepository(databaseManager);
+            store.setPeriodCalendar(ZoneId.systemDefault(), DayOfWeek.MONDAY);
+            Random random = new Random(42);
+
+            String run = UUID.randomUUID().toString().substring(0, 8);
+            List<String> bossIds = new ArrayList<>();
+            for (int i = 0; i < BOSSES; i++) {
+                bossIds.add("bench_" + run + "_" + i);
+            }
+            List<UUID> players = new ArrayList<>();
+            for (int i = 0; i < PLAYERS; i++) {
+                players.add(UUID.randomUUID());
+            }
+
+            LogHistogram writes = new LogHistogram();
+            long started = System.nanoTime();
+            List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+            int written = 0;
+            for (UUID playerId : players) {
+                String name = "B" + playerId.toString().substring(0, 8);
+                for (int i = 0; i < CLEARS_PER_PLAYER + DEFEATS_PER_PLAYER; i++) {
+                    String bossId = bossIds.get(random.nextInt(BOSSES));
+                    long time = 20_000 + random.nextInt(600_000);
+                    long submitted = System.nanoTime();
+                    CompletableFuture<Void> write = i < CLEARS_PER_PLAYER
+                            ? store.recordBattleResult(UUID.randomUUID(), playerId, name, bossId, "VICTORY", time)
+                            : store.saveBattleHistory(UUID.randomUUID(), playerId, name, bossId, "DEFEAT", time);
+                    inFlight.add(write.thenRun(() -> writes.record(micros(submitted))));
+                    written++;
+                    if (inFlight.size() >= WRITES_IN_FLIGHT) {
+                        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+                        inFlight.clear();
+                    }
+                }
+            }
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+            long writeMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+            LogHistogram topPages = measure(READS, () -> store.getTopRankings(bossIds.get(random.nextInt(BOSSES)), PAGE_SIZE).join());
+            LogHistogram standings = measure(READS, () -> store.getPlayerStanding(
+                    players.get(random.nextInt(PLAYERS)), bossIds.get(random.nextInt(BOSSES))).join());
+            LogHistogram historyPages = measure(READS, () -> store.getHistoryAfter(
+                    players.get(random.nextInt(PLAYERS)), null, null, PAGE_SIZE).join());
+            LogHistogram stats = measure(READS, () -> store.getPlayerStats(players.get(random.nextInt(PLAYERS))).join());
+
+            // Every page of one leaderboard, each continuing from the last entry of the one before
+            LogHistogram keysetPages = new LogHistogram();
+            int ranked = 0;
+            RankingEntry after = null;
+            List<RankingEntry> page;
+            do {
+                long pageStarted = System.nanoTime();
+                page = store.getRankingsAfter(bossIds.get(0), after, PAGE_SIZE).join();
+                keysetPages.record(micros(pageStarted));
+                ranked += page.size();
+                after = page.isEmpty() ? after : page.get(page.size() - 1);
+            } while (page.size() == PAGE_SIZE);
+            assertEquals((int) store.getTotalClears(bossIds.get(0)).join(), ranked);
+
+            System.out.printf("%n[%s] %d writes in %d ms (%d/s), latencies in microseconds%n",
+                    backend, written, writeMillis, written * 1000L / writeMillis);
+            print("write", writes);
+            print("top page", topPages);
+            print("keyset page", keysetPages);
+            print("standing", standings);
+            print("history page", historyPages);
+            print("player stats", stats);
+        } finally {
+            databaseManager.disconnect();
+        }
+    }
+
+    private static LogHistogram measure(int iterations, Supplier<?> operation) {
+        LogHistogram histogram = new LogHistogram();
+        for (int i = 0; i < iterations; i++) {
+            long started = System.nanoTime();
+            operation.get();
+            histogram.record(micros(started));
+        }
+        return histogram;
+    }
+
+    private static long micros(long startedNanos) {
+        return (System.nanoTime() - startedNanos) / 1_000;
+    }
+
+    private static void print(String operation, LogHistogram histogram) {
+        System.out.printf("  %-14s n=%-6d p50=%-8d p95=%-8d p99=%d%n", operation, histogram.getCount(),
+                histogram.getPercentile(50), histogram.getPercentile(95), histogram.getPercentile(99));
+    }
+}
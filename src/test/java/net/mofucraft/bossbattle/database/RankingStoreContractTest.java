@@ -0,0 +1,373 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.database.migration.Migration;
+import net.mofucraft.bossbattle.database.migration.MigrationContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Behaviour every {@link RankingStore} backend must share. Each test works on its own boss
+ * ids and players, so the backends can keep one database for the whole class.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class RankingStoreContractTest {
+
+    private DatabaseManager databaseManager;
+    private RankingStore store;
+
+    protected abstract DatabaseManager openDatabase() throws Exception;
+
+    @BeforeAll
+    void connect() throws Exception {
+        databaseManager = openDatabase();
+        store = new RankingRepository(databaseManager);
+        store.setPeriodCalendar(ZoneId.systemDefault(), DayOfWeek.MONDAY);
+    }
+
+    @AfterAll
+    void disconnect() {
+        if (databaseManager != null) {
+            databaseManager.disconnect();
+        }
+    }
+
+    @Test
+    void clearIsRankedCountedAndAddedToHistory() {
+        String bossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+
+        clear(playerId, bossId, 60_000);
+
+        List<RankingEntry> top = store.getTopRankings(bossId, 10).join();
+        assertEquals(1, top.size());
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(playerId, top.get(0).getPlayerId());
+        assertEquals(60_000, top.get(0).getClearTimeMillis());
+
+        PlayerStanding standing = store.getPlayerStanding(playerId, bossId).join();
+        assertEquals(1, standing.getRank());
+        assertEquals(1, standing.getTotalRanked());
+        assertEquals(1, store.getTotalClears(bossId).join());
+
+        List<HistoryEntry> history = store.getHistoryAfter(playerId, bossId, null, 10).join();
+        assertEquals(1, history.size());
+        assertEquals("VICTORY", history.get(0).getResult());
+        assertEquals(60_000, history.get(0).getDurationMillis());
+
+        PlayerBossStats stats = store.getPlayerStats(playerId).join().get(bossId);
+        assertEquals(1, stats.getAttempts());
+        assertEquals(1, stats.getVictories());
+    }
+
+    @Test
+    void personalBestKeepsTheFastestClear() {
+        String bossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+
+        clear(playerId, bossId, 50_000);
+        clear(playerId, bossId, 70_000);
+        assertEquals(50_000, store.getPlayerBestTime(playerId, bossId).join());
+
+        clear(playerId, bossId, 40_000);
+        assertEquals(40_000, store.getPlayerBestTime(playerId, bossId).join());
+        assertEquals(1, store.getTopRankings(bossId, 10).join().size());
+        assertEquals(3, store.getPlayerStats(playerId).join().get(bossId).getAttempts());
+    }
+
+    @Test
+    void personalBestBackfillRebuildsBestsFromExistingClears() throws Exception {
+        Optional<Migration> backfill = databaseManager.getBackend().getMigrations().stream()
+                .filter(migration -> migration.getVersion() == 2)
+                .findFirst();
+        assumeTrue(backfill.isPresent(), "backend starts past the personal best backfill");
+
+        String bossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        store.recordBattleResult(UUID.randomUUID(), playerId, "OldName", bossId, "VICTORY", 70_000).join();
+        store.recordBattleResult(UUID.randomUUID(), playerId, "NewName", bossId, "VICTORY", 50_000).join();
+        store.recordBattleResult(UUID.randomUUID(), playerId, "NewName", bossId, "VICTORY", 60_000).join();
+        clear(otherId, bossId, 55_000);
+
+        // Back to the state before V2: clears without bests, and no fixed backfill range
+        try (Connection conn = databaseManager.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM boss_personal_bests WHERE boss_id = ?")) {
+                stmt.setString(1, bossId);
+                stmt.executeUpdate();
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM migration_progress WHERE version = 2")) {
+                stmt.executeUpdate();
+            }
+            backfill.get().apply(new MigrationContext(conn, databaseManager.getLogger(),
+                    databaseManager.getBackend(), 1000, 0));
+        }
+
+        assertEquals(50_000, store.getPlayerBestTime(playerId, bossId).join());
+        assertEquals(55_000, store.getPlayerBestTime(otherId, bossId).join());
+        List<RankingEntry> top = store.getTopRankings(bossId, 10).join();
+        assertEquals(List.of(playerId, otherId), top.stream().map(RankingEntry::getPlayerId).toList());
+        assertEquals("NewName", top.get(0).getPlayerName());
+    }
+
+    @Test
+    void battleIdIsStoredOnlyOnce() {
+        String bossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+        UUID battleId = UUID.randomUUID();
+
+        store.recordBattleResult(battleId, playerId, "Replayed", bossId, "VICTORY", 45_000).join();
+        store.recordBattleResult(battleId, playerId, "Replayed", bossId, "VICTORY", 45_000).join();
+
+        assertEquals(1, store.getHistoryAfter(playerId, bossId, null, 10).join().size());
+        assertEquals(1, store.getPlayerStats(playerId).join().get(bossId).getAttempts());
+    }
+
+    @Test
+    void keysetPagesWalkTheWholeLeaderboardInOrder() {
+        String bossId = newBossId();
+        for (int i = 0; i < 25; i++) {
+            clear(UUID.randomUUID(), bossId, 30_000 + i * 1_000L);
+        }
+
+        List<RankingEntry> walked = new ArrayList<>();
+        RankingEntry after = null;
+        List<RankingEntry> page;
+        do {
+            page = store.getRankingsAfter(bossId, after, 10).join();
+            walked.addAll(page);
+            after = page.isEmpty() ? after : page.get(page.size() - 1);
+        } while (page.size() == 10);
+
+        assertEquals(25, walked.size());
+        for (int i = 0; i < walked.size(); i++) {
+            assertEquals(i + 1, walked.get(i).getRank());
+            assertEquals(30_000 + i * 1_000L, walked.get(i).getClearTimeMillis());
+        }
+        assertTrue(store.getRankingsAfter(bossId, walked.get(24), 10).join().isEmpty());
+    }
+
+    @Test
+    void tiedTimesAreOrderedByPlayerAcrossPages() {
+        String bossId = newBossId();
+        List<UUID> tied = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUID playerId = UUID.randomUUID();
+            tied.add(playerId);
+            clear(playerId, bossId, 42_000);
+        }
+        tied.sort(Comparator.comparing(UUID::toString));
+
+        List<UUID> walked = new ArrayList<>();
+        RankingEntry after = null;
+        for (int i = 0; i < 3; i++) {
+            List<RankingEntry> page = store.getRankingsAfter(bossId, after, 2).join();
+            page.forEach(entry -> walked.add(entry.getPlayerId()));
+            after = page.isEmpty() ? after : page.get(page.size() - 1);
+        }
+
+        assertEquals(tied, walked);
+    }
+
+    @Test
+    void tiedTimesShareTheRankOfTheirFirstEntryAcrossPages() {
+        String bossId = newBossId();
+        clear(UUID.randomUUID(), bossId, 10_000);
+        for (int i = 0; i < 3; i++) {
+            clear(UUID.randomUUID(), bossId, 20_000);
+        }
+        clear(UUID.randomUUID(), bossId, 30_000);
+
+        List<Integer> ranks = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        RankingEntry after = null;
+        for (int i = 0; i < 3; i++) {
+            List<RankingEntry> page = store.getRankingsAfter(bossId, after, 2).join();
+            page.forEach(entry -> {
+                ranks.add(entry.getRank());
+                positions.add(entry.getPosition());
+            });
+            after = page.isEmpty() ? after : page.get(page.size() - 1);
+        }
+
+        assertEquals(List.of(1, 2, 2, 2, 5), ranks);
+        assertEquals(List.of(1, 2, 3, 4, 5), positions);
+
+        Map<String, List<RankingEntry>> leaderboards = store.loadLeaderboards().join();
+        assertEquals(ranks, leaderboards.get(bossId).stream().map(RankingEntry::getRank).toList());
+    }
+
+    @Test
+    void playerResetRemovesOnlyThatPlayer() {
+        String bossId = newBossId();
+        UUID reset = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        clear(reset, bossId, 30_000);
+        clear(kept, bossId, 40_000);
+
+        store.resetPlayerRankings(reset, bossId).join();
+
+        List<RankingEntry> top = store.getTopRankings(bossId, 10).join();
+        assertEquals(1, top.size());
+        assertEquals(kept, top.get(0).getPlayerId());
+        assertEquals(1, top.get(0).getRank());
+        assertEquals(-1, store.getPlayerBestTime(reset, bossId).join());
+        assertEquals(-1, store.getPeriodBestTime(reset, RankingPeriod.DAILY, bossId).join());
+    }
+
+    @Test
+    void bossResetRemovesEveryRecordOfThatBossOnly() {
+        String bossId = newBossId();
+        String otherBossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            clear(UUID.randomUUID(), bossId, 30_000 + i);
+        }
+        clear(playerId, otherBossId, 30_000);
+
+        int deleted = store.resetBossRankings(bossId, newOperation()).join();
+
+        assertEquals(5, deleted);
+        assertTrue(store.getTopRankings(bossId, 10).join().isEmpty());
+        assertEquals(0, store.getTotalClears(bossId).join());
+        assertTrue(store.getPeriodRankingsAfter(RankingPeriod.WEEKLY, bossId, null, 10).join().isEmpty());
+        assertEquals(30_000, store.getPlayerBestTime(playerId, otherBossId).join());
+    }
+
+    @Test
+    void cancelledResetKeepsTheLeaderboardAndAsksForAFullReload() {
+        String bossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+        clear(playerId, bossId, 30_000);
+
+        List<String> resets = new CopyOnWriteArrayList<>();
+        store.addListener(new RankingListener() {
+            @Override
+            public void onRankingsReset(String resetBossId, UUID resetPlayerId) {
+                resets.add(resetBossId + "/" + resetPlayerId);
+            }
+        });
+        BulkOperation operation = newOperation();
+        operation.cancel();
+
+        assertEquals(0, store.resetBossRankings(bossId, operation).join());
+        assertEquals(List.of("null/null"), resets);
+        assertEquals(30_000, store.getPlayerBestTime(playerId, bossId).join());
+    }
+
+    @Test
+    void playerResetAcrossBossesLeavesOtherPlayers() {
+        String bossId = newBossId();
+        String otherBossId = newBossId();
+        UUID reset = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        clear(reset, bossId, 30_000);
+        clear(reset, otherBossId, 30_000);
+        clear(kept, bossId, 40_000);
+
+        int deleted = store.resetAllPlayerRankings(reset, newOperation()).join();
+
+        assertEquals(2, deleted);
+        assertEquals(-1, store.getPlayerBestTime(reset, bossId).join());
+        assertEquals(-1, store.getPlayerBestTime(reset, otherBossId).join());
+        assertEquals(1, store.getPlayerRank(kept, bossId).join());
+    }
+
+    @Test
+    void periodLeaderboardsFollowTheCurrentPeriodAndArePurged() {
+        String bossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+        clear(playerId, bossId, 55_000);
+        clear(playerId, bossId, 65_000);
+
+        for (RankingPeriod period : RankingPeriod.values()) {
+            assertEquals(55_000, store.getPeriodBestTime(playerId, period, bossId).join());
+            List<RankingEntry> page = store.getPeriodRankingsAfter(period, bossId, null, 10).join();
+            assertEquals(1, page.size());
+            assertEquals(playerId, page.get(0).getPlayerId());
+        }
+
+        // Every period started by tomorrow
+        LocalDate tomorrow = LocalDate.now(ZoneId.systemDefault()).plusDays(1);
+        assertTrue(store.purgePeriodBests(tomorrow, 100, 0) >= 3);
+        assertEquals(-1, store.getPeriodBestTime(playerId, RankingPeriod.DAILY, bossId).join());
+        assertEquals(55_000, store.getPlayerBestTime(playerId, bossId).join());
+    }
+
+    @Test
+    void historyPagesAreNewestFirstAndFilterByBoss() {
+        String bossId = newBossId();
+        String otherBossId = newBossId();
+        UUID playerId = UUID.randomUUID();
+        String[] results = {"DEFEAT", "TIMEOUT", "LOGOUT", "DEFEAT", "SURVIVAL"};
+        for (int i = 0; i < results.length; i++) {
+            store.saveBattleHistory(UUID.randomUUID(), playerId, "Historian", bossId, results[i], 1_000L * (i + 1)).join();
+        }
+        clear(playerId, otherBossId, 90_000);
+
+        List<HistoryEntry> first = store.getHistoryAfter(playerId, bossId, null, 3).join();
+        List<HistoryEntry> second = store.getHistoryAfter(playerId, bossId, first.get(2), 3).join();
+        assertEquals(3, first.size());
+        assertEquals(2, second.size());
+        assertEquals(List.of("SURVIVAL", "DEFEAT", "LOGOUT"), first.stream().map(HistoryEntry::getResult).toList());
+        assertEquals(List.of("TIMEOUT", "DEFEAT"), second.stream().map(HistoryEntry::getResult).toList());
+        assertEquals(4, second.get(0).getPosition());
+
+        List<HistoryEntry> all = store.getHistoryAfter(playerId, null, null, 10).join();
+        assertEquals(6, all.size());
+        assertEquals(otherBossId, all.get(0).getBossId());
+
+        Map<String, PlayerBossStats> stats = store.getPlayerStats(playerId).join();
+        PlayerBossStats bossStats = stats.get(bossId);
+        assertEquals(5, bossStats.getAttempts());
+        assertEquals(1, bossStats.getVictories());
+        assertEquals(2, bossStats.getDefeats());
+        assertEquals(1, bossStats.getTimeouts());
+        assertEquals(1, bossStats.getLogouts());
+        assertFalse(store.getTopRankings(bossId, 10).join().stream()
+                .anyMatch(entry -> entry.getPlayerId().equals(playerId)));
+    }
+
+    @Test
+    void playerIsFoundByNameIgnoringCase() {
+        UUID playerId = UUID.randomUUID();
+        String name = "Named" + playerId.toString().substring(0, 8);
+        store.saveBattleHistory(UUID.randomUUID(), playerId, name, newBossId(), "DEFEAT", 5_000).join();
+
+        KnownPlayer found = store.findPlayerByName(name.toUpperCase()).join();
+        assertEquals(playerId, found.getPlayerId());
+        assertEquals(name, found.getName());
+    }
+
+    private void clear(UUID playerId, String bossId, long clearTimeMs) {
+        store.recordBattleResult(UUID.randomUUID(), playerId, "P" + playerId.toString().substring(0, 8),
+                bossId, "VICTORY", clearTimeMs).join();
+    }
+
+    private static String newBossId() {
+        return "boss_" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static BulkOperation newOperation() {
+        return new BulkOperation("test reset", 2, 0, 0, null);
+    }
+}
@@ -0,0 +1,69 @@
+package net.mofucraft.bossbattle.database;
+
+import net.mofucraft.bossbattle.config.ConfigManager;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Connected and migrated databases for store tests. MySQL is used when MOFU_TEST_MYSQL_HOST
+ * is set (with MOFU_TEST_MYSQL_PORT, _DATABASE, _USER and _PASSWORD); its database should be
+ * a scratch one, as tests leave their rows behind.
+ */
+final class TestDatabases {
+
+    static final String MYSQL_HOST_VARIABLE = "MOFU_TEST_MYSQL_HOST";
+
+    private static final Logger LOGGER = Logger.getLogger("MofuBossBattle-Test");
+
+    private TestDatabases() {
+    }
+
+    static DatabaseManager h2(File dataFolder) {
+        return open(StorageBackend.H2, dataFolder, "localhost", 0, "ranking-test", "sa", "");
+    }
+
+    static DatabaseManager mysql(File dataFolder) {
+        return open(StorageBackend.MYSQL, dataFolder,
+                System.getenv(MYSQL_HOST_VARIABLE),
+                Integer.parseInt(getenv("MOFU_TEST_MYSQL_PORT", "3306")),
+                getenv("MOFU_TEST_MYSQL_DATABASE", "mofu_test"),
+                getenv("MOFU_TEST_MYSQL_USER", "root"),
+                getenv("MOFU_TEST_MYSQL_PASSWORD", ""));
+    }
+
+    private static DatabaseManager open(StorageBackend backend, File dataFolder, String host, int port,
+                                        String database, String username, String password) {
+        ConfigManager config = mock(ConfigManager.class);
+        when(config.getStorageBackend()).thenReturn(backend);
+        when(config.getDbHost()).thenReturn(host);
+        when(config.getDbPort()).thenReturn(port);
+        when(config.getDbDatabase()).thenReturn(database);
+        when(config.getDbUsername()).thenReturn(username);
+        when(config.getDbPassword()).thenReturn(password);
+        when(config.getDbPoolSize()).thenReturn(8);
+        when(config.isMetricsEnabled()).thenReturn(true);
+        when(config.getSlowQueryThresholdMs()).thenReturn(1000L);
+        when(config.getSlowQueryLogSize()).thenReturn(50);
+        when(config.getMigrationChunkSize()).thenReturn(1000);
+        when(config.getRetryMaxAttempts()).thenReturn(3);
+        when(config.getRetryBaseDelayMs()).thenReturn(50L);
+        when(config.getRetryMaxDelayMs()).thenReturn(500L);
+        when(config.getCircuitBreakerFailureThreshold()).thenReturn(5);
+        when(config.getCircuitBreakerOpenSeconds()).thenReturn(30L);
+
+        DatabaseManager databaseManager = new DatabaseManager(LOGGER, dataFolder, config);
+        assertTrue(databaseManager.connect(), "could not connect to " + backend.getKey());
+        databaseManager.whenMigrated().join();
+        return databaseManager;
+    }
+
+    private static String getenv(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null && !value.isEmpty() ? value : defaultValue;
+    }
+}